@@ -10,3 +10,15 @@ CREATE TABLE IF NOT EXISTS gtw.knowledge_chunks (
 
 CREATE INDEX IF NOT EXISTS idx_knowledge_chunks_embedding
   ON gtw.knowledge_chunks USING ivfflat (embedding vector_cosine_ops) WITH (lists = 100);
+
+CREATE TABLE IF NOT EXISTS gtw.knowledge_chunks_json (
+  id BIGSERIAL PRIMARY KEY,
+  content TEXT NOT NULL,
+  embedding vector(1536) NOT NULL,
+  created_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Also (re)created by the client at startup, see knowledge.hnsw.* (requires pgvector >= 0.5.0)
+CREATE INDEX IF NOT EXISTS idx_knowledge_chunks_json_embedding_hnsw
+  ON gtw.knowledge_chunks_json USING hnsw (embedding vector_cosine_ops)
+  WITH (m = 16, ef_construction = 64);
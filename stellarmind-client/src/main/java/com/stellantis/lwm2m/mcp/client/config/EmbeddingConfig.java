@@ -1,9 +1,15 @@
 package com.stellantis.lwm2m.mcp.client.config;
 
+import com.stellantis.lwm2m.mcp.client.service.embeddings.EmbeddingCache;
 import com.stellantis.lwm2m.mcp.client.service.embeddings.HybridEmbeddingModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.redisson.api.RedissonClient;
 import org.springframework.ai.bedrock.titan.BedrockTitanEmbeddingModel;
 import org.springframework.ai.openai.OpenAiEmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,7 +20,30 @@ public class EmbeddingConfig {
   HybridEmbeddingModel hybridEmbeddingModel(
       OpenAiEmbeddingModel openai,
       BedrockTitanEmbeddingModel bedrock,
-      @Value("${hybrid.embedding.primary:OPENAI}") String primary) {
-    return new HybridEmbeddingModel(openai, bedrock, primary);
+      @Value("${hybrid.embedding.primary:OPENAI}") String primary,
+      @Value("${spring.ai.openai.embedding.options.model:text-embedding-3-small}")
+          String openaiModel,
+      @Value("${spring.ai.bedrock.titan.embedding.options.model:amazon.titan-embed-text-v2:0}")
+          String bedrockModel,
+      ObjectProvider<EmbeddingCache> embeddingCache) {
+    String primaryModel = "openai".equalsIgnoreCase(primary) ? openaiModel : bedrockModel;
+    return new HybridEmbeddingModel(
+        openai, bedrock, primary, embeddingCache.getIfAvailable(), primaryModel);
+  }
+
+  /** Two-tier (local LRU + optional Redis) cache for {@link HybridEmbeddingModel#embed(String)}. */
+  @Bean
+  @ConditionalOnProperty(
+      name = "hybrid.embedding.cache.enabled",
+      havingValue = "true",
+      matchIfMissing = true)
+  EmbeddingCache embeddingCache(
+      @Value("${hybrid.embedding.cache.max-entries:10000}") int maxEntries,
+      @Value("${hybrid.embedding.cache.redis.enabled:true}") boolean redisEnabled,
+      @Value("${hybrid.embedding.cache.redis.ttl:30d}") Duration redisTtl,
+      RedissonClient redissonClient,
+      MeterRegistry meterRegistry) {
+    return new EmbeddingCache(
+        maxEntries, redisEnabled ? redissonClient : null, redisTtl, meterRegistry);
   }
 }
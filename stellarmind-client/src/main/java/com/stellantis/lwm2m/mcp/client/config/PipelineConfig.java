@@ -0,0 +1,23 @@
+package com.stellantis.lwm2m.mcp.client.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class PipelineConfig {
+
+  /**
+   * Dedicated scheduler for the blocking stages of the /db pipeline (LLM calls, embedding calls,
+   * JDBC). Keeping them off the shared {@code boundedElastic} pool means a slow model cannot starve
+   * the MCP transport or other reactive callers.
+   */
+  @Bean(destroyMethod = "dispose")
+  Scheduler cotPipelineScheduler(
+      @Value("${cot.pipeline.thread-cap:64}") int threadCap,
+      @Value("${cot.pipeline.queued-task-cap:1000}") int queuedTaskCap) {
+    return Schedulers.newBoundedElastic(threadCap, queuedTaskCap, "cot-pipeline");
+  }
+}
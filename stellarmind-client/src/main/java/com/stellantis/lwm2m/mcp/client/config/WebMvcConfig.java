@@ -0,0 +1,17 @@
+package com.stellantis.lwm2m.mcp.client.config;
+
+import com.stellantis.lwm2m.mcp.client.cot.sse.DataBufferHttpMessageConverter;
+import java.util.List;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+  /** Lets {@code ResponseBodyEmitter} write pre-encoded SSE frames without another copy. */
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.add(0, new DataBufferHttpMessageConverter());
+  }
+}
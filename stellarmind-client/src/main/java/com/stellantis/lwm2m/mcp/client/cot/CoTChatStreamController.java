@@ -1,10 +1,13 @@
 package com.stellantis.lwm2m.mcp.client.cot;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.stellantis.lwm2m.mcp.client.cot.agent.SqlValidatorAgent;
-import com.stellantis.lwm2m.mcp.client.cot.service.CoTDecisionService;
-import com.stellantis.lwm2m.mcp.client.service.DatabaseService;
-import java.time.Duration;
+import com.stellantis.lwm2m.mcp.client.cot.dto.QueryRowBatch;
+import com.stellantis.lwm2m.mcp.client.cot.service.CoTPipelineService;
+import com.stellantis.lwm2m.mcp.client.cot.service.DirectQueryService;
+import com.stellantis.lwm2m.mcp.client.cot.sse.ResponseChunk;
+import com.stellantis.lwm2m.mcp.client.cot.sse.ResponseChunkCoalescer;
+import com.stellantis.lwm2m.mcp.client.cot.sse.SseFrame;
+import com.stellantis.lwm2m.mcp.client.cot.sse.SseStreamWriter;
 import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,13 +18,19 @@ import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.chat.memory.ChatMemoryRepository;
 import org.springframework.ai.chat.memory.MessageWindowChatMemory;
 import org.springframework.ai.chat.messages.AssistantMessage;
-import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.mcp.SyncMcpToolCallbackProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 @RequestMapping("/api/v3/cot-chat")
 @RestController
@@ -34,34 +43,36 @@ public class CoTChatStreamController {
   private static final int LAST_N_MESSAGES = 5;
 
   private final ChatClient chatClient;
+  private final ChatClient narratorClient; // no memory advisor: the prompt embeds the result rows
   private final ChatMemory chatMemory;
   private final SyncMcpToolCallbackProvider syncMcpToolCallbackProvider;
-  private final DatabaseService databaseService;
 
-  private final IntentEntityExtractor extractor;
-  private final CoTDecisionService decisionService;
+  private final CoTPipelineService pipelineService;
   private final ObjectMapper objectMapper;
-  private final SqlValidatorAgent sqlValidator;
-  private final ChatMemoryRepository chatMemoryRepository;
+  private final Scheduler pipelineScheduler;
+  private final ResponseChunkCoalescer chunkCoalescer;
+  private final SseStreamWriter sseWriter;
+  private final DirectQueryService directQueryService;
 
   public CoTChatStreamController(
       ChatClient.Builder chatClientBuilder,
       ChatMemoryRepository chatMemoryRepository,
       @Qualifier("lwm2m-mcp-server-callback-tool-provider")
           SyncMcpToolCallbackProvider syncMcpToolCallbackProvider,
-      DatabaseService databaseService,
-      IntentEntityExtractor extractor,
-      CoTDecisionService decisionService,
+      CoTPipelineService pipelineService,
       ObjectMapper objectMapper,
-      SqlValidatorAgent sqlValidator) {
+      @Qualifier("cotPipelineScheduler") Scheduler pipelineScheduler,
+      ResponseChunkCoalescer chunkCoalescer,
+      SseStreamWriter sseWriter,
+      DirectQueryService directQueryService) {
 
     this.syncMcpToolCallbackProvider = syncMcpToolCallbackProvider;
-    this.databaseService = databaseService;
-    this.extractor = extractor;
-    this.decisionService = decisionService;
+    this.pipelineService = pipelineService;
     this.objectMapper = objectMapper;
-    this.sqlValidator = sqlValidator;
-    this.chatMemoryRepository = chatMemoryRepository;
+    this.pipelineScheduler = pipelineScheduler;
+    this.chunkCoalescer = chunkCoalescer;
+    this.sseWriter = sseWriter;
+    this.directQueryService = directQueryService;
 
     this.chatMemory =
         MessageWindowChatMemory.builder()
@@ -69,6 +80,7 @@ public class CoTChatStreamController {
             .chatMemoryRepository(chatMemoryRepository)
             .build();
 
+    this.narratorClient = chatClientBuilder.clone().build();
     this.chatClient =
         chatClientBuilder
             .defaultAdvisors(
@@ -76,8 +88,8 @@ public class CoTChatStreamController {
             .build();
   }
 
-  @PostMapping(path = "/stream", produces = "application/octet-stream")
-  public ResponseEntity<Flux<String>> streamChat(
+  @PostMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<ResponseBodyEmitter> streamChat(
       @RequestParam(required = false) UUID conversationId, @RequestBody Map<String, String> body) {
 
     String userQuery = body.get("text");
@@ -85,7 +97,8 @@ public class CoTChatStreamController {
 
     if (userQuery == null || userQuery.isBlank()) {
       return ResponseEntity.badRequest()
-          .body(Flux.just(formatSseData("error", Map.of("message", "Empty query"))));
+          .contentType(MediaType.TEXT_EVENT_STREAM)
+          .body(sseWriter.write(Flux.just(frame("error", Map.of("message", "Empty query")))));
     }
 
     String cleanQuery = userQuery.trim();
@@ -113,248 +126,397 @@ public class CoTChatStreamController {
 
       if (isDbCommand) {
         cleanQuery = cleanQuery.replaceFirst("(?i)^/db\\s*", "");
-        return handleDbMode(cleanQuery, convId, traceId, t0);
+        DbTurn turn =
+            new DbTurn(
+                cleanQuery,
+                convId,
+                PipelineMode.from(body.get("mode")),
+                directQueryService.narrate(body.get("narrate")),
+                traceId,
+                t0);
+        return handleDbMode(turn);
       }
 
       UUID finalConvId = convId;
-      Flux<String> responseFlux =
+      Flux<SseFrame> responseFlux =
           chatClient
               .prompt()
               .user(cleanQuery)
               .advisors(a -> a.param(ChatMemory.CONVERSATION_ID, finalConvId.toString()))
               .stream()
               .chatResponse()
-              .map(
-                  response -> {
-                    Map<String, Object> data = new HashMap<>();
-                    String text = "";
-                    if (response.getResult() != null && response.getResult().getOutput() != null) {
-                      text = response.getResult().getOutput().getText();
-                    }
-                    data.put("chunk", text);
-                    if (response.getMetadata() != null) {
-                      String model = response.getMetadata().getModel();
-                      data.put("model", model);
-                      if (response.getMetadata().getUsage() != null) {
-                        data.put("usage", response.getMetadata().getUsage());
-                        log.info(
-                            "traceId={} model={} usage={}",
-                            traceId,
-                            model,
-                            response.getMetadata().getUsage());
-                      }
-                    }
-                    return formatSseData("response_chunk", data);
-                  })
+              .transform(
+                  chunks -> chunkCoalescer.coalesce(chunks, CoTChatStreamController::textLength))
+              .map(responses -> responseChunkFrame(responses, traceId))
               .concatWith(
-                  Flux.just(
-                      formatSseData(
-                          "complete",
-                          Map.of(
-                              "conversationId",
-                              convId,
-                              "totalTimeMs",
-                              toMs(System.nanoTime() - t0)))))
+                  Mono.fromSupplier(
+                      () ->
+                          frame(
+                              "complete",
+                              Map.of(
+                                  "conversationId",
+                                  finalConvId,
+                                  "totalTimeMs",
+                                  toMs(System.nanoTime() - t0)))))
               .onErrorResume(
                   e ->
                       Flux.just(
-                          formatSseData(
-                              "error", Map.of("message", e.getMessage(), "traceId", traceId))));
+                          frame(
+                              "error",
+                              Map.of(
+                                  "message", String.valueOf(e.getMessage()), "traceId", traceId))));
 
-      return ResponseEntity.ok()
-          .header("Cache-Control", "no-cache")
-          .header("Connection", "keep-alive")
-          .header("X-Accel-Buffering", "no")
-          .body(responseFlux);
+      return stream(responseFlux);
 
     } catch (Exception e) {
       log.error("traceId={} step=ERROR msg='{}'", traceId, e.getMessage(), e);
-      Flux<String> errorFlux =
-          Flux.just(formatSseData("error", Map.of("message", e.getMessage(), "traceId", traceId)));
-      return ResponseEntity.ok(errorFlux);
+      return stream(
+          Flux.just(
+              frame(
+                  "error", Map.of("message", String.valueOf(e.getMessage()), "traceId", traceId))));
     }
   }
 
-  private ResponseEntity<Flux<String>> handleDbMode(
-      String query, UUID convId, String traceId, long t0) {
-    log.info("traceId={} step=DB_MODE userQuery='{}'", traceId, query);
+  private ResponseEntity<ResponseBodyEmitter> stream(Flux<SseFrame> frames) {
+    return ResponseEntity.ok()
+        .contentType(MediaType.TEXT_EVENT_STREAM)
+        .header("Cache-Control", "no-cache")
+        .header("X-Accel-Buffering", "no")
+        .body(sseWriter.write(frames));
+  }
 
-    // ---- Step 1: Context loading and classification
-    List<Message> history = chatMemoryRepository.findByConversationId(convId.toString());
-    QueryAnalysis analysis;
+  /** One /db turn: the user query plus the per-request pipeline options. */
+  private record DbTurn(
+      String query,
+      UUID convId,
+      PipelineMode mode,
+      boolean narrate,
+      String traceId,
+      long t0) {}
+
+  private ResponseEntity<ResponseBodyEmitter> handleDbMode(DbTurn turn) {
+    String traceId = turn.traceId();
+    log.info(
+        "traceId={} step=DB_MODE mode={} userQuery='{}'", traceId, turn.mode(), turn.query());
+
+    // analysis ‖ (retrieval → generation → validation); each frame goes out as its stage completes
+    Flux<SseFrame> responseFlux =
+        pipelineService
+            .stream(turn.query(), turn.convId(), DEFAULT_TOP_K, traceId)
+            .concatMap(event -> toSse(event, turn))
+            .onErrorResume(
+                e -> {
+                  log.error("traceId={} step=ERROR msg='{}'", traceId, e.getMessage(), e);
+                  return Flux.just(
+                      frame(
+                          "error",
+                          Map.of("message", String.valueOf(e.getMessage()), "traceId", traceId)));
+                });
+
+    return stream(responseFlux);
+  }
 
-    if (!history.isEmpty()) {
-      analysis = extractor.analyze(query, history); // contextual mode
-    } else {
-      analysis = extractor.analyze(query); // fresh intent mode
+  private Flux<SseFrame> toSse(CoTPipelineEvent event, DbTurn turn) {
+    if (event instanceof CoTPipelineEvent.AnalysisCompleted e) {
+      QueryAnalysis analysis = e.analysis();
+      return Flux.just(
+          frame(
+              "analysis",
+              Map.of(
+                  "intent", String.valueOf(analysis.intent()),
+                  "entities", analysis.entities() != null ? analysis.entities() : List.of())));
     }
+    if (event instanceof CoTPipelineEvent.CacheHit e) {
+      log.info(
+          "traceId={} step=SQL_CACHE_HIT similarity={} cachedQuestion='{}'",
+          turn.traceId(),
+          e.similarity(),
+          e.cachedQuestion());
+      return Flux.just(
+          frame(
+              "sql_cache_hit",
+              Map.of("cachedQuestion", e.cachedQuestion(), "similarity", e.similarity())));
+    }
+    if (event instanceof CoTPipelineEvent.SchemaSelected e) {
+      return Flux.just(
+          frame(
+              "schema_selected",
+              Map.of("selectedSchema", String.valueOf(e.decision().selectedSchemaTable()))));
+    }
+    if (event instanceof CoTPipelineEvent.SqlGenerated e) {
+      log.info(
+          "traceId={} step=SQL sqlPreview='{}'",
+          turn.traceId(),
+          truncate(e.sqlQuery(), MAX_LOG_SQL_LEN));
+      return Flux.just(frame("sql_generated", Map.of("sqlQuery", e.sqlQuery())));
+    }
+    if (event instanceof CoTPipelineEvent.Completed e) {
+      return answer(e.result(), turn);
+    }
+    return Flux.empty();
+  }
 
-    log.debug("traceId={} analysis={}", traceId, analysis);
+  /** Final stage: hand the SQL to the LLM with the MCP tools and stream its answer. */
+  private Flux<SseFrame> answer(CoTPipelineResult result, DbTurn turn) {
+    String sqlQuery = result.sqlQuery();
+    String traceId = turn.traceId();
+    UUID convId = turn.convId();
+    ValidationResult validation = result.validation();
 
-    if (analysis.isFollowUp()) {
+    if (result.isFollowUp()) {
       log.info("traceId={} step=FOLLOW_UP detected, skipping analysis and validation.", traceId);
+    } else if (!validation.isValid()) {
+      // SSE event back to user
+      return Flux.just(
+          frame(
+              "sql_validation_failed",
+              Map.of(
+                  "sqlQuery", sqlQuery,
+                  "issues", validation.getIssues(),
+                  "suggestion", String.valueOf(validation.getSuggestion()))));
+    }
 
-      chatMemory.add(convId.toString(), new UserMessage(query));
-
-      Flux<String> followUpResponseFlux =
-          Flux.concat(
-                  Flux.just(
-                      formatSseData("sql_generated", Map.of("sqlQuery", analysis.finalSql()))),
-                  chatClient
-                      .prompt()
-                      .user(analysis.finalSql())
-                      .advisors(a -> a.param(ChatMemory.CONVERSATION_ID, convId.toString()))
-                      .toolCallbacks(syncMcpToolCallbackProvider)
-                      .stream()
-                      .content()
-                      .map(chunk -> formatSseData("response_chunk", Map.of("chunk", chunk))),
-                  Flux.just(
-                      formatSseData(
-                          "complete",
-                          Map.of(
-                              "conversationId",
-                              convId,
-                              "sqlQuery",
-                              analysis.finalSql(),
-                              "totalTimeMs",
-                              toMs(System.nanoTime() - t0)))))
-              .delayElements(Duration.ofMillis(20));
-
-      return ResponseEntity.ok()
-          .header("Cache-Control", "no-cache")
-          .header("Connection", "keep-alive")
-          .header("X-Accel-Buffering", "no")
-          .body(followUpResponseFlux);
+    if (turn.mode() == PipelineMode.DIRECT) {
+      return answerDirect(result, turn);
     }
 
-    var decision = decisionService.decide(query, DEFAULT_TOP_K, convId);
+    StringBuilder assistantResponse = new StringBuilder();
 
-    String sqlQuery = databaseService.generateCotSqlWithLlm(query, decision);
-    log.info("traceId={} step=SQL sqlPreview='{}'", traceId, truncate(sqlQuery, MAX_LOG_SQL_LEN));
+    Flux<SseFrame> llmFlux =
+        chatClient
+            .prompt()
+            .user(sqlQuery)
+            .advisors(a -> a.param(ChatMemory.CONVERSATION_ID, convId.toString()))
+            .toolCallbacks(syncMcpToolCallbackProvider)
+            .stream()
+            .chatResponse()
+            .doOnNext(
+                response -> {
+                  String chunk = response.getResult().getOutput().getText();
+                  if (chunk != null) assistantResponse.append(chunk);
+                })
+            .transform(
+                chunks -> chunkCoalescer.coalesce(chunks, CoTChatStreamController::textLength))
+            .map(responses -> responseChunkFrame(responses, traceId))
+            .onErrorResume(
+                e -> Flux.just(frame("error", Map.of("message", String.valueOf(e.getMessage())))));
+
+    Mono<Void> storeAssistantMessage =
+        result.isFollowUp()
+            ? Mono.empty()
+            : Mono.<Void>fromRunnable(
+                    () ->
+                        storeAssistantMessage(
+                            result, assistantResponse.toString(), Map.of(), convId, traceId))
+                .subscribeOn(pipelineScheduler);
+
+    return Flux.<SseFrame>concat(
+        storeUserMessage(turn).thenMany(llmFlux),
+        storeAssistantMessage.then(Mono.<SseFrame>empty()),
+        completeFrame(sqlQuery, turn));
+  }
 
-    // SQL Validation (reasoning step)
-    ValidationResult validation =
-        sqlValidator.validate(query, sqlQuery, decision.fullSchemaContext());
+  /**
+   * Direct mode: execute the SQL here and stream the rows in batches ({@code rows} events, then
+   * {@code rows_complete}). When narration is on, the LLM summary starts as soon as the first batch
+   * is read and streams in parallel with the remaining batches. The narrator has no memory advisor,
+   * so both sides of the turn are stored explicitly (follow-ups included).
+   */
+  private Flux<SseFrame> answerDirect(CoTPipelineResult result, DbTurn turn) {
+    String sqlQuery = result.sqlQuery();
+    String traceId = turn.traceId();
+    RowTally tally = new RowTally();
+    StringBuilder narrative = new StringBuilder();
+
+    // one cursor, two branches; prefetch 1 keeps at most a couple of batches in flight
+    Flux<SseFrame> answerFlux =
+        directQueryService
+            .stream(sqlQuery)
+            .publish(
+                batches ->
+                    Flux.<SseFrame>merge(
+                        1,
+                        batches
+                            .doOnNext(tally::add)
+                            .map(batch -> frame("rows", batch))
+                            .concatWith(Mono.fromSupplier(() -> rowsCompleteFrame(tally, traceId))),
+                        turn.narrate()
+                            ? batches
+                                .take(1)
+                                .flatMap(
+                                    first ->
+                                        narrate(turn.query(), sqlQuery, first, narrative, traceId))
+                            : Flux.<SseFrame>empty()),
+                1);
+
+    Mono<Void> storeAssistantMessage =
+        Mono.<Void>fromRunnable(
+                () ->
+                    storeAssistantMessage(
+                        result,
+                        narrative.length() > 0 ? narrative.toString() : tally.summary(),
+                        Map.of("mode", PipelineMode.DIRECT.name(), "rowCount", tally.rowCount),
+                        turn.convId(),
+                        traceId))
+            .subscribeOn(pipelineScheduler);
+
+    return Flux.<SseFrame>concat(
+        storeUserMessage(turn).thenMany(answerFlux),
+        storeAssistantMessage.then(Mono.<SseFrame>empty()),
+        completeFrame(sqlQuery, turn));
+  }
 
-    if (!validation.isValid()) {
-      // SSE event back to user
-      return ResponseEntity.ok(
-          Flux.just(
-              formatSseData(
-                  "sql_validation_failed",
-                  Map.of(
-                      "sqlQuery", sqlQuery,
-                      "issues", validation.getIssues(),
-                      "suggestion", validation.getSuggestion()))));
-    }
+  private SseFrame rowsCompleteFrame(RowTally tally, String traceId) {
+    log.info(
+        "traceId={} step=DIRECT_ROWS rowCount={} truncated={}",
+        traceId,
+        tally.rowCount,
+        tally.truncated);
+    return frame("rows_complete", Map.of("rowCount", tally.rowCount, "truncated", tally.truncated));
+  }
 
-    chatMemory.add(convId.toString(), new UserMessage(query));
+  private Flux<SseFrame> narrate(
+      String question,
+      String sqlQuery,
+      QueryRowBatch first,
+      StringBuilder narrative,
+      String traceId) {
+    return narratorClient
+        .prompt()
+        .user(directQueryService.narrativePrompt(question, sqlQuery, first))
+        .stream()
+        .chatResponse()
+        .doOnNext(
+            response -> {
+              String chunk = response.getResult().getOutput().getText();
+              if (chunk != null) narrative.append(chunk);
+            })
+        .transform(
+            chunks -> chunkCoalescer.coalesce(chunks, CoTChatStreamController::textLength))
+        .map(responses -> responseChunkFrame(responses, traceId))
+        .onErrorResume(
+            e -> Flux.just(frame("error", Map.of("message", String.valueOf(e.getMessage())))));
+  }
 
-    StringBuilder assistantResponse = new StringBuilder();
+  /** Running totals of a streamed result; only the rows branch writes to it. */
+  private static final class RowTally {
+    private List<String> columns = List.of();
+    private long rowCount;
+    private boolean truncated;
 
-    Flux<String> responseFlux =
-        Flux.concat(
-                Flux.just(
-                    formatSseData(
-                        "analysis", Map.of("intent", "analysis.intent()", "entities", ""))),
-                Flux.just(
-                    formatSseData(
-                        "schema_selected",
-                        Map.of("selectedSchema", decision.selectedSchemaTable()))),
-                Flux.just(formatSseData("sql_generated", Map.of("sqlQuery", sqlQuery))),
-                chatClient
-                    .prompt()
-                    .user(sqlQuery)
-                    .advisors(a -> a.param(ChatMemory.CONVERSATION_ID, convId.toString()))
-                    .toolCallbacks(syncMcpToolCallbackProvider)
-                    .stream()
-                    .chatResponse()
-                    .doOnNext(
-                        response -> {
-                          String chunk = response.getResult().getOutput().getText();
-                          if (chunk != null) assistantResponse.append(chunk);
-                        })
-                    .doOnComplete(
-                        () -> {
-                          try {
-                            Map<String, Object> meta = new LinkedHashMap<>();
-                            meta.put("sqlQuery", sqlQuery);
-                            if (decision != null && decision.selectedSchemaTable() != null) {
-                              meta.put("schema", decision.selectedSchemaTable());
-                              meta.put("table", decision.selectedSchemaTable());
-                            }
-                            if (analysis != null) {
-                              meta.put("intent", analysis.intent());
-                              meta.put("entities", analysis.entities());
-                              meta.put("filters", analysis.filters());
-                            }
-
-                            String messageJson =
-                                objectMapper.writeValueAsString(
-                                    Map.of(
-                                        "role",
-                                        "ASSISTANT",
-                                        "content",
-                                        assistantResponse.toString(),
-                                        "meta",
-                                        meta));
-
-                            chatMemory.add(convId.toString(), new AssistantMessage(messageJson));
-
-                            log.info(
-                                "traceId={} step=MEMORY_STORED metaKeys={} length={}",
-                                traceId,
-                                meta.keySet(),
-                                assistantResponse.length());
-                          } catch (Exception e) {
-                            log.error(
-                                "traceId={} step=MEMORY_STORE_ERROR msg='{}'",
-                                traceId,
-                                e.getMessage(),
-                                e);
-                          }
-                        })
-                    .map(
-                        response -> {
-                          Map<String, Object> data = new HashMap<>();
-                          data.put("chunk", response.getResult().getOutput().getText());
-                          if (response.getMetadata() != null) {
-                            data.put("model", response.getMetadata().getModel());
-                            if (response.getMetadata().getUsage() != null) {
-                              data.put("usage", response.getMetadata().getUsage());
-                            }
-                          }
-                          return formatSseData("response_chunk", data);
-                        })
-                    .onErrorResume(
-                        e -> Flux.just(formatSseData("error", Map.of("message", e.getMessage())))),
-                Flux.just(
-                    formatSseData(
-                        "complete",
-                        Map.of(
-                            "conversationId", convId,
-                            "sqlQuery", sqlQuery,
-                            "totalTimeMs", toMs(System.nanoTime() - t0)))))
-            .delayElements(Duration.ofMillis(20));
+    void add(QueryRowBatch batch) {
+      if (batch.columns() != null) columns = batch.columns();
+      rowCount += batch.rows().size();
+      truncated |= batch.truncated();
+    }
 
-    return ResponseEntity.ok()
-        .header("Cache-Control", "no-cache")
-        .header("Connection", "keep-alive")
-        .header("X-Accel-Buffering", "no")
-        .body(responseFlux);
+    String summary() {
+      return "Returned " + rowCount + (truncated ? "+" : "") + " rows with columns " + columns;
+    }
+  }
+
+  // Memory writes are JDBC calls: keep them on the pipeline scheduler, never on the stream thread
+  private Mono<Void> storeUserMessage(DbTurn turn) {
+    return Mono.<Void>fromRunnable(
+            () -> chatMemory.add(turn.convId().toString(), new UserMessage(turn.query())))
+        .subscribeOn(pipelineScheduler);
   }
 
-  private String formatSseData(String eventType, Object data) {
+  private Mono<SseFrame> completeFrame(String sqlQuery, DbTurn turn) {
+    return Mono.fromSupplier(
+        () ->
+            frame(
+                "complete",
+                Map.of(
+                    "conversationId", turn.convId(),
+                    "sqlQuery", sqlQuery,
+                    "totalTimeMs", toMs(System.nanoTime() - turn.t0()))));
+  }
+
+  private void storeAssistantMessage(
+      CoTPipelineResult result,
+      String content,
+      Map<String, Object> extraMeta,
+      UUID convId,
+      String traceId) {
     try {
-      String jsonData =
+      CoTDecisionResult decision = result.decision();
+      QueryAnalysis analysis = result.analysis();
+
+      Map<String, Object> meta = new LinkedHashMap<>();
+      meta.put("sqlQuery", result.sqlQuery());
+      if (decision != null && decision.selectedSchemaTable() != null) {
+        meta.put("schema", decision.selectedSchemaTable());
+        meta.put("table", decision.selectedSchemaTable());
+      }
+      if (analysis != null) {
+        meta.put("intent", analysis.intent());
+        meta.put("entities", analysis.entities());
+        meta.put("filters", analysis.filters());
+      }
+      meta.putAll(extraMeta);
+
+      String messageJson =
           objectMapper.writeValueAsString(
-              Map.of("type", eventType, "data", data, "timestamp", System.currentTimeMillis()));
-      return "data: " + jsonData + "\n\n";
+              Map.of("role", "ASSISTANT", "content", content, "meta", meta));
+
+      chatMemory.add(convId.toString(), new AssistantMessage(messageJson));
+
+      log.info(
+          "traceId={} step=MEMORY_STORED metaKeys={} length={}",
+          traceId,
+          meta.keySet(),
+          content.length());
     } catch (Exception e) {
-      return "data: {\"type\":\"error\",\"data\":{\"message\":\"Serialization error\"}}\n\n";
+      log.error("traceId={} step=MEMORY_STORE_ERROR msg='{}'", traceId, e.getMessage(), e);
     }
   }
 
+  /** Merges a coalesced group of LLM chunks into a single {@code response_chunk} frame. */
+  private SseFrame responseChunkFrame(List<ChatResponse> responses, String traceId) {
+    StringBuilder text = new StringBuilder();
+    String model = null;
+    Usage usage = null;
+    for (ChatResponse response : responses) {
+      if (response.getResult() != null && response.getResult().getOutput() != null) {
+        String chunk = response.getResult().getOutput().getText();
+        if (chunk != null) text.append(chunk);
+      }
+      if (response.getMetadata() != null) {
+        if (StringUtils.hasText(response.getMetadata().getModel())) {
+          model = response.getMetadata().getModel();
+        }
+        Usage u = response.getMetadata().getUsage();
+        // keep the most informative usage: streamed usage usually arrives on the last chunk only
+        if (u != null && (usage == null || hasTokens(u))) {
+          usage = u;
+        }
+      }
+    }
+
+    if (usage != null && hasTokens(usage)) {
+      log.info("traceId={} model={} usage={}", traceId, model, usage);
+    }
+    return new SseFrame("response_chunk", new ResponseChunk(text.toString(), model, usage));
+  }
+
+  /** Text length of one LLM chunk, which bounds how many are merged into a frame. */
+  private static int textLength(ChatResponse response) {
+    if (response.getResult() == null || response.getResult().getOutput() == null) {
+      return 0;
+    }
+    String chunk = response.getResult().getOutput().getText();
+    return chunk == null ? 0 : chunk.length();
+  }
+
+  private static boolean hasTokens(Usage usage) {
+    return usage.getTotalTokens() != null && usage.getTotalTokens() > 0;
+  }
+
+  private static SseFrame frame(String eventType, Object data) {
+    return new SseFrame(eventType, data);
+  }
+
   private static long toMs(long nanos) {
     return nanos / 1_000_000L;
   }
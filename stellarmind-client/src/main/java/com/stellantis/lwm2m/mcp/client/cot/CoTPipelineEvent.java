@@ -0,0 +1,27 @@
+package com.stellantis.lwm2m.mcp.client.cot;
+
+/**
+ * Stage events emitted by the /db pipeline as soon as each stage completes, so that the controller
+ * can push the matching SSE frame without waiting for the rest of the pipeline.
+ *
+ * <p>Order: {@link AnalysisCompleted}, then {@link SchemaSelected} and {@link SqlGenerated} (only
+ * {@link SqlGenerated} for follow-ups, preceded by {@link CacheHit} when the semantic cache
+ * answered), and finally exactly one {@link Completed}.
+ */
+public interface CoTPipelineEvent {
+
+  /** Intent/follow-up analysis is available. */
+  record AnalysisCompleted(QueryAnalysis analysis) implements CoTPipelineEvent {}
+
+  /** The semantic SQL cache matched a previously answered question. */
+  record CacheHit(String cachedQuestion, double similarity) implements CoTPipelineEvent {}
+
+  /** Schema retrieval finished and the context for SQL generation was selected. */
+  record SchemaSelected(CoTDecisionResult decision) implements CoTPipelineEvent {}
+
+  /** SQL is available (generated, or reused from the agent for follow-ups). */
+  record SqlGenerated(String sqlQuery) implements CoTPipelineEvent {}
+
+  /** Terminal event carrying the full pipeline result. */
+  record Completed(CoTPipelineResult result) implements CoTPipelineEvent {}
+}
@@ -0,0 +1,32 @@
+package com.stellantis.lwm2m.mcp.client.cot;
+
+/**
+ * Outcome of the /db pipeline for a single user turn.
+ *
+ * @param analysis intent/follow-up analysis of the turn
+ * @param decision schema retrieval result (null for follow-ups, which reuse the previous context)
+ * @param sqlQuery SQL to execute (the agent's {@code finalSql} for follow-ups)
+ * @param validation validation verdict for {@code sqlQuery} (null for follow-ups)
+ * @param fromCache whether the SQL was served by the semantic SQL cache
+ */
+public record CoTPipelineResult(
+    QueryAnalysis analysis,
+    CoTDecisionResult decision,
+    String sqlQuery,
+    ValidationResult validation,
+    boolean fromCache) {
+
+  /** Result for a follow-up turn: the speculative retrieval branch was discarded. */
+  public static CoTPipelineResult followUp(QueryAnalysis analysis) {
+    return new CoTPipelineResult(analysis, null, analysis.finalSql(), null, false);
+  }
+
+  /** Copy of this result with the given analysis (the speculative branch completes without it). */
+  public CoTPipelineResult withAnalysis(QueryAnalysis analysis) {
+    return new CoTPipelineResult(analysis, decision, sqlQuery, validation, fromCache);
+  }
+
+  public boolean isFollowUp() {
+    return analysis != null && analysis.isFollowUp();
+  }
+}
@@ -0,0 +1,28 @@
+package com.stellantis.lwm2m.mcp.client.cot;
+
+import java.util.Locale;
+
+/** How the /db pipeline turns validated SQL into an answer. Selected per request. */
+public enum PipelineMode {
+
+  /** The LLM receives the SQL with the MCP tools, executes it and narrates the result. */
+  AGENT,
+
+  /**
+   * The SQL is executed straight away and streamed as a {@code rows} event; an LLM narrative over
+   * a compact summary is optional.
+   */
+  DIRECT;
+
+  /** Parses the request value; anything unknown or blank falls back to {@link #AGENT}. */
+  public static PipelineMode from(String value) {
+    if (value == null || value.isBlank()) {
+      return AGENT;
+    }
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return AGENT;
+    }
+  }
+}
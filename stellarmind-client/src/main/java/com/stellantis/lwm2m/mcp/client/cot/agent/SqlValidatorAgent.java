@@ -2,6 +2,7 @@ package com.stellantis.lwm2m.mcp.client.cot.agent;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stellantis.lwm2m.mcp.client.cot.ValidationResult;
+import com.stellantis.lwm2m.mcp.client.cot.cache.ValidationVerdictCache;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +14,9 @@ import org.springframework.stereotype.Service;
  * request and the provided schema context.
  *
  * <p>It performs semantic checks that go beyond deterministic read-only enforcement.
+ *
+ * <p>Positive verdicts are cached in Redis by SQL fingerprint and schema context (see {@link
+ * ValidationVerdictCache}), so a query shape that has already passed is not sent to the LLM again.
  */
 @Service
 public class SqlValidatorAgent {
@@ -21,10 +25,15 @@ public class SqlValidatorAgent {
 
   private final ChatClient chatClient;
   private final ObjectMapper objectMapper;
+  private final ValidationVerdictCache verdictCache;
 
-  public SqlValidatorAgent(ChatClient.Builder chatClientBuilder, ObjectMapper objectMapper) {
+  public SqlValidatorAgent(
+      ChatClient.Builder chatClientBuilder,
+      ObjectMapper objectMapper,
+      ValidationVerdictCache verdictCache) {
     this.chatClient = chatClientBuilder.build();
     this.objectMapper = objectMapper;
+    this.verdictCache = verdictCache;
   }
 
   /**
@@ -36,6 +45,11 @@ public class SqlValidatorAgent {
    * @return ValidationResult containing isValid flag, issues, and optional suggestion
    */
   public ValidationResult validate(String userQuery, String sqlQuery, List<String> schemaContext) {
+    ValidationResult cached = verdictCache.get(sqlQuery, schemaContext);
+    if (cached != null) {
+      log.info("SQL Validation result for query='{}' served from cache: {}", sqlQuery, cached);
+      return cached;
+    }
     try {
       String prompt =
           """
@@ -68,6 +82,7 @@ public class SqlValidatorAgent {
       ValidationResult result = objectMapper.readValue(response, ValidationResult.class);
 
       log.info("SQL Validation result for query='{}': {}", sqlQuery, result);
+      verdictCache.put(sqlQuery, schemaContext, result);
       return result;
     } catch (Exception e) {
       log.error("Validation failed for sql='{}': {}", sqlQuery, e.getMessage(), e);
@@ -0,0 +1,36 @@
+package com.stellantis.lwm2m.mcp.client.cot.cache;
+
+import com.stellantis.lwm2m.mcp.client.cot.QueryAnalysis;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A validated NL→SQL translation held by {@link SemanticSqlCache}.
+ *
+ * <p>JSON format in Redis: { "question": "..", "embedding": [..], "sql": "..", "schemaTable": "..",
+ * "intent": "..", "entities": [..], "filters": {..}, "createdAt": 0 }
+ *
+ * @param question user question the SQL was generated for
+ * @param embedding embedding of {@code question}
+ * @param sql validated SQL
+ * @param schemaTable schema.table selected for the question (may be empty)
+ * @param intent analysed intent of the question
+ * @param entities analysed entities of the question
+ * @param filters analysed filters of the question
+ * @param createdAt epoch millis when the entry was stored
+ */
+public record CachedSql(
+    String question,
+    float[] embedding,
+    String sql,
+    String schemaTable,
+    String intent,
+    List<String> entities,
+    Map<String, String> filters,
+    long createdAt) {
+
+  /** Analysis of the original question, reused when a fresh turn is served from the cache. */
+  public QueryAnalysis toAnalysis() {
+    return new QueryAnalysis(intent, entities, filters, null);
+  }
+}
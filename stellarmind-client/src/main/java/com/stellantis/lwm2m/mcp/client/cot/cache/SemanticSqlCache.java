@@ -0,0 +1,348 @@
+package com.stellantis.lwm2m.mcp.client.cot.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stellantis.lwm2m.mcp.client.knowledge.SchemaKnowledgeReindexedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.redisson.api.RBucket;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Semantic cache of validated NL→SQL translations, keyed by query-embedding similarity.
+ *
+ * <p>A question whose embedding is within {@code similarity-threshold} (cosine) of a cached one is
+ * answered with the cached SQL, skipping schema retrieval, generation and validation.
+ *
+ * <ul>
+ *   <li>Lookup runs against an in-process index of L2-normalised vectors (brute-force dot product;
+ *       a few thousand entries take a few milliseconds).
+ *   <li>Entries are shared across nodes through Redis: {@value #ENTRIES_KEY} holds them (with a
+ *       TTL), {@value #TOPIC} announces additions and clears so every node's index follows. The
+ *       local index drops an entry at the same TTL, counted from {@link CachedSql#createdAt}.
+ *   <li>{@link #store} updates the local index at once; the Redis write and the announcement are
+ *       sent asynchronously, off the response path.
+ *   <li>When the schema knowledge is reindexed with a different fingerprint, the whole cache is
+ *       dropped on all nodes.
+ * </ul>
+ *
+ * <p>All Redis failures are logged and degrade to a cache miss.
+ */
+@Component
+public class SemanticSqlCache {
+
+  private static final Logger log = LoggerFactory.getLogger(SemanticSqlCache.class);
+
+  static final String ENTRIES_KEY = "text2sql:semcache:entries";
+  static final String FINGERPRINT_KEY = "text2sql:semcache:fingerprint";
+  static final String TOPIC = "text2sql:semcache:events";
+
+  private static final String CLEAR_MESSAGE = "CLEAR";
+  private static final String ADD_PREFIX = "ADD:";
+
+  /** Result of a successful lookup. */
+  public record Hit(CachedSql entry, double similarity) {}
+
+  /**
+   * Immutable snapshot of the local index; replaced on every change (writes are rare). {@code
+   * expiresAt} holds epoch millis.
+   */
+  private record Index(String[] keys, float[][] vectors, CachedSql[] entries, long[] expiresAt) {
+    static final Index EMPTY =
+        new Index(new String[0], new float[0][], new CachedSql[0], new long[0]);
+
+    int size() {
+      return keys.length;
+    }
+
+    boolean contains(String key) {
+      for (String k : keys) {
+        if (k.equals(key)) return true;
+      }
+      return false;
+    }
+  }
+
+  private final boolean enabled;
+  private final double threshold;
+  private final int maxEntries;
+  private final Duration ttl;
+  private final RedissonClient redissonClient;
+  private final ObjectMapper objectMapper;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter stores;
+  private final Counter invalidations;
+
+  private volatile Index index = Index.EMPTY;
+
+  public SemanticSqlCache(
+      @Value("${cot.semantic-cache.enabled:true}") boolean enabled,
+      @Value("${cot.semantic-cache.similarity-threshold:0.95}") double threshold,
+      @Value("${cot.semantic-cache.max-entries:5000}") int maxEntries,
+      @Value("${cot.semantic-cache.ttl:7d}") Duration ttl,
+      RedissonClient redissonClient,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.threshold = threshold;
+    this.maxEntries = Math.max(1, maxEntries);
+    this.ttl = ttl;
+    this.redissonClient = redissonClient;
+    this.objectMapper = objectMapper;
+
+    this.hits = lookupCounter(meterRegistry, "hit");
+    this.misses = lookupCounter(meterRegistry, "miss");
+    this.stores = Counter.builder("cot.sql.cache.stores").register(meterRegistry);
+    this.invalidations = Counter.builder("cot.sql.cache.invalidations").register(meterRegistry);
+    Gauge.builder("cot.sql.cache.size", this, c -> c.index.size()).register(meterRegistry);
+  }
+
+  private static Counter lookupCounter(MeterRegistry registry, String result) {
+    return Counter.builder("cot.sql.cache.lookups").tag("result", result).register(registry);
+  }
+
+  /** Subscribes to cache events and warms the local index from Redis. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    if (!enabled) {
+      log.info("SemanticSqlCache: disabled via 'cot.semantic-cache.enabled=false'.");
+      return;
+    }
+    try {
+      topic().addListener(String.class, (channel, message) -> onMessage(message));
+      int loaded = 0;
+      for (Map.Entry<String, String> e : entries().entrySet()) {
+        if (addLocal(e.getKey(), decode(e.getValue()))) loaded++;
+      }
+      log.info("SemanticSqlCache: warmed up. entries={} threshold={}", loaded, threshold);
+    } catch (Exception e) {
+      log.warn("SemanticSqlCache: warm-up failed, starting empty: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Finds the most similar cached question.
+   *
+   * @param embedding embedding of the incoming question
+   * @return the best entry if its cosine similarity reaches the threshold
+   */
+  public Optional<Hit> lookup(float[] embedding) {
+    if (!enabled || embedding == null || embedding.length == 0) {
+      return Optional.empty();
+    }
+    float[] q = normalize(embedding);
+    Index idx = index;
+    long now = System.currentTimeMillis();
+    int best = -1;
+    double bestScore = -1;
+    for (int i = 0; i < idx.size(); i++) {
+      if (idx.expiresAt()[i] <= now) continue;
+      float[] v = idx.vectors()[i];
+      if (v.length != q.length) continue; // entry from a provider with other dimensions
+      double score = dot(q, v);
+      if (score > bestScore) {
+        bestScore = score;
+        best = i;
+      }
+    }
+    if (best >= 0 && bestScore >= threshold) {
+      hits.increment();
+      log.debug("SemanticSqlCache: hit similarity={} key={}", bestScore, idx.keys()[best]);
+      return Optional.of(new Hit(idx.entries()[best], bestScore));
+    }
+    misses.increment();
+    return Optional.empty();
+  }
+
+  /**
+   * Stores a validated translation locally, then writes it to Redis and announces it to the other
+   * nodes without waiting for either.
+   */
+  public void store(CachedSql entry) {
+    if (!enabled || entry.embedding() == null || entry.embedding().length == 0) {
+      return;
+    }
+    String key = keyOf(entry.question());
+    try {
+      addLocal(key, entry);
+      entries()
+          .fastPutAsync(
+              key, objectMapper.writeValueAsString(entry), ttl.toMillis(), TimeUnit.MILLISECONDS)
+          .thenCompose(added -> topic().publishAsync(ADD_PREFIX + key))
+          .whenComplete(
+              (receivers, e) -> {
+                if (e != null) {
+                  log.warn("SemanticSqlCache: failed to store key={}: {}", key, e.getMessage());
+                } else {
+                  stores.increment();
+                }
+              });
+    } catch (Exception e) {
+      log.warn("SemanticSqlCache: failed to store key={}: {}", key, e.getMessage());
+    }
+  }
+
+  /**
+   * Drops every entry when the schema knowledge changed. The fingerprint is swapped atomically in
+   * Redis, so only the first node that sees a new fingerprint clears the shared map.
+   */
+  @EventListener
+  public void onSchemaReindexed(SchemaKnowledgeReindexedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    try {
+      RBucket<String> fingerprint = redissonClient.getBucket(FINGERPRINT_KEY, StringCodec.INSTANCE);
+      String previous = fingerprint.getAndSet(event.fingerprint());
+      if (event.fingerprint().equals(previous)) {
+        log.info("SemanticSqlCache: schema knowledge unchanged, keeping {} entries.", index.size());
+        return;
+      }
+      entries().clear();
+      index = Index.EMPTY;
+      topic().publish(CLEAR_MESSAGE);
+      invalidations.increment();
+      log.info(
+          "SemanticSqlCache: schema knowledge changed ({} -> {}), cache cleared.",
+          previous,
+          event.fingerprint());
+    } catch (Exception e) {
+      log.warn("SemanticSqlCache: invalidation failed: {}", e.getMessage());
+      index = Index.EMPTY;
+    }
+  }
+
+  private void onMessage(String message) {
+    try {
+      if (CLEAR_MESSAGE.equals(message)) {
+        index = Index.EMPTY;
+        return;
+      }
+      if (message.startsWith(ADD_PREFIX)) {
+        String key = message.substring(ADD_PREFIX.length());
+        if (index.contains(key)) return; // our own store, or already known
+        String json = entries().get(key);
+        if (json != null) addLocal(key, decode(json));
+      }
+    } catch (Exception e) {
+      log.warn("SemanticSqlCache: failed to apply event '{}': {}", message, e.getMessage());
+    }
+  }
+
+  /**
+   * Adds or replaces an entry in the local index, dropping expired entries and evicting the oldest
+   * entry when full.
+   */
+  private synchronized boolean addLocal(String key, CachedSql entry) {
+    if (entry == null || entry.embedding() == null || entry.embedding().length == 0) {
+      return false;
+    }
+    long now = System.currentTimeMillis();
+    long expiresAt = (entry.createdAt() > 0 ? entry.createdAt() : now) + ttl.toMillis();
+    if (expiresAt <= now) {
+      return false;
+    }
+    Index cur = index;
+    boolean[] drop = new boolean[cur.size()];
+    int kept = 0;
+    for (int i = 0; i < cur.size(); i++) {
+      drop[i] = cur.keys()[i].equals(key) || cur.expiresAt()[i] <= now;
+      if (!drop[i]) kept++;
+    }
+    // the index is full: evict the oldest entry left
+    for (int i = 0; kept >= maxEntries && i < cur.size(); i++) {
+      if (!drop[i]) {
+        drop[i] = true;
+        kept--;
+      }
+    }
+    int n = kept + 1;
+    String[] keys = new String[n];
+    float[][] vectors = new float[n][];
+    CachedSql[] values = new CachedSql[n];
+    long[] expiry = new long[n];
+    int j = 0;
+    for (int i = 0; i < cur.size(); i++) {
+      if (drop[i]) continue;
+      keys[j] = cur.keys()[i];
+      vectors[j] = cur.vectors()[i];
+      values[j] = cur.entries()[i];
+      expiry[j] = cur.expiresAt()[i];
+      j++;
+    }
+    keys[j] = key;
+    vectors[j] = normalize(entry.embedding());
+    values[j] = entry;
+    expiry[j] = expiresAt;
+    index = new Index(keys, vectors, values, expiry);
+    return true;
+  }
+
+  private CachedSql decode(String json) {
+    try {
+      return objectMapper.readValue(json, CachedSql.class);
+    } catch (Exception e) {
+      log.warn("SemanticSqlCache: unreadable entry skipped: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  private RMapCache<String, String> entries() {
+    return redissonClient.getMapCache(ENTRIES_KEY, StringCodec.INSTANCE);
+  }
+
+  private RTopic topic() {
+    return redissonClient.getTopic(TOPIC, StringCodec.INSTANCE);
+  }
+
+  /** Entry key: SHA-256 of the case- and whitespace-normalised question. */
+  static String keyOf(String question) {
+    String normalized = question.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    try {
+      byte[] hash =
+          MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static float[] normalize(float[] v) {
+    double norm = Math.sqrt(dot(v, v));
+    if (norm == 0) return Arrays.copyOf(v, v.length);
+    float[] out = new float[v.length];
+    for (int i = 0; i < v.length; i++) {
+      out[i] = (float) (v[i] / norm);
+    }
+    return out;
+  }
+
+  private static double dot(float[] a, float[] b) {
+    double sum = 0;
+    for (int i = 0; i < a.length; i++) {
+      sum += a[i] * b[i];
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,118 @@
+package com.stellantis.lwm2m.mcp.client.cot.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stellantis.lwm2m.mcp.client.cot.ValidationResult;
+import com.stellantis.lwm2m.mcp.sql.SqlFingerprint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis-backed cache of {@link ValidationResult}s, keyed by the {@link SqlFingerprint} of the SQL
+ * plus a hash of the schema context it was validated against.
+ *
+ * <p>Key format: text2sql:verdict:{sqlFingerprint}:{schemaContextHash}
+ *
+ * <p>Value format (JSON): { "is_valid": true, "issues": [], "suggestion": null }
+ *
+ * <p>Only positive verdicts are cached: a negative verdict may come from a transient LLM error and
+ * its suggestion is specific to the original query. Redis failures degrade to a miss.
+ */
+@Component
+public class ValidationVerdictCache {
+
+  private static final Logger log = LoggerFactory.getLogger(ValidationVerdictCache.class);
+
+  /** Redis key pattern: text2sql:verdict:{sqlFingerprint}:{schemaContextHash} */
+  private static final String KEY_PATTERN = "text2sql:verdict:%s:%s";
+
+  private final boolean enabled;
+  private final Duration ttl;
+  private final RedissonClient redissonClient;
+  private final ObjectMapper objectMapper;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter stores;
+
+  public ValidationVerdictCache(
+      @Value("${cot.validation.cache.enabled:true}") boolean enabled,
+      @Value("${cot.validation.cache.ttl:24h}") Duration ttl,
+      RedissonClient redissonClient,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.ttl = ttl;
+    this.redissonClient = redissonClient;
+    this.objectMapper = objectMapper;
+    this.hits = lookupCounter(meterRegistry, "hit");
+    this.misses = lookupCounter(meterRegistry, "miss");
+    this.stores = Counter.builder("cot.sql.validation.cache.stores").register(meterRegistry);
+  }
+
+  private static Counter lookupCounter(MeterRegistry registry, String result) {
+    return Counter.builder("cot.sql.validation.cache.lookups")
+        .tag("result", result)
+        .register(registry);
+  }
+
+  /**
+   * @return the cached verdict for this SQL shape and schema context, or null
+   */
+  public ValidationResult get(String sqlQuery, List<String> schemaContext) {
+    if (!enabled) {
+      return null;
+    }
+    String key = buildKey(sqlQuery, schemaContext);
+    try {
+      String value = bucket(key).get();
+      if (value != null) {
+        hits.increment();
+        log.debug("Validation verdict cache hit key={}", key);
+        Verdict verdict = objectMapper.readValue(value, Verdict.class);
+        return new ValidationResult(verdict.valid(), verdict.issues(), verdict.suggestion());
+      }
+    } catch (Exception e) {
+      log.warn("Validation verdict cache read failed key={}: {}", key, e.getMessage());
+    }
+    misses.increment();
+    return null;
+  }
+
+  /** Stores a positive verdict; negative verdicts are ignored. */
+  public void put(String sqlQuery, List<String> schemaContext, ValidationResult verdict) {
+    if (!enabled || verdict == null || !verdict.isValid()) {
+      return;
+    }
+    String key = buildKey(sqlQuery, schemaContext);
+    try {
+      Verdict value = new Verdict(true, verdict.getIssues(), verdict.getSuggestion());
+      bucket(key).set(objectMapper.writeValueAsString(value), ttl);
+      stores.increment();
+    } catch (Exception e) {
+      log.warn("Validation verdict cache write failed key={}: {}", key, e.getMessage());
+    }
+  }
+
+  private RBucket<String> bucket(String key) {
+    return redissonClient.getBucket(key, StringCodec.INSTANCE);
+  }
+
+  private static String buildKey(String sqlQuery, List<String> schemaContext) {
+    String context = schemaContext == null ? "" : String.join("\u0000", schemaContext);
+    return KEY_PATTERN.formatted(SqlFingerprint.of(sqlQuery), SqlFingerprint.sha256(context));
+  }
+
+  /** Stored form; keeps the {@code is_valid} field name used by the validator's own JSON. */
+  private record Verdict(
+      @JsonProperty("is_valid") boolean valid, List<String> issues, String suggestion) {}
+}
@@ -0,0 +1,25 @@
+package com.stellantis.lwm2m.mcp.client.cot.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * One batch of rows read from a streaming query cursor; payload of the {@code rows} SSE event.
+ *
+ * <p>JSON format: { "columns": [..], "rows": [[..], ..], "offset": 0, "last": false, "truncated":
+ * false } — {@code columns} is only sent with the first batch.
+ *
+ * @param columns column labels in select-list order (first batch only, otherwise null)
+ * @param rows row values, each in column order
+ * @param offset index of the first row of this batch within the result
+ * @param last true when the cursor is known to be exhausted after this batch
+ * @param truncated true when the result was cut at the configured row cap
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record QueryRowBatch(
+    List<String> columns, List<List<Object>> rows, long offset, boolean last, boolean truncated) {
+
+  public boolean isFirst() {
+    return offset == 0;
+  }
+}
@@ -2,8 +2,8 @@ package com.stellantis.lwm2m.mcp.client.cot.service;
 
 import com.stellantis.lwm2m.mcp.client.cot.CoTDecisionResult;
 import com.stellantis.lwm2m.mcp.client.execption.SqlGenerationException;
+import com.stellantis.lwm2m.mcp.client.knowledge.KnowledgeRetriever;
 import com.stellantis.lwm2m.mcp.client.model.KnowledgeChunkJson;
-import com.stellantis.lwm2m.mcp.client.repository.KnowledgeChunkJsonRepository;
 import com.stellantis.lwm2m.mcp.client.service.embeddings.HybridEmbeddingModel;
 import java.util.*;
 import org.slf4j.Logger;
@@ -24,15 +24,15 @@ public class CoTDecisionService {
 
   private static final Logger log = LoggerFactory.getLogger(CoTDecisionService.class);
 
-  private final KnowledgeChunkJsonRepository repo;
+  private final KnowledgeRetriever retriever;
   private final HybridEmbeddingModel embeddingService;
   private final RerankerService rerankerService;
 
   public CoTDecisionService(
-      KnowledgeChunkJsonRepository repo,
+      KnowledgeRetriever retriever,
       HybridEmbeddingModel embeddingService,
       RerankerService rerankerService) {
-    this.repo = repo;
+    this.retriever = retriever;
     this.embeddingService = embeddingService;
     this.rerankerService = rerankerService;
   }
@@ -43,11 +43,16 @@ public class CoTDecisionService {
     float[] embedding = embeddingService.embed(queryVec);
     log.debug("🔍 Step 2: Generated embedding size={}", (embedding != null ? embedding.length : 0));
 
+    return decide(queryVec, embedding, k, conversationId);
+  }
+
+  /** Same as {@link #decide(String, int, UUID)} for a query that is already embedded. */
+  public CoTDecisionResult decide(String queryVec, float[] embedding, int k, UUID conversationId) {
     if (embedding == null || embedding.length == 0) {
       throw new SqlGenerationException("Empty embedding vector from embedding model");
     }
 
-    List<KnowledgeChunkJson> candidates = repo.findMostRelevants(embedding, k);
+    List<KnowledgeChunkJson> candidates = retriever.findMostRelevant(embedding, k);
     log.debug("🔍 Step 4: Repo returned {} candidates", candidates.size());
 
     // Rerank candidates using hybrid BM25 + Embedding scoring
@@ -0,0 +1,259 @@
+package com.stellantis.lwm2m.mcp.client.cot.service;
+
+import com.stellantis.lwm2m.mcp.client.cot.CoTDecisionResult;
+import com.stellantis.lwm2m.mcp.client.cot.CoTPipelineEvent;
+import com.stellantis.lwm2m.mcp.client.cot.CoTPipelineEvent.AnalysisCompleted;
+import com.stellantis.lwm2m.mcp.client.cot.CoTPipelineEvent.CacheHit;
+import com.stellantis.lwm2m.mcp.client.cot.CoTPipelineEvent.Completed;
+import com.stellantis.lwm2m.mcp.client.cot.CoTPipelineEvent.SchemaSelected;
+import com.stellantis.lwm2m.mcp.client.cot.CoTPipelineEvent.SqlGenerated;
+import com.stellantis.lwm2m.mcp.client.cot.CoTPipelineResult;
+import com.stellantis.lwm2m.mcp.client.cot.IntentEntityExtractor;
+import com.stellantis.lwm2m.mcp.client.cot.QueryAnalysis;
+import com.stellantis.lwm2m.mcp.client.cot.ValidationResult;
+import com.stellantis.lwm2m.mcp.client.cot.cache.CachedSql;
+import com.stellantis.lwm2m.mcp.client.cot.cache.SemanticSqlCache;
+import com.stellantis.lwm2m.mcp.client.cot.validation.SqlValidationService;
+import com.stellantis.lwm2m.mcp.client.execption.SqlGenerationException;
+import com.stellantis.lwm2m.mcp.client.service.DatabaseService;
+import com.stellantis.lwm2m.mcp.client.service.embeddings.HybridEmbeddingModel;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Runs the /db pipeline stages concurrently and reports each stage as a {@link CoTPipelineEvent}
+ * the moment it completes.
+ *
+ * <p>Schema retrieval does not depend on the intent analysis, so it is started speculatively next
+ * to {@link IntentEntityExtractor#analyze}. SQL generation and validation chain directly off the
+ * retrieval result. The speculative branch is only thrown away when the agent decides the turn is
+ * a follow-up; at that point it is cancelled wherever it is (embedding, pgvector query, generation
+ * or validation). Its events are buffered until the analysis is known, so the client always sees
+ * {@code analysis} first.
+ *
+ * <p>The query is embedded once, up front, and checked against the {@link SemanticSqlCache}. A hit
+ * replaces retrieval, generation and validation; on a fresh conversation it also replaces the
+ * intent analysis (the cached entry carries the analysis of the original question). Turns with
+ * history are still analysed, since a paraphrase may be a follow-up. SQL that passes validation is
+ * added to the cache.
+ *
+ * <p>Validation goes through {@link SqlValidationService}: the parser-based check decides most
+ * turns on its own and the LLM validator is only called when configured.
+ *
+ * <p>Every blocking LLM/JDBC call runs on the dedicated {@code cotPipelineScheduler}; nothing
+ * blocks the caller. Cancelling the returned {@link Flux} cancels every stage still in flight.
+ */
+@Service
+public class CoTPipelineService {
+
+  private static final Logger log = LoggerFactory.getLogger(CoTPipelineService.class);
+
+  private final IntentEntityExtractor extractor;
+  private final CoTDecisionService decisionService;
+  private final DatabaseService databaseService;
+  private final SqlValidationService sqlValidator;
+  private final ChatMemoryRepository chatMemoryRepository;
+  private final HybridEmbeddingModel embeddingModel;
+  private final SemanticSqlCache semanticCache;
+  private final Scheduler scheduler;
+
+  public CoTPipelineService(
+      IntentEntityExtractor extractor,
+      CoTDecisionService decisionService,
+      DatabaseService databaseService,
+      SqlValidationService sqlValidator,
+      ChatMemoryRepository chatMemoryRepository,
+      HybridEmbeddingModel embeddingModel,
+      SemanticSqlCache semanticCache,
+      @Qualifier("cotPipelineScheduler") Scheduler scheduler) {
+    this.extractor = extractor;
+    this.decisionService = decisionService;
+    this.databaseService = databaseService;
+    this.sqlValidator = sqlValidator;
+    this.chatMemoryRepository = chatMemoryRepository;
+    this.embeddingModel = embeddingModel;
+    this.semanticCache = semanticCache;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Streams the pipeline stages for one user turn.
+   *
+   * @param query user query (without the {@code /db} prefix)
+   * @param conversationId conversation the turn belongs to
+   * @param topK number of schema chunks to retrieve
+   * @param traceId trace id for log correlation
+   * @return stage events, terminated by a single {@link Completed}
+   */
+  public Flux<CoTPipelineEvent> stream(
+      String query, UUID conversationId, int topK, String traceId) {
+    return Flux.defer(
+        () -> {
+          // an empty Mono would complete every stage silently; fail the stream instead
+          Mono<float[]> embedding =
+              blocking(() -> embeddingModel.embed(query))
+                  .filter(vector -> vector.length > 0)
+                  .switchIfEmpty(
+                      Mono.error(
+                          new SqlGenerationException("Embedding model returned no vector")))
+                  .cache();
+          Mono<Optional<SemanticSqlCache.Hit>> cached =
+              embedding.map(semanticCache::lookup).cache();
+
+          // replay(): buffers the speculative stage events until the analysis is known
+          ConnectableFlux<CoTPipelineEvent> speculative =
+              speculativeSql(query, conversationId, topK, embedding, cached).replay();
+          Disposable inFlight = speculative.connect();
+
+          Mono<QueryAnalysis> analysis =
+              blocking(() -> chatMemoryRepository.findByConversationId(conversationId.toString()))
+                  .flatMap(history -> analyze(query, history, cached));
+
+          return analysis
+              .flatMapMany(
+                  a -> {
+                    log.debug("traceId={} analysis={}", traceId, a);
+                    if (a.isFollowUp()) {
+                      inFlight.dispose();
+                      log.info(
+                          "traceId={} step=FOLLOW_UP speculative retrieval discarded", traceId);
+                      return Flux.<CoTPipelineEvent>just(
+                          new AnalysisCompleted(a),
+                          new SqlGenerated(a.finalSql()),
+                          new Completed(CoTPipelineResult.followUp(a)));
+                    }
+                    return Flux.<CoTPipelineEvent>concat(
+                        Mono.just(new AnalysisCompleted(a)),
+                        speculative.concatMap(
+                            e ->
+                                e instanceof Completed c
+                                    ? complete(c.result().withAnalysis(a), query, embedding)
+                                    : Mono.just(e)));
+                  })
+              .doFinally(signal -> inFlight.dispose());
+        });
+  }
+
+  private Mono<QueryAnalysis> analyze(
+      String query, List<Message> history, Mono<Optional<SemanticSqlCache.Hit>> cached) {
+    if (!history.isEmpty()) {
+      return blocking(() -> extractor.analyze(query, history)); // contextual mode
+    }
+    // fresh intent mode: a cache hit already carries the analysis of the original question
+    return cached.flatMap(
+        hit ->
+            hit.isPresent()
+                ? Mono.just(hit.get().entry().toAnalysis())
+                : blocking(() -> extractor.analyze(query)));
+  }
+
+  /**
+   * cache lookup → (retrieval → generation → validation) on a miss; the terminal event has no
+   * analysis yet.
+   */
+  private Flux<CoTPipelineEvent> speculativeSql(
+      String query,
+      UUID conversationId,
+      int topK,
+      Mono<float[]> embedding,
+      Mono<Optional<SemanticSqlCache.Hit>> cached) {
+    return cached.flatMapMany(
+        hit -> {
+          if (hit.isPresent()) {
+            return cachedSql(hit.get());
+          }
+          return embedding.flatMapMany(vector -> generatedSql(query, vector, conversationId, topK));
+        });
+  }
+
+  private Flux<CoTPipelineEvent> cachedSql(SemanticSqlCache.Hit hit) {
+    CachedSql entry = hit.entry();
+    CoTDecisionResult decision =
+        new CoTDecisionResult(
+            false,
+            entry.schemaTable(),
+            List.of(),
+            "semantic-cache",
+            List.of(),
+            List.of(),
+            List.of());
+    return Flux.<CoTPipelineEvent>just(
+        new CacheHit(entry.question(), hit.similarity()),
+        new SchemaSelected(decision),
+        new SqlGenerated(entry.sql()),
+        new Completed(
+            new CoTPipelineResult(
+                null, decision, entry.sql(), new ValidationResult(true, List.of(), null), true)));
+  }
+
+  private Flux<CoTPipelineEvent> generatedSql(
+      String query, float[] embedding, UUID conversationId, int topK) {
+    return blocking(() -> decisionService.decide(query, embedding, topK, conversationId))
+        .flatMapMany(
+            decision ->
+                Flux.<CoTPipelineEvent>concat(
+                    Mono.just(new SchemaSelected(decision)),
+                    blocking(() -> databaseService.generateCotSqlWithLlm(query, decision))
+                        .flatMapMany(
+                            sql ->
+                                Flux.<CoTPipelineEvent>concat(
+                                    Mono.just(new SqlGenerated(sql)),
+                                    blocking(
+                                            () ->
+                                                sqlValidator.validate(
+                                                    query, sql, decision.fullSchemaContext()))
+                                        .map(
+                                            validation ->
+                                                new Completed(
+                                                    new CoTPipelineResult(
+                                                        null,
+                                                        decision,
+                                                        sql,
+                                                        validation,
+                                                        false)))))));
+  }
+
+  /**
+   * Terminal event; freshly validated SQL is added to the semantic cache, whose Redis write does
+   * not hold the event back.
+   */
+  private Mono<CoTPipelineEvent> complete(
+      CoTPipelineResult result, String query, Mono<float[]> embedding) {
+    Completed completed = new Completed(result);
+    if (result.fromCache() || result.validation() == null || !result.validation().isValid()) {
+      return Mono.just(completed);
+    }
+    QueryAnalysis a = result.analysis();
+    return embedding
+        .doOnNext(
+            vector ->
+                semanticCache.store(
+                    new CachedSql(
+                        query,
+                        vector,
+                        result.sqlQuery(),
+                        result.decision().selectedSchemaTable(),
+                        a.intent(),
+                        a.entities(),
+                        a.filters(),
+                        System.currentTimeMillis())))
+        .thenReturn(completed);
+  }
+
+  private <T> Mono<T> blocking(Callable<T> call) {
+    return Mono.fromCallable(call).subscribeOn(scheduler);
+  }
+}
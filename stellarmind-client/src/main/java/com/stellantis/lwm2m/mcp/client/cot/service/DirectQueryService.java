@@ -0,0 +1,107 @@
+package com.stellantis.lwm2m.mcp.client.cot.service;
+
+import com.stellantis.lwm2m.mcp.client.cot.PipelineMode;
+import com.stellantis.lwm2m.mcp.client.cot.dto.QueryRowBatch;
+import com.stellantis.lwm2m.mcp.client.service.DatabaseService;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Executes validated SQL for {@link PipelineMode#DIRECT} and prepares the compact result summary
+ * the optional narrative step is prompted with. Skips the two LLM hops of the agent mode (deciding
+ * to call {@code executeDataQuery}, then reading its output).
+ *
+ * <p>Rows are streamed from a forward-only cursor in batches of {@code cot.direct.batch-size}, so
+ * heap use does not grow with the result size.
+ */
+@Service
+public class DirectQueryService {
+
+  /** Longest cell value copied into the narrative summary. */
+  private static final int MAX_CELL_LEN = 80;
+
+  private final DatabaseService databaseService;
+  private final Scheduler scheduler;
+  private final int maxRows;
+  private final int fetchSize;
+  private final int batchSize;
+  private final int summaryRows;
+  private final boolean narrateByDefault;
+
+  public DirectQueryService(
+      DatabaseService databaseService,
+      @Qualifier("cotPipelineScheduler") Scheduler scheduler,
+      @Value("${cot.direct.max-rows:100000}") int maxRows,
+      @Value("${cot.direct.fetch-size:500}") int fetchSize,
+      @Value("${cot.direct.batch-size:200}") int batchSize,
+      @Value("${cot.direct.summary-rows:20}") int summaryRows,
+      @Value("${cot.direct.narrate:true}") boolean narrateByDefault) {
+    this.databaseService = databaseService;
+    this.scheduler = scheduler;
+    this.maxRows = maxRows;
+    this.fetchSize = fetchSize;
+    this.batchSize = batchSize;
+    this.summaryRows = summaryRows;
+    this.narrateByDefault = narrateByDefault;
+  }
+
+  /**
+   * Streams the query result in batches. Cursor reads (and the demand that drives them) run on the
+   * pipeline scheduler, one batch per request.
+   */
+  public Flux<QueryRowBatch> stream(String sql) {
+    return databaseService.streamQuery(sql, fetchSize, batchSize, maxRows).subscribeOn(scheduler);
+  }
+
+  /** Per-request {@code narrate} flag, falling back to {@code cot.direct.narrate}. */
+  public boolean narrate(String requested) {
+    return requested == null || requested.isBlank()
+        ? narrateByDefault
+        : Boolean.parseBoolean(requested.trim());
+  }
+
+  /**
+   * Builds the narrative prompt from the first batch: the question, the SQL and at most {@code
+   * summary-rows} rows as a pipe-separated table. Long cells are cut, so the prompt stays small
+   * whatever the result size.
+   */
+  public String narrativePrompt(String question, String sql, QueryRowBatch first) {
+    List<List<Object>> rows = first.rows();
+    int shown = Math.min(summaryRows, rows.size());
+
+    StringBuilder sb = new StringBuilder(1024);
+    sb.append("Answer the user's question from the query result below. ")
+        .append("Be concise, do not invent data and do not show SQL.\n\n")
+        .append("QUESTION: ")
+        .append(question)
+        .append("\n\nSQL: ")
+        .append(sql)
+        .append("\n\nRESULT: ");
+    if (first.last()) {
+      sb.append(rows.size()).append(first.truncated() ? "+ rows (truncated)" : " rows");
+    } else {
+      sb.append("more than ").append(rows.size()).append(" rows");
+    }
+    if (shown < rows.size() || !first.last()) {
+      sb.append(", first ").append(shown).append(" shown");
+    }
+    sb.append('\n').append(String.join(" | ", first.columns())).append('\n');
+    for (List<Object> row : rows.subList(0, shown)) {
+      for (int i = 0; i < row.size(); i++) {
+        if (i > 0) sb.append(" | ");
+        sb.append(cell(row.get(i)));
+      }
+      sb.append('\n');
+    }
+    return sb.toString();
+  }
+
+  private static String cell(Object value) {
+    String s = String.valueOf(value);
+    return s.length() <= MAX_CELL_LEN ? s : s.substring(0, MAX_CELL_LEN) + "...";
+  }
+}
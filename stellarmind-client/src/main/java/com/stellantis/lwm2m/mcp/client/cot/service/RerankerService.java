@@ -1,9 +1,11 @@
 package com.stellantis.lwm2m.mcp.client.cot.service;
 
+import com.stellantis.lwm2m.mcp.client.knowledge.KnowledgeRetriever;
 import com.stellantis.lwm2m.mcp.client.model.KnowledgeChunkJson;
 import com.stellantis.lwm2m.mcp.client.repository.KnowledgeChunkJsonRepository;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.slf4j.Logger;
@@ -12,7 +14,8 @@ import org.springframework.stereotype.Service;
 
 /**
  * Service responsible for performing post-retrieval reranking using a hybrid BM25 + Embedding
- * scoring approach directly in PostgreSQL.
+ * scoring approach. The {@link KnowledgeRetriever} scores the candidates in process when it holds
+ * them (the in-memory retriever); otherwise they are reranked in PostgreSQL.
  */
 @Service
 public class RerankerService {
@@ -20,9 +23,11 @@ public class RerankerService {
   private static final Logger log = LoggerFactory.getLogger(RerankerService.class);
 
   private final KnowledgeChunkJsonRepository repo;
+  private final KnowledgeRetriever retriever;
 
-  public RerankerService(KnowledgeChunkJsonRepository repo) {
+  public RerankerService(KnowledgeChunkJsonRepository repo, KnowledgeRetriever retriever) {
     this.repo = repo;
+    this.retriever = retriever;
   }
 
   public List<KnowledgeChunkJson> rerank(
@@ -40,6 +45,14 @@ public class RerankerService {
 
     log.debug("RerankerService: reranking {} candidates for query '{}'", ids.size(), queryText);
 
+    Optional<List<KnowledgeChunkJson>> inProcess =
+        retriever.rerank(candidates, queryVec, queryText, topN);
+    if (inProcess.isPresent()) {
+      log.info(
+          "RerankerService: reranked in process, returning {} results", inProcess.get().size());
+      return inProcess.get();
+    }
+
     String queryVecStr = Arrays.toString(queryVec).replace('(', '[').replace(')', ']');
 
     // Correct way to log first few vector elements
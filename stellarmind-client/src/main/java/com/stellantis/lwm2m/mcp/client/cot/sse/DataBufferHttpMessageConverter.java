@@ -0,0 +1,70 @@
+package com.stellantis.lwm2m.mcp.client.cot.sse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * Writes a {@link DataBuffer} to the servlet response as-is and releases it. Heap buffers are
+ * written straight from their backing array; direct buffers are copied through a small scratch
+ * array. Write-only.
+ */
+public class DataBufferHttpMessageConverter extends AbstractHttpMessageConverter<DataBuffer> {
+
+  private static final int COPY_CHUNK = 4096;
+
+  public DataBufferHttpMessageConverter() {
+    super(MediaType.ALL);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return DataBuffer.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected DataBuffer readInternal(
+      Class<? extends DataBuffer> clazz, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("DataBuffer is write-only", inputMessage);
+  }
+
+  @Override
+  protected void writeInternal(DataBuffer buffer, HttpOutputMessage outputMessage)
+      throws IOException {
+    try {
+      OutputStream body = outputMessage.getBody();
+      try (DataBuffer.ByteBufferIterator it = buffer.readableByteBuffers()) {
+        while (it.hasNext()) {
+          write(it.next(), body);
+        }
+      }
+    } finally {
+      DataBufferUtils.release(buffer);
+    }
+  }
+
+  private static void write(ByteBuffer bb, OutputStream body) throws IOException {
+    if (bb.hasArray()) {
+      body.write(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining());
+      return;
+    }
+    byte[] scratch = new byte[Math.min(COPY_CHUNK, bb.remaining())];
+    while (bb.hasRemaining()) {
+      int n = Math.min(scratch.length, bb.remaining());
+      bb.get(scratch, 0, n);
+      body.write(scratch, 0, n);
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.stellantis.lwm2m.mcp.client.cot.sse;
+
+import org.springframework.ai.chat.metadata.Usage;
+
+/**
+ * Payload of a {@code response_chunk} frame. Written field by field by {@link SseFrameEncoder}, so
+ * the hottest frame type never goes through a {@code Map} or a full Jackson bean pass.
+ *
+ * @param chunk streamed text
+ * @param model model that produced the chunk (nullable)
+ * @param usage token usage reported so far (nullable)
+ */
+public record ResponseChunk(String chunk, String model, Usage usage) {}
@@ -0,0 +1,155 @@
+package com.stellantis.lwm2m.mcp.client.cot.sse;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Output stage for streamed LLM answers: groups small token chunks into SSE frames instead of
+ * emitting (and pacing) one frame per chunk.
+ *
+ * <ul>
+ *   <li>The first chunk is always emitted on its own, immediately, so time-to-first-token is
+ *       unchanged.
+ *   <li>Following chunks are grouped until their text reaches {@code max-chars} characters or
+ *       {@code max-delay} has passed since the group was opened, whichever comes first. Chunk sizes
+ *       vary widely between providers, so the group is bounded by text, not by chunk count.
+ *   <li>The pending group is flushed as soon as the source completes, so {@code complete} is never
+ *       delayed.
+ *   <li>Downstream demand is honoured: a slow client receives larger groups rather than building
+ *       an unbounded queue.
+ * </ul>
+ *
+ * <p>Configured per deployment via {@code cot.stream.coalesce.*}.
+ */
+@Component
+public class ResponseChunkCoalescer {
+
+  private final boolean enabled;
+  private final int maxChars;
+  private final Duration maxDelay;
+
+  public ResponseChunkCoalescer(
+      @Value("${cot.stream.coalesce.enabled:true}") boolean enabled,
+      @Value("${cot.stream.coalesce.max-chars:256}") int maxChars,
+      @Value("${cot.stream.coalesce.max-delay:40ms}") Duration maxDelay) {
+    this.enabled = enabled;
+    this.maxChars = Math.max(1, maxChars);
+    this.maxDelay = maxDelay;
+  }
+
+  /**
+   * Groups the source elements into frames.
+   *
+   * @param source raw chunk stream
+   * @param chars text length of a chunk
+   * @return non-empty groups of consecutive chunks, in source order
+   */
+  public <T> Flux<List<T>> coalesce(Flux<T> source, ToIntFunction<? super T> chars) {
+    if (!enabled) {
+      return source.map(List::of);
+    }
+    return Flux.create(sink -> new Grouping<>(sink, chars).start(source));
+  }
+
+  /** State of one subscription; every transition holds the monitor. */
+  private final class Grouping<T> {
+    private final FluxSink<List<T>> sink;
+    private final ToIntFunction<? super T> chars;
+    private List<T> group = new ArrayList<>();
+    private int groupChars;
+    private boolean first = true;
+    private boolean due; // the group reached max-chars or max-delay and waits for demand
+    private boolean completed;
+    private Disposable timer = Disposables.disposed();
+
+    Grouping(FluxSink<List<T>> sink, ToIntFunction<? super T> chars) {
+      this.sink = sink;
+      this.chars = chars;
+    }
+
+    void start(Flux<T> source) {
+      Disposable upstream = source.subscribe(this::onNext, this::onError, this::onComplete);
+      sink.onRequest(n -> flushIfDue());
+      sink.onDispose(
+          () -> {
+            upstream.dispose();
+            cancelTimer();
+          });
+    }
+
+    private synchronized void onNext(T chunk) {
+      if (first) {
+        first = false;
+        sink.next(List.of(chunk)); // time-to-first-token is never delayed
+        return;
+      }
+      if (group.isEmpty()) {
+        timer = Schedulers.parallel().schedule(this::onTimeout, maxDelay.toNanos(), NANOSECONDS);
+      }
+      group.add(chunk);
+      groupChars += chars.applyAsInt(chunk);
+      if (groupChars >= maxChars) {
+        due = true;
+        flushIfDue();
+      }
+    }
+
+    private synchronized void onTimeout() {
+      if (!group.isEmpty()) {
+        due = true;
+        flushIfDue();
+      }
+    }
+
+    private synchronized void onError(Throwable error) {
+      cancelTimer();
+      if (!group.isEmpty()) {
+        sink.next(takeGroup());
+      }
+      sink.error(error);
+    }
+
+    private synchronized void onComplete() {
+      completed = true;
+      due = true;
+      flushIfDue();
+    }
+
+    /** Emits a due group once the subscriber has demand; a slow one gets larger groups. */
+    private synchronized void flushIfDue() {
+      if (!due || sink.requestedFromDownstream() == 0) {
+        return;
+      }
+      cancelTimer();
+      if (!group.isEmpty()) {
+        sink.next(takeGroup());
+      }
+      due = false;
+      if (completed) {
+        sink.complete();
+      }
+    }
+
+    private List<T> takeGroup() {
+      List<T> out = group;
+      group = new ArrayList<>();
+      groupChars = 0;
+      return out;
+    }
+
+    private void cancelTimer() {
+      timer.dispose();
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package com.stellantis.lwm2m.mcp.client.cot.sse;
+
+/**
+ * One SSE frame of the chat stream, rendered as {@code data: {"type":..,"data":..,"timestamp":..}}.
+ *
+ * @param type event type (e.g. {@code analysis}, {@code response_chunk}, {@code complete})
+ * @param data event payload; any Jackson-serializable value
+ */
+public record SseFrame(String type, Object data) {}
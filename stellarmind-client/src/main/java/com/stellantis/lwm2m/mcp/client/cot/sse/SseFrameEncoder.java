@@ -0,0 +1,153 @@
+package com.stellantis.lwm2m.mcp.client.cot.sse;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Encodes {@link SseFrame}s straight into pooled {@link DataBuffer}s.
+ *
+ * <p>Each stream gets one {@link JsonGenerator} that is reused for every frame: only the target
+ * buffer is swapped between frames, so the generator's internal buffers are allocated once per
+ * stream instead of once per token. {@link ResponseChunk} payloads are written field by field;
+ * other payloads go through the shared {@link ObjectMapper} on the same generator.
+ *
+ * <p>Buffers come from Netty's pooled heap allocator and are released by {@link
+ * DataBufferHttpMessageConverter} once written, or on discard if the stream is cancelled.
+ */
+@Component
+public class SseFrameEncoder {
+
+  private static final Logger log = LoggerFactory.getLogger(SseFrameEncoder.class);
+
+  private static final byte[] DATA_PREFIX = "data: ".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] FRAME_END = "\n\n".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] SERIALIZATION_ERROR_FRAME =
+      "data: {\"type\":\"error\",\"data\":{\"message\":\"Serialization error\"}}\n\n"
+          .getBytes(StandardCharsets.UTF_8);
+
+  /** Typical frame size; buffers grow on demand. */
+  private static final int INITIAL_FRAME_CAPACITY = 256;
+
+  private final ObjectMapper objectMapper;
+  private final DataBufferFactory bufferFactory;
+
+  public SseFrameEncoder(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+    // heap buffers: the servlet output stream can write straight from the backing array
+    this.bufferFactory = new NettyDataBufferFactory(new PooledByteBufAllocator(false));
+  }
+
+  /**
+   * Encodes a frame stream. The returned flux owns one generator per subscription.
+   *
+   * @param frames frames to encode, in order
+   * @return one buffer per frame; each buffer must be released by the consumer
+   */
+  public Flux<DataBuffer> encode(Flux<SseFrame> frames) {
+    return Flux.using(
+            FrameWriter::new, writer -> frames.map(writer::write), FrameWriter::close)
+        .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+  }
+
+  /** Stateful, single-threaded frame writer; the flux guarantees serial {@code onNext}. */
+  private final class FrameWriter {
+
+    private final BufferOutputStream out = new BufferOutputStream();
+    private JsonGenerator generator;
+
+    FrameWriter() {
+      this.generator = newGenerator();
+    }
+
+    DataBuffer write(SseFrame frame) {
+      DataBuffer buffer = bufferFactory.allocateBuffer(INITIAL_FRAME_CAPACITY);
+      out.target = buffer;
+      try {
+        buffer.write(DATA_PREFIX);
+        generator.writeStartObject();
+        generator.writeStringField("type", frame.type());
+        generator.writeFieldName("data");
+        writeData(frame.data());
+        generator.writeNumberField("timestamp", System.currentTimeMillis());
+        generator.writeEndObject();
+        generator.flush();
+        buffer.write(FRAME_END);
+        return buffer;
+      } catch (Exception e) {
+        log.warn("SSE frame serialization failed type={} msg='{}'", frame.type(), e.getMessage());
+        DataBufferUtils.release(buffer);
+        // the generator may be left inside an object; start over with a clean one
+        generator = newGenerator();
+        return bufferFactory.wrap(SERIALIZATION_ERROR_FRAME);
+      } finally {
+        out.target = null;
+      }
+    }
+
+    private void writeData(Object data) throws IOException {
+      if (data instanceof ResponseChunk c) {
+        generator.writeStartObject();
+        generator.writeStringField("chunk", c.chunk());
+        if (c.model() != null) {
+          generator.writeStringField("model", c.model());
+        }
+        if (c.usage() != null) {
+          generator.writeFieldName("usage");
+          objectMapper.writeValue(generator, c.usage());
+        }
+        generator.writeEndObject();
+      } else if (data instanceof CharSequence s) {
+        generator.writeString(s.toString());
+      } else {
+        objectMapper.writeValue(generator, data);
+      }
+    }
+
+    private JsonGenerator newGenerator() {
+      try {
+        JsonGenerator g = objectMapper.getFactory().createGenerator(out);
+        g.setRootValueSeparator(null); // frames are delimited by SSE framing, not whitespace
+        g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return g;
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot create JSON generator", e);
+      }
+    }
+
+    void close() {
+      try {
+        generator.close();
+      } catch (IOException e) {
+        log.debug("SSE generator close failed: {}", e.getMessage());
+      }
+    }
+  }
+
+  /** OutputStream view over whichever buffer is currently being filled. */
+  private static final class BufferOutputStream extends OutputStream {
+
+    private DataBuffer target;
+
+    @Override
+    public void write(int b) {
+      target.write((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      target.write(b, off, len);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.stellantis.lwm2m.mcp.client.cot.sse;
+
+import java.io.IOException;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Streams {@link SseFrame}s to a servlet response as {@code text/event-stream}.
+ *
+ * <p>Frames are encoded by {@link SseFrameEncoder} and handed to a {@link ResponseBodyEmitter} one
+ * at a time; the next frame is only requested after the previous one was written, so a slow client
+ * applies backpressure to the pipeline instead of queueing frames. Servlet writes block, so they
+ * run on the pipeline scheduler rather than on the LLM/Netty thread that produced the frame.
+ */
+@Component
+public class SseStreamWriter {
+
+  private static final Logger log = LoggerFactory.getLogger(SseStreamWriter.class);
+
+  /** Frames encoded ahead of the servlet write. */
+  private static final int PREFETCH = 4;
+
+  private final SseFrameEncoder encoder;
+  private final Scheduler scheduler;
+
+  public SseStreamWriter(
+      SseFrameEncoder encoder, @Qualifier("cotPipelineScheduler") Scheduler scheduler) {
+    this.encoder = encoder;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Subscribes to the frames and returns the emitter they are written to. Client disconnects and
+   * async timeouts cancel the frame stream.
+   */
+  public ResponseBodyEmitter write(Flux<SseFrame> frames) {
+    ResponseBodyEmitter emitter = new ResponseBodyEmitter(-1L);
+    FrameSubscriber subscriber = new FrameSubscriber(emitter);
+    emitter.onCompletion(subscriber::dispose);
+    emitter.onTimeout(subscriber::dispose);
+    emitter.onError(e -> subscriber.dispose());
+    encoder
+        .encode(frames)
+        .publishOn(scheduler, PREFETCH)
+        .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+        .subscribe(subscriber);
+    return emitter;
+  }
+
+  private static final class FrameSubscriber extends BaseSubscriber<DataBuffer> {
+
+    private final ResponseBodyEmitter emitter;
+
+    FrameSubscriber(ResponseBodyEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    @Override
+    protected void hookOnSubscribe(Subscription subscription) {
+      request(1);
+    }
+
+    @Override
+    protected void hookOnNext(DataBuffer frame) {
+      try {
+        // DataBufferHttpMessageConverter writes and releases the buffer
+        emitter.send(frame);
+        request(1);
+      } catch (IllegalStateException e) {
+        // emitter already completed: the converter never saw the buffer
+        DataBufferUtils.release(frame);
+        cancel();
+      } catch (IOException e) {
+        log.debug("SSE client gone: {}", e.getMessage());
+        cancel();
+      }
+    }
+
+    @Override
+    protected void hookOnComplete() {
+      emitter.complete();
+    }
+
+    @Override
+    protected void hookOnError(Throwable t) {
+      emitter.completeWithError(t);
+    }
+  }
+}
@@ -0,0 +1,247 @@
+package com.stellantis.lwm2m.mcp.client.cot.validation;
+
+import static com.stellantis.lwm2m.mcp.client.cot.validation.SchemaCatalog.lower;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.ParenthesedFromItem;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deterministic SQL check that runs before (and usually instead of) the LLM validator.
+ *
+ * <p>The SQL is parsed with JSqlParser and every table and column reference is resolved against
+ * the {@link SchemaCatalog}. Equality conditions between columns of two catalogued tables are
+ * checked against the declared relationships.
+ *
+ * <ul>
+ *   <li>{@link Verdict#INVALID}: not a SELECT, unknown table in a catalogued schema, or unknown
+ *       column of a resolved table.
+ *   <li>{@link Verdict#UNCERTAIN}: the SQL does not parse, references something outside the catalog
+ *       (CTEs, derived tables, set-returning functions, {@code VALUES}, other schemas) that hides a
+ *       column, or joins on an undeclared pair.
+ *   <li>{@link Verdict#VALID}: everything resolved.
+ * </ul>
+ *
+ * <p>References are resolved in one flat scope per statement, so the check never rejects a
+ * correctly scoped query; it may accept a column that is only visible in a sibling subquery.
+ */
+@Component
+public class LocalSqlValidator {
+
+  /** Parses as a column but is a literal or a parameterless function in PostgreSQL. */
+  private static final Set<String> PSEUDO_COLUMNS =
+      Set.of(
+          "true",
+          "false",
+          "null",
+          "current_date",
+          "current_time",
+          "current_timestamp",
+          "localtime",
+          "localtimestamp",
+          "current_user",
+          "session_user");
+
+  public enum Verdict {
+    VALID,
+    INVALID,
+    UNCERTAIN
+  }
+
+  /**
+   * @param verdict outcome
+   * @param issues reasons for an INVALID or UNCERTAIN verdict
+   */
+  public record Result(Verdict verdict, List<String> issues) {}
+
+  private final SchemaCatalog catalog;
+
+  public LocalSqlValidator(SchemaCatalog catalog) {
+    this.catalog = catalog;
+  }
+
+  public Result validate(String sql) {
+    Statement statement;
+    try {
+      statement = CCJSqlParserUtil.parse(sql);
+    } catch (JSQLParserException e) {
+      String reason = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+      return new Result(Verdict.UNCERTAIN, List.of("SQL could not be parsed locally: " + reason));
+    }
+    if (!(statement instanceof Select)) {
+      return new Result(Verdict.INVALID, List.of("Only SELECT statements are allowed"));
+    }
+
+    References refs = new References();
+    Set<String> tableNames = refs.getTables(statement);
+
+    List<String> invalid = new ArrayList<>();
+    List<String> uncertain = new ArrayList<>();
+
+    // alias or name -> qualified catalog table; unresolved sources make unknown columns uncertain
+    Map<String, String> sources = new HashMap<>();
+    Set<String> resolvedTables = new LinkedHashSet<>();
+    boolean opaqueSource = refs.opaqueFromItem;
+    for (Table table : refs.tables) {
+      String name = lower(table.getFullyQualifiedName());
+      Optional<String> resolved = catalog.resolveTable(name);
+      if (resolved.isPresent()) {
+        resolvedTables.add(resolved.get());
+        sources.put(name, resolved.get());
+        sources.put(lower(table.getName()), resolved.get());
+        if (table.getAlias() != null) {
+          sources.put(lower(table.getAlias().getName()), resolved.get());
+        }
+        continue;
+      }
+      opaqueSource = true;
+      boolean cte = !tableNames.contains(table.getFullyQualifiedName());
+      if (table.getSchemaName() != null && catalog.hasSchema(lower(table.getSchemaName()))) {
+        invalid.add("Unknown table " + name);
+      } else if (!cte) {
+        uncertain.add("Table " + name + " is not in the schema catalog");
+      }
+    }
+
+    for (Column column : refs.columns) {
+      String name = lower(column.getColumnName());
+      Table qualifier = column.getTable();
+      if (qualifier != null && qualifier.getName() != null) {
+        String q = lower(qualifier.getFullyQualifiedName());
+        String table = sources.get(q);
+        if (table == null) {
+          table = catalog.resolveTable(q).orElse(null);
+        }
+        if (table == null) { // derived table, CTE or unknown alias
+          uncertain.add("Column " + q + "." + name + " could not be resolved");
+        } else if (!catalog.columns(table).contains(name)) {
+          invalid.add("Unknown column " + name + " in table " + table);
+        }
+        continue;
+      }
+      if (PSEUDO_COLUMNS.contains(name) || refs.outputAliases.contains(name)) {
+        continue;
+      }
+      boolean found = resolvedTables.stream().anyMatch(t -> catalog.columns(t).contains(name));
+      if (!found) {
+        if (opaqueSource) {
+          uncertain.add("Column " + name + " could not be resolved");
+        } else {
+          invalid.add("Unknown column " + name + " in " + String.join(", ", resolvedTables));
+        }
+      }
+    }
+
+    for (EqualsTo eq : refs.columnEqualities) {
+      Column left = (Column) eq.getLeftExpression();
+      Column right = (Column) eq.getRightExpression();
+      String lt = qualifierTable(left, sources);
+      String rt = qualifierTable(right, sources);
+      if (lt == null || rt == null || lt.equals(rt)) {
+        continue;
+      }
+      String lc = lower(left.getColumnName());
+      String rc = lower(right.getColumnName());
+      if (!catalog.isDeclaredJoin(lt, lc, rt, rc)) {
+        uncertain.add("Join " + lt + "." + lc + " = " + rt + "." + rc + " is not declared");
+      }
+    }
+
+    if (!invalid.isEmpty()) {
+      invalid.addAll(uncertain);
+      return new Result(Verdict.INVALID, List.copyOf(new LinkedHashSet<>(invalid)));
+    }
+    if (!uncertain.isEmpty()) {
+      return new Result(Verdict.UNCERTAIN, List.copyOf(new LinkedHashSet<>(uncertain)));
+    }
+    return new Result(Verdict.VALID, List.of());
+  }
+
+  private static String qualifierTable(Column column, Map<String, String> sources) {
+    Table qualifier = column.getTable();
+    if (qualifier == null || qualifier.getName() == null) {
+      return null;
+    }
+    return sources.get(lower(qualifier.getFullyQualifiedName()));
+  }
+
+  /**
+   * Collects table references (with aliases), column references, output aliases and equality
+   * conditions between two columns while {@link TablesNamesFinder} walks the statement. Tables
+   * seen here but missing from {@link #getTables} are CTE references. Any other FROM item
+   * (function, subquery, {@code VALUES}) can expose columns the catalog does not know.
+   */
+  private static final class References extends TablesNamesFinder {
+
+    final List<Table> tables = new ArrayList<>();
+    final List<Column> columns = new ArrayList<>();
+    final Set<String> outputAliases = new HashSet<>();
+    final List<EqualsTo> columnEqualities = new ArrayList<>();
+    boolean opaqueFromItem;
+
+    @Override
+    public void visit(Table table) {
+      tables.add(table);
+      super.visit(table);
+    }
+
+    @Override
+    public void visit(Column column) {
+      columns.add(column);
+      super.visit(column);
+    }
+
+    @Override
+    public void visit(PlainSelect plainSelect) {
+      if (plainSelect.getSelectItems() != null) {
+        for (var item : plainSelect.getSelectItems()) {
+          if (item.getAlias() != null) {
+            outputAliases.add(lower(item.getAlias().getName()));
+          }
+        }
+      }
+      fromItem(plainSelect.getFromItem(), plainSelect.getJoins());
+      super.visit(plainSelect);
+    }
+
+    private void fromItem(FromItem item, List<Join> joins) {
+      if (item instanceof ParenthesedFromItem parenthesed) {
+        fromItem(parenthesed.getFromItem(), parenthesed.getJoins());
+      } else if (item != null && !(item instanceof Table)) {
+        opaqueFromItem = true;
+      }
+      if (joins != null) {
+        for (Join join : joins) {
+          fromItem(join.getFromItem(), null);
+        }
+      }
+    }
+
+    @Override
+    public void visit(EqualsTo equalsTo) {
+      if (equalsTo.getLeftExpression() instanceof Column
+          && equalsTo.getRightExpression() instanceof Column) {
+        columnEqualities.add(equalsTo);
+      }
+      super.visit(equalsTo);
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package com.stellantis.lwm2m.mcp.client.cot.validation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.create.table.ColumnDefinition;
+import net.sf.jsqlparser.statement.create.table.CreateTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tables, columns and declared join relationships of the queryable schemas, used by {@link
+ * LocalSqlValidator}.
+ *
+ * <p>Loaded at construction from the same JSON files the knowledge loader indexes:
+ *
+ * <ul>
+ *   <li>columns: each table's {@code columns[].name} plus the columns of its {@code CREATE TABLE}
+ *       statement;
+ *   <li>joins: {@code relationships.foreign_keys}, {@code relationships.common_joins} and the
+ *       {@code join_conditions} of {@code json/cross_schema_relationships.json}.
+ * </ul>
+ *
+ * <p>With {@code cot.validation.catalog.live=true} the columns are also read from {@code
+ * information_schema.columns} once the application is ready. All names are lower-case.
+ */
+@Component
+public class SchemaCatalog {
+
+  private static final Logger log = LoggerFactory.getLogger(SchemaCatalog.class);
+
+  private static final List<String> SCHEMA_RESOURCES =
+      List.of("json/bs_schema.json", "json/gtw_schema.json");
+  private static final String RELATIONSHIPS_RESOURCE = "json/cross_schema_relationships.json";
+
+  /** {@code JOIN bs.profile p ON e.profile_name = p.profile_name} */
+  private static final Pattern COMMON_JOIN =
+      Pattern.compile(
+          "(?i)JOIN\\s+(\\w+\\.\\w+)\\s+(?:AS\\s+)?(\\w+)\\s+"
+              + "ON\\s+(\\w+)\\.(\\w+)\\s*=\\s*(\\w+)\\.(\\w+)");
+
+  /** {@code bs.bs_ecu.vin = gtw.ecu.vin} */
+  private static final Pattern JOIN_CONDITION =
+      Pattern.compile("(\\w+\\.\\w+)\\.(\\w+)\\s*=\\s*(\\w+\\.\\w+)\\.(\\w+)");
+
+  private final ObjectMapper objectMapper;
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean live;
+
+  private volatile Snapshot snapshot;
+
+  /** Immutable view; replaced as a whole when the live catalog is merged in. */
+  private record Snapshot(
+      Map<String, Set<String>> columns,
+      Map<String, List<String>> tablesBySimpleName,
+      Set<String> joins) {
+
+    Snapshot(Map<String, Set<String>> columns, Set<String> joins) {
+      this(copy(columns), bySimpleName(columns.keySet()), Set.copyOf(joins));
+    }
+
+    private static Map<String, Set<String>> copy(Map<String, Set<String>> columns) {
+      Map<String, Set<String>> copy = new HashMap<>();
+      columns.forEach((table, cols) -> copy.put(table, Set.copyOf(cols)));
+      return Map.copyOf(copy);
+    }
+
+    private static Map<String, List<String>> bySimpleName(Set<String> tables) {
+      Map<String, List<String>> index = new HashMap<>();
+      for (String table : tables) {
+        index
+            .computeIfAbsent(table.substring(table.indexOf('.') + 1), k -> new ArrayList<>())
+            .add(table);
+      }
+      return Map.copyOf(index);
+    }
+  }
+
+  public SchemaCatalog(
+      ObjectMapper objectMapper,
+      JdbcTemplate jdbcTemplate,
+      @Value("${cot.validation.catalog.live:false}") boolean live) {
+    this.objectMapper = objectMapper;
+    this.jdbcTemplate = jdbcTemplate;
+    this.live = live;
+    this.snapshot = loadJson();
+  }
+
+  /** Whether {@code schema} is one of the catalogued schemas. */
+  public boolean hasSchema(String schema) {
+    String prefix = schema + ".";
+    return snapshot.columns().keySet().stream().anyMatch(t -> t.startsWith(prefix));
+  }
+
+  /**
+   * Resolves a table reference to its qualified name.
+   *
+   * @param name {@code schema.table}, or a bare table name that is unique across schemas
+   */
+  public Optional<String> resolveTable(String name) {
+    Snapshot s = snapshot;
+    if (name.indexOf('.') >= 0) {
+      return s.columns().containsKey(name) ? Optional.of(name) : Optional.empty();
+    }
+    List<String> candidates = s.tablesBySimpleName().getOrDefault(name, List.of());
+    return candidates.size() == 1 ? Optional.of(candidates.get(0)) : Optional.empty();
+  }
+
+  /** Columns of a qualified table; empty for unknown tables. */
+  public Set<String> columns(String qualifiedTable) {
+    return snapshot.columns().getOrDefault(qualifiedTable, Set.of());
+  }
+
+  /** Whether {@code t1.c1 = t2.c2} is a declared relationship (in either direction). */
+  public boolean isDeclaredJoin(String t1, String c1, String t2, String c2) {
+    return snapshot.joins().contains(joinKey(t1 + "." + c1, t2 + "." + c2));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void mergeLiveCatalog() {
+    if (!live) {
+      return;
+    }
+    Snapshot current = snapshot;
+    Set<String> schemas = new HashSet<>();
+    current.columns().keySet().forEach(t -> schemas.add(t.substring(0, t.indexOf('.'))));
+    try {
+      Map<String, Set<String>> columns = new HashMap<>();
+      current.columns().forEach((t, c) -> columns.put(t, new HashSet<>(c)));
+      String in = String.join(",", schemas.stream().map(x -> "?").toList());
+      jdbcTemplate.query(
+          "SELECT table_schema, table_name, column_name FROM information_schema.columns "
+              + "WHERE table_schema IN ("
+              + in
+              + ")",
+          rs -> {
+            String table = lower(rs.getString(1) + "." + rs.getString(2));
+            columns.computeIfAbsent(table, k -> new HashSet<>()).add(lower(rs.getString(3)));
+          },
+          schemas.toArray());
+      snapshot = new Snapshot(columns, current.joins());
+      log.info("SchemaCatalog: merged live catalog tables={}", columns.size());
+    } catch (Exception e) {
+      log.warn("SchemaCatalog: live catalog unavailable, keeping JSON catalog: {}", e.getMessage());
+    }
+  }
+
+  private Snapshot loadJson() {
+    Map<String, Set<String>> columns = new HashMap<>();
+    Set<String> joins = new HashSet<>();
+    for (String resource : SCHEMA_RESOURCES) {
+      JsonNode root = read(resource);
+      for (JsonNode table : root.path("tables")) {
+        String name = lower(table.path("name").asText());
+        if (name.indexOf('.') < 0) {
+          continue;
+        }
+        Set<String> cols = columns.computeIfAbsent(name, k -> new HashSet<>());
+        table.path("columns").forEach(c -> cols.add(lower(c.path("name").asText())));
+        cols.addAll(createTableColumns(table.path("schema").asText(null)));
+        cols.remove("");
+
+        JsonNode relationships = table.path("relationships");
+        for (JsonNode fk : relationships.path("foreign_keys")) {
+          joins.add(
+              joinKey(
+                  name + "." + lower(fk.path("column").asText()),
+                  lower(fk.path("references_table").asText())
+                      + "."
+                      + lower(fk.path("references_column").asText())));
+        }
+        for (JsonNode join : relationships.path("common_joins")) {
+          addCommonJoin(name, join.asText(), joins);
+        }
+      }
+    }
+    for (JsonNode rel : read(RELATIONSHIPS_RESOURCE).path("cross_schema_relationships")) {
+      for (JsonNode condition : rel.path("join_conditions")) {
+        Matcher m = JOIN_CONDITION.matcher(lower(condition.asText()));
+        if (m.find()) {
+          joins.add(joinKey(m.group(1) + "." + m.group(2), m.group(3) + "." + m.group(4)));
+        }
+      }
+    }
+    log.info("SchemaCatalog: loaded tables={} joins={}", columns.size(), joins.size());
+    return new Snapshot(columns, joins);
+  }
+
+  /** The side of the ON condition not using the joined table's alias belongs to {@code owner}. */
+  private static void addCommonJoin(String owner, String join, Set<String> joins) {
+    Matcher m = COMMON_JOIN.matcher(lower(join));
+    if (!m.find()) {
+      return;
+    }
+    String joined = m.group(1);
+    String alias = m.group(2);
+    if (m.group(3).equals(alias) && !m.group(5).equals(alias)) {
+      joins.add(joinKey(joined + "." + m.group(4), owner + "." + m.group(6)));
+    } else if (m.group(5).equals(alias) && !m.group(3).equals(alias)) {
+      joins.add(joinKey(owner + "." + m.group(4), joined + "." + m.group(6)));
+    }
+  }
+
+  private static Set<String> createTableColumns(String ddl) {
+    Set<String> cols = new HashSet<>();
+    if (ddl == null || ddl.isBlank()) {
+      return cols;
+    }
+    try {
+      Statement statement = CCJSqlParserUtil.parse(ddl);
+      if (statement instanceof CreateTable create && create.getColumnDefinitions() != null) {
+        for (ColumnDefinition def : create.getColumnDefinitions()) {
+          cols.add(lower(def.getColumnName()));
+        }
+      }
+    } catch (JSQLParserException e) {
+      log.debug("SchemaCatalog: unparseable DDL skipped: {}", e.getMessage());
+    }
+    return cols;
+  }
+
+  private JsonNode read(String resource) {
+    try (InputStream in = new ClassPathResource(resource).getInputStream()) {
+      return objectMapper.readTree(in);
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot read schema catalog resource " + resource, e);
+    }
+  }
+
+  static String joinKey(String left, String right) {
+    return left.compareTo(right) <= 0 ? left + "=" + right : right + "=" + left;
+  }
+
+  /** Lower-cases an identifier and strips double quotes. */
+  static String lower(String identifier) {
+    return identifier == null ? "" : identifier.replace("\"", "").toLowerCase(Locale.ROOT);
+  }
+}
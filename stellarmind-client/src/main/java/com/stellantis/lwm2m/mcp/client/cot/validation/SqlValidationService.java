@@ -0,0 +1,89 @@
+package com.stellantis.lwm2m.mcp.client.cot.validation;
+
+import com.stellantis.lwm2m.mcp.client.cot.ValidationResult;
+import com.stellantis.lwm2m.mcp.client.cot.agent.SqlValidatorAgent;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Validation stage of the /db pipeline: {@link LocalSqlValidator} first, {@link SqlValidatorAgent}
+ * only when {@code cot.validation.llm-mode} asks for it.
+ *
+ * <ul>
+ *   <li>{@code never}: local verdict only; UNCERTAIN is accepted.
+ *   <li>{@code on-uncertain} (default): the LLM is asked only when the local check cannot decide.
+ *   <li>{@code always}: SQL that passes locally is still checked by the LLM for intent.
+ * </ul>
+ *
+ * <p>A local INVALID verdict is returned immediately in every mode.
+ */
+@Service
+public class SqlValidationService {
+
+  private static final Logger log = LoggerFactory.getLogger(SqlValidationService.class);
+
+  public enum LlmMode {
+    NEVER,
+    ON_UNCERTAIN,
+    ALWAYS;
+
+    static LlmMode from(String value) {
+      return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+  }
+
+  private final LocalSqlValidator localValidator;
+  private final SqlValidatorAgent llmValidator;
+  private final LlmMode llmMode;
+  private final MeterRegistry meterRegistry;
+
+  public SqlValidationService(
+      LocalSqlValidator localValidator,
+      SqlValidatorAgent llmValidator,
+      @Value("${cot.validation.llm-mode:on-uncertain}") String llmMode,
+      MeterRegistry meterRegistry) {
+    this.localValidator = localValidator;
+    this.llmValidator = llmValidator;
+    this.llmMode = LlmMode.from(llmMode);
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * @param userQuery natural language request (used by the LLM validator only)
+   * @param sqlQuery generated SQL
+   * @param schemaContext schema context used during generation
+   */
+  public ValidationResult validate(String userQuery, String sqlQuery, List<String> schemaContext) {
+    long t0 = System.nanoTime();
+    LocalSqlValidator.Result local = localValidator.validate(sqlQuery);
+    long micros = (System.nanoTime() - t0) / 1_000;
+    meterRegistry
+        .counter("cot.sql.validation.local", "verdict", local.verdict().name().toLowerCase())
+        .increment();
+    log.info(
+        "Local SQL validation verdict={} tookMicros={} issues={}",
+        local.verdict(),
+        micros,
+        local.issues());
+
+    switch (local.verdict()) {
+      case INVALID:
+        return new ValidationResult(false, local.issues(), null);
+      case UNCERTAIN:
+        if (llmMode != LlmMode.NEVER) {
+          return llmValidator.validate(userQuery, sqlQuery, schemaContext);
+        }
+        return new ValidationResult(true, local.issues(), null);
+      default:
+        if (llmMode == LlmMode.ALWAYS) {
+          return llmValidator.validate(userQuery, sqlQuery, schemaContext);
+        }
+        return new ValidationResult(true, List.of(), null);
+    }
+  }
+}
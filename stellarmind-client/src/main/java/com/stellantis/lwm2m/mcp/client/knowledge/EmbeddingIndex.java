@@ -0,0 +1,151 @@
+package com.stellantis.lwm2m.mcp.client.knowledge;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit-length embeddings held row by row in one {@code float[]}, plus a sign-quantized copy (one
+ * bit per dimension, 64 per {@code long}) of every row.
+ *
+ * <p>{@link #exactTopK} scores every row at full precision. {@link #binaryTopK} first ranks all
+ * rows by the Hamming distance between sign codes ({@link Long#bitCount} of XORed words, 1/32 of
+ * the memory of the floats) and rescores only the nearest {@code shortlist} rows at full
+ * precision. Immutable.
+ */
+final class EmbeddingIndex {
+
+  static final EmbeddingIndex EMPTY = new EmbeddingIndex(0, 0, new float[0], new long[0]);
+
+  private final int dims;
+  private final int rows;
+  private final int words;
+  private final float[] vectors;
+  private final long[] codes;
+
+  private EmbeddingIndex(int dims, int rows, float[] vectors, long[] codes) {
+    this.dims = dims;
+    this.rows = rows;
+    this.words = (dims + 63) / 64;
+    this.vectors = vectors;
+    this.codes = codes;
+  }
+
+  /** Index of {@code embeddings}, which must all have the same dimensions. */
+  static EmbeddingIndex of(List<float[]> embeddings) {
+    if (embeddings.isEmpty()) {
+      return EMPTY;
+    }
+    int dims = embeddings.get(0).length;
+    int words = (dims + 63) / 64;
+    float[] vectors = new float[embeddings.size() * dims];
+    long[] codes = new long[embeddings.size() * words];
+    for (int row = 0; row < embeddings.size(); row++) {
+      float[] e = embeddings.get(row);
+      if (e.length != dims) {
+        throw new IllegalArgumentException("Embedding " + row + " has " + e.length + " dimensions");
+      }
+      System.arraycopy(VectorScoring.normalize(e), 0, vectors, row * dims, dims);
+      encode(e, codes, row * words);
+    }
+    return new EmbeddingIndex(dims, embeddings.size(), vectors, codes);
+  }
+
+  int size() {
+    return rows;
+  }
+
+  int dims() {
+    return dims;
+  }
+
+  /** Cosine similarity of row {@code row} to the unit-length {@code unitQ}. */
+  float cosine(float[] unitQ, int row) {
+    return VectorScoring.dot(vectors, row * dims, unitQ, dims);
+  }
+
+  /** Rows of the {@code k} highest cosine similarities to {@code q}, best first. */
+  int[] exactTopK(float[] q, int k) {
+    return rescore(q, null, k);
+  }
+
+  /**
+   * As {@link #exactTopK}, among the {@code shortlist} rows nearest to {@code q} by sign code.
+   * Approximate unless {@code shortlist} covers all rows.
+   */
+  int[] binaryTopK(float[] q, int k, int shortlist) {
+    int s = Math.min(Math.max(shortlist, k), rows);
+    return s >= rows ? rescore(q, null, k) : rescore(q, shortlist(q, s), k);
+  }
+
+  /** The {@code s} rows of smallest Hamming distance to the sign code of {@code q}. */
+  private int[] shortlist(float[] q, int s) {
+    long[] qc = new long[words];
+    encode(q, qc, 0);
+    int[] distance = new int[rows];
+    int[] histogram = new int[dims + 1];
+    for (int row = 0, base = 0; row < rows; row++, base += words) {
+      int d = 0;
+      for (int w = 0; w < words; w++) {
+        d += Long.bitCount(codes[base + w] ^ qc[w]);
+      }
+      distance[row] = d;
+      histogram[d]++;
+    }
+    // smallest cutoff with at least s rows at or below it; ties at the cutoff fill up to s
+    int cutoff = 0;
+    int below = 0;
+    while (below + histogram[cutoff] < s) {
+      below += histogram[cutoff++];
+    }
+    int[] out = new int[s];
+    int n = 0;
+    int ties = s - below;
+    for (int row = 0; row < rows; row++) {
+      if (distance[row] < cutoff) {
+        out[n++] = row;
+      } else if (distance[row] == cutoff && ties > 0) {
+        out[n++] = row;
+        ties--;
+      }
+    }
+    return out;
+  }
+
+  /** Top {@code k} of {@code candidates} (all rows when null) by full-precision dot product. */
+  private int[] rescore(float[] q, int[] candidates, int k) {
+    int count = candidates == null ? rows : candidates.length;
+    int n = Math.min(k, count);
+    if (n <= 0) {
+      return new int[0];
+    }
+    int[] best = new int[n];
+    float[] bestScore = new float[n];
+    Arrays.fill(bestScore, Float.NEGATIVE_INFINITY);
+    // rows are unit length, so the dot product ranks by cosine; the query needs no scaling
+    for (int i = 0; i < count; i++) {
+      int row = candidates == null ? i : candidates[i];
+      float score = VectorScoring.dot(vectors, row * dims, q, dims);
+      if (score <= bestScore[n - 1]) {
+        continue;
+      }
+      int j = n - 1;
+      while (j > 0 && bestScore[j - 1] < score) {
+        bestScore[j] = bestScore[j - 1];
+        best[j] = best[j - 1];
+        j--;
+      }
+      bestScore[j] = score;
+      best[j] = row;
+    }
+    return best;
+  }
+
+  /** Writes the sign bits of {@code v} (1 for a positive component) into {@code out}. */
+  static void encode(float[] v, long[] out, int offset) {
+    for (int i = 0; i < v.length; i++) {
+      if (v[i] > 0f) {
+        out[offset + (i >>> 6)] |= 1L << (i & 63);
+      }
+    }
+  }
+}
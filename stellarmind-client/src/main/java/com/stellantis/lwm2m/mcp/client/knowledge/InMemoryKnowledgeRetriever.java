@@ -0,0 +1,214 @@
+package com.stellantis.lwm2m.mcp.client.knowledge;
+
+import com.stellantis.lwm2m.mcp.client.model.KnowledgeChunkJson;
+import com.stellantis.lwm2m.mcp.client.repository.KnowledgeChunkJsonRepository;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-process copy of the schema knowledge, searched without a database round trip.
+ *
+ * <p>The corpus is a few dozen chunks, so an exact scan over unit-length embeddings held row by
+ * row in one {@code float[]} takes microseconds (see {@link VectorScoring}). From {@code
+ * knowledge.binary-prefilter.min-chunks} chunks on, a search first shortlists {@code k *
+ * knowledge.binary-prefilter.oversample} chunks by the Hamming distance of sign-quantized
+ * embeddings and rescores only those at full precision (see {@link EmbeddingIndex}).
+ *
+ * <p>Candidates are reranked in process too, by {@code 0.6 * cosine + 0.4 * lexical}, the weights
+ * of {@code KnowledgeChunkJsonRepository.findHybridRanked}. The lexical part is the BM25 score over
+ * the cached chunk content (see {@link LexicalIndex}), divided by the best score among the
+ * candidates so that it stays on the scale of the cosine.
+ *
+ * <p>PostgreSQL stays the source of truth: the index is loaded when the application is ready and
+ * reloaded on every {@link SchemaKnowledgeReindexedEvent}. Until it is loaded, or for a query of
+ * other dimensions, searches go to {@link PgVectorKnowledgeRetriever}.
+ *
+ * <p>Active unless {@code knowledge.retriever=pgvector}.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "knowledge.retriever", havingValue = "memory", matchIfMissing = true)
+public class InMemoryKnowledgeRetriever implements KnowledgeRetriever {
+
+  private static final Logger log = LoggerFactory.getLogger(InMemoryKnowledgeRetriever.class);
+
+  /** Immutable snapshot; replaced as a whole on reload. {@code chunks[i]} is row {@code i}. */
+  private record Snapshot(
+      EmbeddingIndex index,
+      LexicalIndex lexical,
+      KnowledgeChunkJson[] chunks,
+      Map<Long, Integer> rowById) {
+    static final Snapshot EMPTY =
+        new Snapshot(EmbeddingIndex.EMPTY, LexicalIndex.EMPTY, new KnowledgeChunkJson[0], Map.of());
+  }
+
+  private static final float COSINE_WEIGHT = 0.6f;
+  private static final float LEXICAL_WEIGHT = 0.4f;
+
+  private final KnowledgeChunkJsonRepository repo;
+  private final PgVectorKnowledgeRetriever fallback;
+  private final boolean binaryPrefilter;
+  private final int binaryMinChunks;
+  private final int oversample;
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  public InMemoryKnowledgeRetriever(
+      KnowledgeChunkJsonRepository repo,
+      PgVectorKnowledgeRetriever fallback,
+      @Value("${knowledge.binary-prefilter.enabled:true}") boolean binaryPrefilter,
+      @Value("${knowledge.binary-prefilter.min-chunks:2000}") int binaryMinChunks,
+      @Value("${knowledge.binary-prefilter.oversample:16}") int oversample) {
+    this.repo = repo;
+    this.fallback = fallback;
+    this.binaryPrefilter = binaryPrefilter;
+    this.binaryMinChunks = binaryMinChunks;
+    this.oversample = Math.max(1, oversample);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadOnStartup() {
+    reload();
+  }
+
+  @EventListener
+  public void onSchemaReindexed(SchemaKnowledgeReindexedEvent event) {
+    reload();
+  }
+
+  /** Replaces the index with the current content of {@code gtw.knowledge_chunks_json}. */
+  public synchronized void reload() {
+    try {
+      snapshot = build(repo.findAll());
+      log.info(
+          "InMemoryKnowledgeRetriever: loaded. chunks={} dims={} binaryPrefilter={}",
+          snapshot.index().size(),
+          snapshot.index().dims(),
+          usesBinaryPrefilter(snapshot.index()));
+    } catch (Exception e) {
+      log.warn(
+          "InMemoryKnowledgeRetriever: load failed, keeping previous index: {}", e.getMessage());
+    }
+  }
+
+  @Override
+  public List<KnowledgeChunkJson> findMostRelevant(float[] embedding, int k) {
+    Snapshot s = snapshot;
+    EmbeddingIndex index = s.index();
+    if (index.size() == 0 || embedding.length != index.dims()) {
+      log.debug(
+          "InMemoryKnowledgeRetriever: falling back to pgvector. chunks={} dims={} queryDims={}",
+          index.size(),
+          index.dims(),
+          embedding.length);
+      return fallback.findMostRelevant(embedding, k);
+    }
+    long t0 = System.nanoTime();
+    boolean binary = usesBinaryPrefilter(index);
+    int[] rows =
+        binary ? index.binaryTopK(embedding, k, k * oversample) : index.exactTopK(embedding, k);
+    List<KnowledgeChunkJson> result = new ArrayList<>(rows.length);
+    for (int row : rows) {
+      result.add(s.chunks()[row]);
+    }
+    log.debug(
+        "InMemoryKnowledgeRetriever: top {} of {} chunks. binary={} timeMicros={}",
+        rows.length,
+        index.size(),
+        binary,
+        (System.nanoTime() - t0) / 1_000L);
+    return result;
+  }
+
+  @Override
+  public Optional<List<KnowledgeChunkJson>> rerank(
+      List<KnowledgeChunkJson> candidates, float[] embedding, String queryText, int topN) {
+    Snapshot s = snapshot;
+    if (s.index().size() == 0 || embedding.length != s.index().dims()) {
+      return Optional.empty();
+    }
+    int[] rows = new int[candidates.size()];
+    for (int i = 0; i < rows.length; i++) {
+      Integer row = s.rowById().get(candidates.get(i).getId());
+      if (row == null) { // not in this snapshot (reindexed meanwhile)
+        return Optional.empty();
+      }
+      rows[i] = row;
+    }
+    long t0 = System.nanoTime();
+    Set<String> terms = LexicalIndex.queryTerms(queryText);
+    float[] lexical = new float[rows.length];
+    float maxLexical = 0f;
+    for (int i = 0; i < rows.length; i++) {
+      lexical[i] = s.lexical().score(terms, rows[i]);
+      maxLexical = Math.max(maxLexical, lexical[i]);
+    }
+    float[] unitQuery = VectorScoring.normalize(embedding);
+    float[] hybrid = new float[rows.length];
+    for (int i = 0; i < rows.length; i++) {
+      float lexicalPart = maxLexical > 0f ? lexical[i] / maxLexical : 0f;
+      hybrid[i] =
+          COSINE_WEIGHT * s.index().cosine(unitQuery, rows[i]) + LEXICAL_WEIGHT * lexicalPart;
+    }
+    List<KnowledgeChunkJson> result =
+        IntStream.range(0, rows.length)
+            .boxed()
+            .sorted(Comparator.comparingDouble(i -> -hybrid[i]))
+            .limit(Math.max(0, topN))
+            .map(i -> s.chunks()[rows[i]])
+            .toList();
+    log.debug(
+        "InMemoryKnowledgeRetriever: reranked {} candidates. terms={} timeMicros={}",
+        rows.length,
+        terms.size(),
+        (System.nanoTime() - t0) / 1_000L);
+    return Optional.of(result);
+  }
+
+  private boolean usesBinaryPrefilter(EmbeddingIndex index) {
+    return binaryPrefilter && index.size() >= binaryMinChunks;
+  }
+
+  private static Snapshot build(List<KnowledgeChunkJson> all) {
+    List<KnowledgeChunkJson> chunks = new ArrayList<>(all.size());
+    List<float[]> embeddings = new ArrayList<>(all.size());
+    List<String> contents = new ArrayList<>(all.size());
+    Map<Long, Integer> rowById = new HashMap<>();
+    for (KnowledgeChunkJson chunk : all) {
+      float[] e = chunk.getEmbedding();
+      if (e == null
+          || e.length == 0
+          || (!embeddings.isEmpty() && e.length != embeddings.get(0).length)) {
+        log.warn(
+            "InMemoryKnowledgeRetriever: skipping chunk id={} without usable embedding",
+            chunk.getId());
+        continue;
+      }
+      if (chunk.getId() != null) {
+        rowById.put(chunk.getId(), chunks.size());
+      }
+      chunks.add(chunk);
+      embeddings.add(e);
+      contents.add(chunk.getContent());
+    }
+    return new Snapshot(
+        EmbeddingIndex.of(embeddings),
+        LexicalIndex.of(contents),
+        chunks.toArray(new KnowledgeChunkJson[0]),
+        rowById);
+  }
+}
@@ -8,12 +8,15 @@ import com.stellantis.lwm2m.mcp.client.service.embeddings.HybridEmbeddingModel;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
@@ -45,6 +48,7 @@ public class JsonSchemaLoaderWithRelationships {
   private final KnowledgeChunkJsonRepository knowledgeChunkJsonRepository;
   private final HybridEmbeddingModel embeddingService;
   private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Value("${embedding.enabled:false}")
   private boolean embeddingEnabled;
@@ -60,10 +64,12 @@ public class JsonSchemaLoaderWithRelationships {
   public JsonSchemaLoaderWithRelationships(
       KnowledgeChunkJsonRepository knowledgeChunkJsonRepository,
       HybridEmbeddingModel embeddingService,
-      ObjectMapper objectMapper) {
+      ObjectMapper objectMapper,
+      ApplicationEventPublisher eventPublisher) {
     this.knowledgeChunkJsonRepository = knowledgeChunkJsonRepository;
     this.embeddingService = embeddingService;
     this.objectMapper = objectMapper;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
@@ -87,17 +93,24 @@ public class JsonSchemaLoaderWithRelationships {
       long countBefore = knowledgeChunkJsonRepository.count();
       knowledgeChunkJsonRepository.deleteAll();
       log.info("JsonSchemaLoader: cleared existing chunks. previousCount={}", countBefore);
+      // running hash of the indexed chunk contents, published as the knowledge fingerprint
+      MessageDigest contentDigest = MessageDigest.getInstance("SHA-256");
 
       for (String resourcePath : DEFAULT_JSON_RESOURCES) {
         if (chunkByTable && !resourcePath.contains("cross-schema")) {
-          indexResourceByTable(resourcePath);
+          indexResourceByTable(resourcePath, contentDigest);
         } else {
-          indexResourceAsWhole(resourcePath);
+          indexResourceAsWhole(resourcePath, contentDigest);
         }
       }
 
       long countAfter = knowledgeChunkJsonRepository.count();
-      log.info("JsonSchemaLoader: completed load. chunksIndexed={}", countAfter);
+      String fingerprint = HexFormat.of().formatHex(contentDigest.digest());
+      log.info(
+          "JsonSchemaLoader: completed load. chunksIndexed={} fingerprint={}",
+          countAfter,
+          fingerprint);
+      eventPublisher.publishEvent(new SchemaKnowledgeReindexedEvent(fingerprint, countAfter));
 
     } catch (Exception e) {
       log.error("JsonSchemaLoader: failed to load schemas", e);
@@ -108,8 +121,9 @@ public class JsonSchemaLoaderWithRelationships {
    * Reads a JSON schema file and processes each table as a separate chunk.
    *
    * @param classpathJson path under resources (e.g. json/gtw_schema.json)
+   * @param contentDigest hash the stored chunk contents are added to
    */
-  private void indexResourceByTable(String classpathJson) {
+  private void indexResourceByTable(String classpathJson, MessageDigest contentDigest) {
     final long t0 = System.nanoTime();
     log.info("JsonSchemaLoader: indexing resource by table path='{}'", classpathJson);
 
@@ -158,7 +172,8 @@ public class JsonSchemaLoaderWithRelationships {
                 tableNode, schemaName, schemaDescription, schemaSynonymsStr.toString());
 
         if (StringUtils.hasText(tableContent)) {
-          indexSingleChunk(tableContent, String.format("%s.%s", schemaName, tableName));
+          indexSingleChunk(
+              tableContent, String.format("%s.%s", schemaName, tableName), contentDigest);
           tableCount++;
         }
       }
@@ -181,8 +196,9 @@ public class JsonSchemaLoaderWithRelationships {
    * relationships and patterns.
    *
    * @param classpathJson path under resources (e.g. json/cross_schema_relationships.json)
+   * @param contentDigest hash the stored chunk contents are added to
    */
-  private void indexResourceAsWhole(String classpathJson) {
+  private void indexResourceAsWhole(String classpathJson, MessageDigest contentDigest) {
     final long t0 = System.nanoTime();
     log.info("JsonSchemaLoader: indexing resource as whole path='{}'", classpathJson);
 
@@ -194,7 +210,7 @@ public class JsonSchemaLoaderWithRelationships {
       }
 
       String schemaName = extractSchemaNameFromPath(classpathJson);
-      indexSingleChunk(content, schemaName);
+      indexSingleChunk(content, schemaName, contentDigest);
 
       log.info(
           "JsonSchemaLoader: processed '{}' as single chunk. timeMs={}",
@@ -346,7 +362,7 @@ public class JsonSchemaLoaderWithRelationships {
   }
 
   /** Generates embedding and persists a knowledge chunk. */
-  private void indexSingleChunk(String content, String identifier) {
+  private void indexSingleChunk(String content, String identifier, MessageDigest contentDigest) {
     try {
       float[] embedding = embeddingService.embed(content);
       if (embedding == null || embedding.length == 0) {
@@ -360,6 +376,7 @@ public class JsonSchemaLoaderWithRelationships {
       chunk.setCreatedAt(LocalDateTime.now());
 
       knowledgeChunkJsonRepository.save(chunk);
+      contentDigest.update(content.getBytes(StandardCharsets.UTF_8));
 
       log.debug(
           "JsonSchemaLoader: stored chunk for '{}'. contentChars={} dims={}",
@@ -0,0 +1,25 @@
+package com.stellantis.lwm2m.mcp.client.knowledge;
+
+import com.stellantis.lwm2m.mcp.client.model.KnowledgeChunkJson;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Nearest-neighbour search over the schema knowledge chunks of {@code gtw.knowledge_chunks_json}.
+ *
+ * <p>Implementations rank by cosine similarity, as the {@code <=>} operator does.
+ */
+public interface KnowledgeRetriever {
+
+  /** The {@code k} chunks nearest to {@code embedding}, nearest first. */
+  List<KnowledgeChunkJson> findMostRelevant(float[] embedding, int k);
+
+  /**
+   * The {@code topN} of {@code candidates} by hybrid lexical and cosine score against the query,
+   * best first, or empty when this retriever cannot score them and PostgreSQL has to.
+   */
+  default Optional<List<KnowledgeChunkJson>> rerank(
+      List<KnowledgeChunkJson> candidates, float[] embedding, String queryText, int topN) {
+    return Optional.empty();
+  }
+}
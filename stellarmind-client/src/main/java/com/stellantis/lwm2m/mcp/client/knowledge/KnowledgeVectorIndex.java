@@ -0,0 +1,104 @@
+package com.stellantis.lwm2m.mcp.client.knowledge;
+
+import java.util.List;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the HNSW index on {@code gtw.knowledge_chunks_json.embedding} in place.
+ *
+ * <p>The index uses {@code vector_cosine_ops}, so it serves the {@code <=>} (cosine distance)
+ * ordering of {@link com.stellantis.lwm2m.mcp.client.repository.KnowledgeChunkJsonRepository} and
+ * the reranker. At startup, before {@link JsonSchemaLoaderWithRelationships} reloads the chunks,
+ * the index is created if missing, and dropped and rebuilt if it exists with another access
+ * method, operator class or {@code m} / {@code ef_construction}. A failure (e.g. a pgvector older
+ * than 0.5.0) is logged and searches fall back to a sequential scan.
+ */
+@Component
+public class KnowledgeVectorIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(KnowledgeVectorIndex.class);
+
+  private static final String INDEX_NAME = "idx_knowledge_chunks_json_embedding_hnsw";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean enabled;
+  private final int m;
+  private final int efConstruction;
+
+  public KnowledgeVectorIndex(
+      JdbcTemplate jdbcTemplate,
+      @Value("${knowledge.hnsw.enabled:true}") boolean enabled,
+      @Value("${knowledge.hnsw.m:16}") int m,
+      @Value("${knowledge.hnsw.ef-construction:64}") int efConstruction) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.enabled = enabled;
+    this.m = m;
+    this.efConstruction = efConstruction;
+  }
+
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @EventListener(ApplicationReadyEvent.class)
+  public void ensureIndex() {
+    if (!enabled) {
+      log.info("KnowledgeVectorIndex: disabled via 'knowledge.hnsw.enabled=false'.");
+      return;
+    }
+    try {
+      List<String> existing =
+          jdbcTemplate.queryForList(
+              "SELECT indexdef FROM pg_indexes WHERE schemaname = 'gtw' AND indexname = ?",
+              String.class,
+              INDEX_NAME);
+      if (!existing.isEmpty() && matches(existing.get(0))) {
+        log.info(
+            "KnowledgeVectorIndex: {} up to date. m={} efConstruction={}",
+            INDEX_NAME,
+            m,
+            efConstruction);
+        return;
+      }
+      if (!existing.isEmpty()) {
+        log.info("KnowledgeVectorIndex: rebuilding {} (was: {})", INDEX_NAME, existing.get(0));
+        jdbcTemplate.execute("DROP INDEX IF EXISTS gtw." + INDEX_NAME);
+      }
+      long t0 = System.nanoTime();
+      jdbcTemplate.execute(createStatement());
+      log.info(
+          "KnowledgeVectorIndex: created {}. m={} efConstruction={} timeMs={}",
+          INDEX_NAME,
+          m,
+          efConstruction,
+          (System.nanoTime() - t0) / 1_000_000L);
+    } catch (Exception e) {
+      log.warn(
+          "KnowledgeVectorIndex: could not create {}, searches will scan the table: {}",
+          INDEX_NAME,
+          e.getMessage());
+    }
+  }
+
+  private String createStatement() {
+    return String.format(
+        "CREATE INDEX IF NOT EXISTS %s ON gtw.knowledge_chunks_json "
+            + "USING hnsw (embedding vector_cosine_ops) WITH (m = %d, ef_construction = %d)",
+        INDEX_NAME, m, efConstruction);
+  }
+
+  /** Whether {@code indexdef} (as reported by {@code pg_indexes}) is the index we would create. */
+  private boolean matches(String indexdef) {
+    String def = indexdef.toLowerCase(Locale.ROOT).replace(" ", "");
+    return def.contains("usinghnsw")
+        && def.contains("vector_cosine_ops")
+        && def.contains("m='" + m + "'")
+        && def.contains("ef_construction='" + efConstruction + "'");
+  }
+}
@@ -0,0 +1,106 @@
+package com.stellantis.lwm2m.mcp.client.knowledge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Term statistics of the chunk contents, for BM25 scoring of a query against chunk rows.
+ *
+ * <p>Text is split the way PostgreSQL's default parser splits identifiers ({@code serial_number}
+ * gives {@code serial} and {@code number}), lower-cased, stripped of English stop words and of a
+ * plural {@code s}. Document frequencies cover all rows, so the IDF of a term does not depend on
+ * which candidates are reranked. Immutable.
+ */
+final class LexicalIndex {
+
+  static final LexicalIndex EMPTY = new LexicalIndex(List.of(), new int[0], Map.of());
+
+  private static final float K1 = 1.2f;
+  private static final float B = 0.75f;
+
+  private static final Set<String> STOP_WORDS =
+      Set.of(
+          ("a about all an and any are as at be by can do each for from give has have how i in is"
+                  + " it its list me many much of on or per please show that the their there these"
+                  + " this to was were what when where which who with")
+              .split(" "));
+
+  /** Term frequencies per row. */
+  private final List<Map<String, Integer>> rows;
+  private final int[] lengths;
+  private final Map<String, Integer> documentFrequency;
+  private final float averageLength;
+
+  private LexicalIndex(
+      List<Map<String, Integer>> rows, int[] lengths, Map<String, Integer> documentFrequency) {
+    this.rows = rows;
+    this.lengths = lengths;
+    this.documentFrequency = documentFrequency;
+    this.averageLength = rows.isEmpty() ? 0f : (float) Arrays.stream(lengths).sum() / rows.size();
+  }
+
+  /** Index of {@code contents}; row {@code i} is {@code contents.get(i)}. */
+  static LexicalIndex of(List<String> contents) {
+    if (contents.isEmpty()) {
+      return EMPTY;
+    }
+    List<Map<String, Integer>> rows = new ArrayList<>(contents.size());
+    int[] lengths = new int[contents.size()];
+    Map<String, Integer> df = new HashMap<>();
+    for (int row = 0; row < lengths.length; row++) {
+      List<String> terms = terms(contents.get(row));
+      Map<String, Integer> tf = new HashMap<>();
+      terms.forEach(term -> tf.merge(term, 1, Integer::sum));
+      tf.keySet().forEach(term -> df.merge(term, 1, Integer::sum));
+      rows.add(tf);
+      lengths[row] = terms.size();
+    }
+    return new LexicalIndex(rows, lengths, df);
+  }
+
+  /** BM25 score of row {@code row} for the distinct {@code queryTerms}. */
+  float score(Set<String> queryTerms, int row) {
+    Map<String, Integer> tf = rows.get(row);
+    float norm = K1 * (1 - B + B * lengths[row] / Math.max(averageLength, 1f));
+    float score = 0f;
+    for (String term : queryTerms) {
+      Integer f = tf.get(term);
+      if (f == null) {
+        continue;
+      }
+      int n = documentFrequency.get(term);
+      double idf = Math.log(1 + (rows.size() - n + 0.5) / (n + 0.5));
+      score += (float) (idf * f * (K1 + 1) / (f + norm));
+    }
+    return score;
+  }
+
+  /** The normalized terms of {@code text}, in order, with repetitions. */
+  static List<String> terms(String text) {
+    List<String> out = new ArrayList<>();
+    if (text == null) {
+      return out;
+    }
+    for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+      if (token.isEmpty() || STOP_WORDS.contains(token)) {
+        continue;
+      }
+      if (token.length() > 3 && token.endsWith("s") && !token.matches(".*(ss|us|is)")) {
+        token = token.substring(0, token.length() - 1);
+      }
+      out.add(token);
+    }
+    return out;
+  }
+
+  /** The distinct normalized terms of a query. */
+  static Set<String> queryTerms(String text) {
+    return new LinkedHashSet<>(terms(text));
+  }
+}
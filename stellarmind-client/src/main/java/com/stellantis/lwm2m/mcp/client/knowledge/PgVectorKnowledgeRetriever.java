@@ -0,0 +1,45 @@
+package com.stellantis.lwm2m.mcp.client.knowledge;
+
+import com.stellantis.lwm2m.mcp.client.model.KnowledgeChunkJson;
+import com.stellantis.lwm2m.mcp.client.repository.KnowledgeChunkJsonRepository;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Nearest schema knowledge chunks by cosine distance, served by the HNSW index of {@link
+ * KnowledgeVectorIndex}.
+ *
+ * <p>Each search runs in its own read-only transaction that first sets {@code hnsw.ef_search}
+ * locally ({@code knowledge.hnsw.ef-search}, raised to {@code k} when smaller, since HNSW returns
+ * at most {@code ef_search} rows). Higher values trade latency for recall.
+ */
+@Service
+public class PgVectorKnowledgeRetriever implements KnowledgeRetriever {
+
+  private final KnowledgeChunkJsonRepository repo;
+  private final EntityManager entityManager;
+  private final int efSearch;
+
+  public PgVectorKnowledgeRetriever(
+      KnowledgeChunkJsonRepository repo,
+      EntityManager entityManager,
+      @Value("${knowledge.hnsw.ef-search:40}") int efSearch) {
+    this.repo = repo;
+    this.entityManager = entityManager;
+    this.efSearch = efSearch;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<KnowledgeChunkJson> findMostRelevant(float[] embedding, int k) {
+    // set_config(..., true) is SET LOCAL: it ends with this transaction
+    entityManager
+        .createNativeQuery("SELECT set_config('hnsw.ef_search', :efSearch, true)")
+        .setParameter("efSearch", String.valueOf(Math.max(efSearch, k)))
+        .getSingleResult();
+    return repo.findMostRelevants(embedding, k);
+  }
+}
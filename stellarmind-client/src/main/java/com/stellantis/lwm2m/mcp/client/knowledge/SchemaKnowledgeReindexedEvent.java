@@ -0,0 +1,11 @@
+package com.stellantis.lwm2m.mcp.client.knowledge;
+
+/**
+ * Published by {@link JsonSchemaLoaderWithRelationships} after {@code gtw.knowledge_chunks_json}
+ * was rebuilt. Anything derived from the schema knowledge (e.g. cached SQL) must be dropped when
+ * the fingerprint changes.
+ *
+ * @param fingerprint SHA-256 over the indexed chunk contents, in indexing order
+ * @param chunkCount number of chunks indexed
+ */
+public record SchemaKnowledgeReindexedEvent(String fingerprint, long chunkCount) {}
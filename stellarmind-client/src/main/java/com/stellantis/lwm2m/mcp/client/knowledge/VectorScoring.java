@@ -0,0 +1,46 @@
+package com.stellantis.lwm2m.mcp.client.knowledge;
+
+/**
+ * Dot products over embeddings stored row by row in one contiguous {@code float[]}.
+ *
+ * <p>Plain Java, so it runs the same under {@code java -jar} without JVM flags. The loop keeps four
+ * independent partial sums: the JIT does not reorder a single float accumulator, so this lets
+ * consecutive multiply-adds overlap in the pipeline.
+ */
+final class VectorScoring {
+
+  private VectorScoring() {}
+
+  /** Dot product of {@code length} floats of {@code matrix} from {@code offset} with {@code q}. */
+  static float dot(float[] matrix, int offset, float[] q, int length) {
+    float s0 = 0f;
+    float s1 = 0f;
+    float s2 = 0f;
+    float s3 = 0f;
+    int i = 0;
+    for (int bound = length & ~3; i < bound; i += 4) {
+      s0 += matrix[offset + i] * q[i];
+      s1 += matrix[offset + i + 1] * q[i + 1];
+      s2 += matrix[offset + i + 2] * q[i + 2];
+      s3 += matrix[offset + i + 3] * q[i + 3];
+    }
+    for (; i < length; i++) {
+      s0 += matrix[offset + i] * q[i];
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  /** {@code v} scaled to unit length, so that dot products are cosine similarities. */
+  static float[] normalize(float[] v) {
+    double norm = 0;
+    for (float x : v) {
+      norm += x * x;
+    }
+    norm = Math.sqrt(norm);
+    float[] out = new float[v.length];
+    for (int i = 0; i < v.length && norm > 0; i++) {
+      out[i] = (float) (v[i] / norm);
+    }
+    return out;
+  }
+}
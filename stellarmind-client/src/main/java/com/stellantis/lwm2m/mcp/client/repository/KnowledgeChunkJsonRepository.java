@@ -11,11 +11,12 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface KnowledgeChunkJsonRepository extends JpaRepository<KnowledgeChunkJson, Long> {
 
-  // Vector similarity search using pgvector <-> operator
+  // Vector similarity search using the pgvector <=> (cosine distance) operator, which is the
+  // operator class of the embedding indexes
   @Query(
       value =
           "SELECT * FROM gtw.knowledge_chunks "
-              + "ORDER BY embedding <-> CAST(:queryVec AS vector) "
+              + "ORDER BY embedding <=> CAST(:queryVec AS vector) "
               + "LIMIT :k",
       nativeQuery = true)
   List<KnowledgeChunk> findMostRelevant(@Param("queryVec") String queryVec, @Param("k") int k);
@@ -23,17 +24,18 @@ public interface KnowledgeChunkJsonRepository extends JpaRepository<KnowledgeChu
   @Query(
       value =
           "SELECT * FROM gtw.knowledge_chunks_json "
-              + "ORDER BY embedding <-> CAST(:queryVec AS vector) "
+              + "ORDER BY embedding <=> CAST(:queryVec AS vector) "
               + "LIMIT :k",
       nativeQuery = true)
   List<KnowledgeChunkJson> findMostRelevants(@Param("queryVec") String queryVec, @Param("k") int k);
 
+  /** Served by the HNSW index of {@code KnowledgeVectorIndex}; see {@code hnsw.ef_search}. */
   @Query(
       value =
           """
         SELECT *
         FROM gtw.knowledge_chunks_json
-        ORDER BY embedding <-> CAST(:embedding AS vector)
+        ORDER BY embedding <=> CAST(:embedding AS vector)
         LIMIT :topK
         """,
       nativeQuery = true)
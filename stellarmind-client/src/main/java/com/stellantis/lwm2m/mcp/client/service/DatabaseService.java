@@ -1,8 +1,10 @@
 package com.stellantis.lwm2m.mcp.client.service;
 
 import com.stellantis.lwm2m.mcp.client.cot.CoTDecisionResult;
+import com.stellantis.lwm2m.mcp.client.cot.dto.QueryRowBatch;
 import java.util.List;
 import java.util.Map;
+import reactor.core.publisher.Flux;
 
 /**
  * Database service abstraction for: 1) Retrieving relevant schema embeddings from pgvector based on
@@ -20,6 +22,20 @@ public interface DatabaseService {
    */
   List<Map<String, Object>> queryForList(String sql);
 
+  /**
+   * Streams a read-only query from a forward-only cursor in batches, so the full result is never
+   * held in memory. The SQL is checked against the same read-only rules as generated SQL before it
+   * reaches the database. The cursor is opened on subscription and closed on completion, error or
+   * cancellation; reads block, so subscribe on a scheduler that tolerates blocking.
+   *
+   * @param sql a single SELECT/WITH statement
+   * @param fetchSize rows fetched from the database per round trip
+   * @param batchSize rows per emitted batch
+   * @param maxRows row cap; the last batch is flagged {@code truncated} when the result had more
+   * @return row batches in result order; the first batch carries the columns and is always emitted
+   */
+  Flux<QueryRowBatch> streamQuery(String sql, int fetchSize, int batchSize, int maxRows);
+
   /**
    * Performs a semantic search over the pgvector-backed knowledge table (e.g.,
    * gtw.knowledge_chunks) using the user's natural-language prompt. Returns the most relevant
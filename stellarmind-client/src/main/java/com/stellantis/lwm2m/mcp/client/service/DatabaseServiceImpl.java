@@ -1,15 +1,17 @@
 package com.stellantis.lwm2m.mcp.client.service;
 
 import com.stellantis.lwm2m.mcp.client.cot.CoTDecisionResult;
+import com.stellantis.lwm2m.mcp.client.cot.dto.QueryRowBatch;
 import com.stellantis.lwm2m.mcp.client.execption.ReadOnlyViolationException;
 import com.stellantis.lwm2m.mcp.client.execption.SqlGenerationException;
 import com.stellantis.lwm2m.mcp.client.model.KnowledgeChunk;
 import com.stellantis.lwm2m.mcp.client.repository.KnowledgeChunkJsonRepository;
 import com.stellantis.lwm2m.mcp.client.repository.KnowledgeChunkRepository;
 import com.stellantis.lwm2m.mcp.client.service.embeddings.HybridEmbeddingModel;
+import com.stellantis.lwm2m.mcp.sql.SqlSafety;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -17,9 +19,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
 
 /**
  * Implementation of {@link DatabaseService} that:
@@ -73,6 +78,43 @@ public class DatabaseServiceImpl implements DatabaseService {
     return jdbc.queryForList(sql);
   }
 
+  /** Streams read-only SQL in batches from a forward-only cursor (see {@link JdbcBatchCursor}). */
+  @Override
+  public Flux<QueryRowBatch> streamQuery(String sql, int fetchSize, int batchSize, int maxRows) {
+    if (!StringUtils.hasText(sql)) {
+      return Flux.error(new SqlGenerationException("SQL must not be empty"));
+    }
+    if (!isReadOnlySql(sql)) {
+      log.warn("Rejected non-read-only SQL: {}", sql);
+      return Flux.error(
+          new ReadOnlyViolationException(
+              "SQL is not read-only. Only SELECT/WITH queries are allowed."));
+    }
+    return Flux.using(
+        () -> {
+          try {
+            return new JdbcBatchCursor(jdbc.getDataSource(), sql, fetchSize, batchSize, maxRows);
+          } catch (SQLException e) {
+            throw translate(sql, e);
+          }
+        },
+        cursor ->
+            Flux.<QueryRowBatch>generate(
+                sink -> {
+                  try {
+                    QueryRowBatch batch = cursor.next();
+                    if (batch == null) {
+                      sink.complete();
+                    } else {
+                      sink.next(batch);
+                    }
+                  } catch (SQLException e) {
+                    sink.error(translate(sql, e));
+                  }
+                }),
+        JdbcBatchCursor::close);
+  }
+
   /**
    * Performs a semantic search over {@code gtw.knowledge_chunks} using pgvector.
    *
@@ -264,6 +306,11 @@ public class DatabaseServiceImpl implements DatabaseService {
 
   // ---------- Helpers ----------
 
+  private DataAccessException translate(String sql, SQLException e) {
+    DataAccessException translated = jdbc.getExceptionTranslator().translate("streamQuery", sql, e);
+    return translated != null ? translated : new UncategorizedSQLException("streamQuery", sql, e);
+  }
+
   private static String toPgVectorLiteral(float[] vec) {
     String joined =
         java.util.stream.IntStream.range(0, vec.length)
@@ -299,68 +346,10 @@ public class DatabaseServiceImpl implements DatabaseService {
   }
 
   /**
-   * Very defensive read-only check:
-   *
-   * <ul>
-   *   <li>Removes comments and string literals to reduce false hits.
-   *   <li>Requires leading token SELECT or WITH.
-   *   <li>Rejects any DML/DDL keywords if present.
-   *   <li>Rejects multiple statements (any additional ';').
-   * </ul>
+   * Read-only check shared with the MCP server (see {@link SqlSafety}): a single SELECT/WITH
+   * statement without DML/DDL keywords, scanned once with comments and literals skipped.
    */
   private static boolean isReadOnlySql(String sql) {
-    if (!StringUtils.hasText(sql)) return false;
-
-    // Reject multiple statements quickly
-    if (sql.contains(";")) return false;
-
-    String cleaned = stripComments(stripStringLiterals(sql)).trim().toLowerCase(Locale.ROOT);
-
-    if (!(cleaned.startsWith("select") || cleaned.startsWith("with"))) return false;
-
-    // Disallowed keywords (beyond the start); word boundaries to avoid hits in identifiers
-    String[] forbidden = {
-      "insert",
-      "update",
-      "delete",
-      "merge",
-      "upsert",
-      "drop",
-      "alter",
-      "create",
-      "truncate",
-      "vacuum",
-      "analyze",
-      "grant",
-      "revoke",
-      "call",
-      "do",
-      "copy",
-      "listen",
-      "notify",
-      "set",
-      "explain" // avoid leaking plans / executing explain analyze
-    };
-    for (String kw : forbidden) {
-      if (cleaned.matches("(?s).*\\b" + kw + "\\b.*")) {
-        return false;
-      }
-    }
-    return true;
-  }
-
-  /** Remove single-line and block comments. */
-  private static String stripComments(String s) {
-    // -- line comments
-    String noLine = s.replaceAll("(?m)--.*?$", "");
-    // /* block comments */
-    return noLine.replaceAll("(?s)/\\*.*?\\*/", "");
-  }
-
-  /** Remove single- and double-quoted string literals to avoid false keyword matches. */
-  private static String stripStringLiterals(String s) {
-    // Replace escaped quotes inside strings conservatively
-    String withoutSingle = s.replaceAll("(?s)'([^'\\\\]|\\\\.|'')*'", "''");
-    return withoutSingle.replaceAll("(?s)\"([^\"\\\\]|\\\\.|\"\")*\"", "\"\"");
+    return SqlSafety.isReadOnly(sql);
   }
 }
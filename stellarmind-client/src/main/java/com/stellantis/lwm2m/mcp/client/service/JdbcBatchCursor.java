@@ -0,0 +1,179 @@
+package com.stellantis.lwm2m.mcp.client.service;
+
+import com.stellantis.lwm2m.mcp.client.cot.dto.QueryRowBatch;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Forward-only, read-only JDBC cursor that hands out fixed-size row batches. Owns its connection
+ * for the lifetime of the cursor; only {@code fetchSize} rows are held by the driver at a time.
+ *
+ * <p>Reads must come from one thread at a time. {@link #close} may be called from any thread (a
+ * cancelled subscription closes from the cancelling thread): during a read it only cancels the
+ * running statement, and the reading thread closes the cursor when the read returns.
+ */
+final class JdbcBatchCursor implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(JdbcBatchCursor.class);
+
+  private final Connection connection;
+  private final int batchSize;
+  private final int maxRows;
+  private PreparedStatement statement;
+  private ResultSet resultSet;
+  private List<String> columns;
+  private long offset;
+  private boolean started;
+  private boolean done;
+
+  // guarded by this
+  private boolean reading;
+  private boolean closeRequested;
+  private boolean closed;
+
+  JdbcBatchCursor(DataSource dataSource, String sql, int fetchSize, int batchSize, int maxRows)
+      throws SQLException {
+    this.batchSize = Math.max(1, batchSize);
+    this.maxRows = Math.max(1, maxRows);
+    this.connection = dataSource.getConnection();
+    try {
+      // PostgreSQL only streams with a fetch size inside a transaction
+      connection.setAutoCommit(false);
+      connection.setReadOnly(true);
+      statement =
+          connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(fetchSize);
+      statement.setMaxRows(this.maxRows + 1); // one extra row tells us the result was truncated
+      resultSet = statement.executeQuery();
+
+      ResultSetMetaData md = resultSet.getMetaData();
+      columns = new ArrayList<>(md.getColumnCount());
+      for (int i = 1; i <= md.getColumnCount(); i++) {
+        columns.add(md.getColumnLabel(i));
+      }
+    } catch (SQLException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Reads the next batch. The first batch is always returned, even when empty, so consumers learn
+   * the columns.
+   *
+   * @return the next batch, or null once the cursor is exhausted or closed
+   */
+  QueryRowBatch next() throws SQLException {
+    synchronized (this) {
+      if (closed || closeRequested) {
+        return null;
+      }
+      reading = true;
+    }
+    boolean closeNow;
+    try {
+      return read();
+    } catch (SQLException e) {
+      synchronized (this) {
+        if (closeRequested) {
+          return null; // cancelled by close()
+        }
+      }
+      throw e;
+    } finally {
+      synchronized (this) {
+        reading = false;
+        closeNow = closeRequested;
+      }
+      if (closeNow) {
+        release();
+      }
+    }
+  }
+
+  private QueryRowBatch read() throws SQLException {
+    if (done && started) {
+      return null;
+    }
+    int n = columns.size();
+    List<List<Object>> rows = new ArrayList<>(Math.min(batchSize, 256));
+    boolean truncated = false;
+    while (!done && rows.size() < batchSize) {
+      if (!resultSet.next()) {
+        done = true;
+      } else if (offset + rows.size() == maxRows) {
+        truncated = true;
+        done = true;
+      } else {
+        List<Object> row = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+          row.add(resultSet.getObject(i));
+        }
+        rows.add(row);
+      }
+    }
+    if (rows.isEmpty() && started) {
+      return null;
+    }
+    QueryRowBatch batch = new QueryRowBatch(started ? null : columns, rows, offset, done, truncated);
+    offset += rows.size();
+    started = true;
+    return batch;
+  }
+
+  /** Closes the cursor, or cancels the running statement and leaves closing to the reader. */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (closed || closeRequested) {
+        return;
+      }
+      closeRequested = true;
+      if (reading) {
+        cancelStatement();
+        return;
+      }
+    }
+    release();
+  }
+
+  private void cancelStatement() {
+    try {
+      if (statement != null) statement.cancel();
+    } catch (SQLException e) {
+      log.debug("Cursor statement cancel failed: {}", e.getMessage());
+    }
+  }
+
+  private void release() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    try {
+      if (resultSet != null) resultSet.close();
+      if (statement != null) statement.close();
+      connection.rollback(); // read-only: nothing to keep
+      connection.setReadOnly(false);
+      connection.setAutoCommit(true);
+    } catch (SQLException e) {
+      log.debug("Cursor cleanup failed: {}", e.getMessage());
+    } finally {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        log.warn("Cursor connection close failed: {}", e.getMessage());
+      }
+    }
+  }
+}
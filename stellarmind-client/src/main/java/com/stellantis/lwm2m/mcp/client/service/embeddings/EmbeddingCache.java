@@ -0,0 +1,191 @@
+package com.stellantis.lwm2m.mcp.client.service.embeddings;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Two-tier cache of embedding vectors used by {@link HybridEmbeddingModel}.
+ *
+ * <ul>
+ *   <li><b>Local</b>: bounded LRU of primitive {@code float[]} values; evicts the least recently
+ *       used vector when {@code max-entries} is reached.
+ *   <li><b>Redis</b> (optional): vectors stored as little-endian float bytes under {@code
+ *       embedding:cache:{key}} with a TTL, so restarts and other nodes reuse them.
+ * </ul>
+ *
+ * <p>Keys combine provider, model and the SHA-256 of the text (see {@link #key}), so a provider or
+ * model switch never returns a vector from another embedding space. Redis failures degrade to a
+ * miss.
+ *
+ * <p>Metrics: {@code embedding.cache.gets{result=hit|miss,tier=local|redis}}, {@code
+ * embedding.cache.evictions}, {@code embedding.cache.size}.
+ */
+public class EmbeddingCache {
+
+  private static final Logger log = LoggerFactory.getLogger(EmbeddingCache.class);
+
+  private static final String REDIS_KEY_PREFIX = "embedding:cache:";
+
+  private final int maxEntries;
+  private final RedissonClient redissonClient; // null: local tier only
+  private final Duration redisTtl;
+
+  private final Map<String, float[]> local;
+
+  private final Counter localHits;
+  private final Counter redisHits;
+  private final Counter misses;
+  private final Counter evictions;
+
+  /**
+   * @param maxEntries capacity of the local LRU
+   * @param redissonClient Redis client for the second tier, or null to disable it
+   * @param redisTtl lifetime of vectors in Redis
+   * @param meterRegistry registry for hit/miss/eviction metrics
+   */
+  public EmbeddingCache(
+      int maxEntries,
+      RedissonClient redissonClient,
+      Duration redisTtl,
+      MeterRegistry meterRegistry) {
+    this.maxEntries = Math.max(1, maxEntries);
+    this.redissonClient = redissonClient;
+    this.redisTtl = redisTtl;
+
+    this.localHits = gets(meterRegistry, "hit", "local");
+    this.redisHits = gets(meterRegistry, "hit", "redis");
+    this.misses = gets(meterRegistry, "miss", "all");
+    this.evictions = Counter.builder("embedding.cache.evictions").register(meterRegistry);
+
+    // access-ordered: iteration order is least recently used first
+    this.local =
+        new LinkedHashMap<>(256, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+            boolean evict = size() > EmbeddingCache.this.maxEntries;
+            if (evict) EmbeddingCache.this.evictions.increment();
+            return evict;
+          }
+        };
+    Gauge.builder("embedding.cache.size", this, EmbeddingCache::size).register(meterRegistry);
+  }
+
+  private static Counter gets(MeterRegistry registry, String result, String tier) {
+    return Counter.builder("embedding.cache.gets")
+        .tag("result", result)
+        .tag("tier", tier)
+        .register(registry);
+  }
+
+  /** Cache key: {@code provider:model:sha256(text)}. */
+  public static String key(String provider, String model, String text) {
+    try {
+      byte[] hash =
+          MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+      return provider.toLowerCase(Locale.ROOT) + ":" + model + ":" + HexFormat.of().formatHex(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Looks up a vector, local tier first. A Redis hit is promoted to the local tier.
+   *
+   * @return a copy of the cached vector, or null on a miss
+   */
+  public float[] get(String key) {
+    float[] v;
+    synchronized (local) {
+      v = local.get(key);
+    }
+    if (v != null) {
+      localHits.increment();
+      return v.clone();
+    }
+    v = getRemote(key);
+    if (v != null) {
+      redisHits.increment();
+      synchronized (local) {
+        local.put(key, v);
+      }
+      return v.clone();
+    }
+    misses.increment();
+    return null;
+  }
+
+  /** Stores a copy of the vector in both tiers. */
+  public void put(String key, float[] vector) {
+    if (vector == null || vector.length == 0) {
+      return;
+    }
+    float[] copy = vector.clone();
+    synchronized (local) {
+      local.put(key, copy);
+    }
+    putRemote(key, copy);
+  }
+
+  public int size() {
+    synchronized (local) {
+      return local.size();
+    }
+  }
+
+  private float[] getRemote(String key) {
+    if (redissonClient == null) {
+      return null;
+    }
+    try {
+      byte[] bytes = bucket(key).get();
+      return bytes == null ? null : fromBytes(bytes);
+    } catch (Exception e) {
+      log.warn("EmbeddingCache: Redis read failed key={}: {}", key, e.getMessage());
+      return null;
+    }
+  }
+
+  private void putRemote(String key, float[] vector) {
+    if (redissonClient == null) {
+      return;
+    }
+    try {
+      bucket(key).set(toBytes(vector), redisTtl);
+    } catch (Exception e) {
+      log.warn("EmbeddingCache: Redis write failed key={}: {}", key, e.getMessage());
+    }
+  }
+
+  private RBucket<byte[]> bucket(String key) {
+    return redissonClient.getBucket(REDIS_KEY_PREFIX + key, ByteArrayCodec.INSTANCE);
+  }
+
+  private static byte[] toBytes(float[] vector) {
+    ByteBuffer buf =
+        ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    buf.asFloatBuffer().put(vector);
+    return buf.array();
+  }
+
+  private static float[] fromBytes(byte[] bytes) {
+    float[] vector = new float[bytes.length / Float.BYTES];
+    ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+    return vector;
+  }
+}
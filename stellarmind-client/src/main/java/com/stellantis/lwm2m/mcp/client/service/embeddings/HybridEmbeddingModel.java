@@ -26,6 +26,10 @@ import org.springframework.ai.embedding.EmbeddingResponse;
  * pipelines such as RAG (Retrieval Augmented Generation), semantic search, or knowledge base
  * indexing.
  *
+ * <p>With an {@link EmbeddingCache}, {@link #embed(String)} serves repeated texts from the cache.
+ * Only vectors produced by the primary provider are cached, so a fallback never mixes vectors from
+ * another embedding space into the cache.
+ *
  * <h3>Example Usage</h3>
  *
  * <pre>{@code
@@ -46,6 +50,8 @@ public class HybridEmbeddingModel implements EmbeddingModel {
   private final EmbeddingModel openai;
   private final EmbeddingModel bedrock;
   private final String primary;
+  private final EmbeddingCache cache; // null: no caching
+  private final String primaryModel;
 
   /**
    * Creates a new {@code HybridEmbeddingModel}.
@@ -55,10 +61,33 @@ public class HybridEmbeddingModel implements EmbeddingModel {
    * @param primary the preferred provider ("OPENAI" or "BEDROCK")
    */
   public HybridEmbeddingModel(EmbeddingModel openai, EmbeddingModel bedrock, String primary) {
+    this(openai, bedrock, primary, null, null);
+  }
+
+  /**
+   * Creates a new {@code HybridEmbeddingModel} that caches primary-provider embeddings.
+   *
+   * @param openai the OpenAI embedding model implementation
+   * @param bedrock the Bedrock Titan embedding model implementation
+   * @param primary the preferred provider ("OPENAI" or "BEDROCK")
+   * @param cache embedding cache, or null to disable caching
+   * @param primaryModel model name of the primary provider (part of the cache key)
+   */
+  public HybridEmbeddingModel(
+      EmbeddingModel openai,
+      EmbeddingModel bedrock,
+      String primary,
+      EmbeddingCache cache,
+      String primaryModel) {
     this.openai = openai;
     this.bedrock = bedrock;
     this.primary = primary;
-    log.info("HybridEmbeddingModel initialized with primary provider: {}", primary);
+    this.cache = cache;
+    this.primaryModel = primaryModel;
+    log.info(
+        "HybridEmbeddingModel initialized with primary provider: {} cache={}",
+        primary,
+        cache != null ? primaryModel : "off");
   }
 
   private EmbeddingModel getPrimary() {
@@ -98,9 +127,21 @@ public class HybridEmbeddingModel implements EmbeddingModel {
    */
   @Override
   public float[] embed(String text) {
+    String key =
+        cache != null && text != null ? EmbeddingCache.key(primary, primaryModel, text) : null;
+    if (key != null) {
+      float[] cached = cache.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
     try {
       log.debug("Embedding text with primary provider: {}", primary);
-      return getPrimary().embed(text);
+      float[] vector = getPrimary().embed(text);
+      if (key != null) {
+        cache.put(key, vector);
+      }
+      return vector;
     } catch (Exception ex) {
       log.warn(
           "Primary provider {} failed, retrying with secondary. Error: {}",
@@ -0,0 +1,50 @@
+package com.stellantis.lwm2m.mcp.client.cot.sse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+/** Grouping of streamed chunks into SSE frames by text size and delay. */
+class ResponseChunkCoalescerTests {
+
+  @Test
+  void groupsByCharactersNotChunkCount() {
+    ResponseChunkCoalescer coalescer = new ResponseChunkCoalescer(true, 6, Duration.ofSeconds(5));
+
+    List<List<String>> frames =
+        coalescer
+            .coalesce(Flux.just("first", "a", "b", "cdef", "ghijklmn", "o"), String::length)
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+    assertThat(frames)
+        .containsExactly(
+            List.of("first"), List.of("a", "b", "cdef"), List.of("ghijklmn"), List.of("o"));
+  }
+
+  @Test
+  void flushesSmallGroupAfterMaxDelay() {
+    ResponseChunkCoalescer coalescer =
+        new ResponseChunkCoalescer(true, 1000, Duration.ofMillis(20));
+    Flux<String> slow =
+        Flux.concat(
+            Flux.just("first", "a", "b"), Flux.just("c").delaySubscription(Duration.ofMillis(300)));
+
+    List<List<String>> frames =
+        coalescer.coalesce(slow, String::length).collectList().block(Duration.ofSeconds(5));
+
+    assertThat(frames).containsExactly(List.of("first"), List.of("a", "b"), List.of("c"));
+  }
+
+  @Test
+  void emitsEveryChunkWhenDisabled() {
+    ResponseChunkCoalescer coalescer =
+        new ResponseChunkCoalescer(false, 1000, Duration.ofSeconds(5));
+
+    assertThat(coalescer.coalesce(Flux.just("a", "b"), String::length).collectList().block())
+        .containsExactly(List.of("a"), List.of("b"));
+  }
+}
@@ -0,0 +1,99 @@
+package com.stellantis.lwm2m.mcp.client.cot.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stellantis.lwm2m.mcp.client.cot.validation.LocalSqlValidator.Verdict;
+import org.junit.jupiter.api.Test;
+
+/** Parser-based validation against the catalog built from {@code json/*.json}. */
+class LocalSqlValidatorTests {
+
+  private final LocalSqlValidator validator =
+      new LocalSqlValidator(new SchemaCatalog(new ObjectMapper(), null, false));
+
+  @Test
+  void acceptsKnownTablesColumnsAndDeclaredJoins() {
+    assertThat(
+            validator
+                .validate(
+                    "SELECT e.serial_number, count(*) AS event_count FROM bs.event e "
+                        + "JOIN bs.profile p ON e.profile_name = p.profile_name "
+                        + "WHERE e.status = 'failed' AND p.active = true "
+                        + "GROUP BY e.serial_number ORDER BY event_count DESC")
+                .verdict())
+        .isEqualTo(Verdict.VALID);
+  }
+
+  @Test
+  void rejectsUnknownColumn() {
+    LocalSqlValidator.Result result =
+        validator.validate("SELECT e.message FROM bs.event e WHERE e.status = 'failed'");
+    assertThat(result.verdict()).isEqualTo(Verdict.INVALID);
+    assertThat(result.issues()).containsExactly("Unknown column message in table bs.event");
+  }
+
+  @Test
+  void rejectsUnknownTableInKnownSchema() {
+    assertThat(validator.validate("SELECT * FROM bs.events").verdict())
+        .isEqualTo(Verdict.INVALID);
+  }
+
+  @Test
+  void rejectsWrites() {
+    assertThat(validator.validate("DELETE FROM bs.event").verdict()).isEqualTo(Verdict.INVALID);
+  }
+
+  @Test
+  void defersUndeclaredJoin() {
+    assertThat(
+            validator
+                .validate(
+                    "SELECT v.vin FROM bs.bs_vehicle v "
+                        + "JOIN bs.event e ON v.profile_name = e.serial_number")
+                .verdict())
+        .isEqualTo(Verdict.UNCERTAIN);
+  }
+
+  @Test
+  void defersColumnsOfCommonTableExpressions() {
+    assertThat(
+            validator
+                .validate(
+                    "WITH recent AS (SELECT serial_number FROM bs.event) "
+                        + "SELECT r.serial_number FROM recent r")
+                .verdict())
+        .isEqualTo(Verdict.UNCERTAIN);
+  }
+
+  @Test
+  void defersColumnsOfFunctionsSubqueriesAndValues() {
+    assertThat(
+            validator
+                .validate(
+                    "SELECT d::date AS day, count(e.serial_number) FROM generate_series("
+                        + "now() - interval '7 days', now(), interval '1 day') d "
+                        + "LEFT JOIN bs.event e ON e.status = 'failed' GROUP BY day")
+                .verdict())
+        .isEqualTo(Verdict.UNCERTAIN);
+    assertThat(
+            validator
+                .validate("SELECT s FROM bs.event e, unnest(ARRAY['a', 'b']) s")
+                .verdict())
+        .isEqualTo(Verdict.UNCERTAIN);
+    assertThat(
+            validator
+                .validate(
+                    "SELECT e.serial_number, day FROM bs.event e "
+                        + "CROSS JOIN LATERAL generate_series(1, 3) AS day")
+                .verdict())
+        .isEqualTo(Verdict.UNCERTAIN);
+    assertThat(
+            validator
+                .validate("SELECT c FROM (SELECT serial_number FROM bs.event) AS t(c)")
+                .verdict())
+        .isEqualTo(Verdict.UNCERTAIN);
+    assertThat(validator.validate("SELECT x FROM (VALUES (1), (2)) AS v(x)").verdict())
+        .isEqualTo(Verdict.UNCERTAIN);
+  }
+}
@@ -0,0 +1,147 @@
+package com.stellantis.lwm2m.mcp.client.knowledge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Recall@k and latency of {@link EmbeddingIndex#binaryTopK} (sign-code shortlist, full-precision
+ * rescoring) against {@link EmbeddingIndex#exactTopK}, for growing corpus sizes and shortlist
+ * oversampling factors.
+ *
+ * <p>Clustered random vectors stand in for chunk embeddings, as in {@link HnswRecallBenchmark}; no
+ * database is needed. Each configuration runs every query once to warm up, then once timed.
+ *
+ * <p>Run with {@code mvn -pl stellarmind-client test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.stellantis.lwm2m.mcp.client.knowledge.BinaryPrefilterBenchmark}; {@code
+ * bench.sizes}, {@code bench.dims}, {@code bench.k}, {@code bench.queries} and {@code
+ * bench.oversample} override the defaults.
+ */
+public final class BinaryPrefilterBenchmark {
+
+  private static final int CLUSTERS = 64;
+  private static final float NOISE = 0.6f;
+
+  private final int dims = Integer.getInteger("bench.dims", 1536);
+  private final int k = Integer.getInteger("bench.k", 10);
+  private final int queryCount = Integer.getInteger("bench.queries", 200);
+  private final int[] sizes = ints(System.getProperty("bench.sizes", "1000,10000,50000"));
+  private final int[] oversamples = ints(System.getProperty("bench.oversample", "2,4,8,16"));
+
+  private final Random random = new Random(42);
+  private final float[][] centroids = new float[CLUSTERS][];
+
+  /** Sorted per-query latencies (nanos) and results of a timed pass. */
+  private record Pass(long[] nanos, int[][] results) {}
+
+  public static void main(String[] args) {
+    new BinaryPrefilterBenchmark().run();
+  }
+
+  private void run() {
+    for (int c = 0; c < CLUSTERS; c++) {
+      centroids[c] = gaussian(1f);
+    }
+    List<float[]> queries = new ArrayList<>(queryCount);
+    for (int q = 0; q < queryCount; q++) {
+      queries.add(sample());
+    }
+    System.out.printf("dims=%d k=%d queries=%d%n", dims, k, queryCount);
+    System.out.printf(
+        "%8s %-6s %10s %9s %9s %9s%n",
+        "rows",
+        "mode",
+        "oversample",
+        "recall@k",
+        "p50_us",
+        "p95_us");
+    List<float[]> rows = new ArrayList<>();
+    for (int size : sizes) {
+      while (rows.size() < size) {
+        rows.add(sample());
+      }
+      EmbeddingIndex index = EmbeddingIndex.of(rows);
+
+      Pass exact = pass(queries, q -> index.exactTopK(q, k));
+      report(size, "exact", "-", 1.0, exact.nanos());
+      for (int oversample : oversamples) {
+        Pass binary = pass(queries, q -> index.binaryTopK(q, k, k * oversample));
+        double recall = recall(binary.results(), exact.results());
+        report(size, "binary", String.valueOf(oversample), recall, binary.nanos());
+      }
+    }
+  }
+
+  private void report(int size, String mode, String oversample, double recall, long[] nanos) {
+    System.out.printf(
+        "%8d %-6s %10s %9.3f %9.1f %9.1f%n",
+        size,
+        mode,
+        oversample,
+        recall,
+        percentile(nanos, 0.50),
+        percentile(nanos, 0.95));
+  }
+
+  private Pass pass(List<float[]> queries, Function<float[], int[]> search) {
+    for (float[] q : queries) {
+      search.apply(q);
+    }
+    long[] nanos = new long[queries.size()];
+    int[][] results = new int[queries.size()][];
+    for (int i = 0; i < queries.size(); i++) {
+      long t0 = System.nanoTime();
+      results[i] = search.apply(queries.get(i));
+      nanos[i] = System.nanoTime() - t0;
+    }
+    Arrays.sort(nanos);
+    return new Pass(nanos, results);
+  }
+
+  /** Share of the exact top-k found by the approximate search. */
+  private static double recall(int[][] approximate, int[][] exact) {
+    long found = 0;
+    long total = 0;
+    for (int q = 0; q < exact.length; q++) {
+      for (int row : exact[q]) {
+        for (int candidate : approximate[q]) {
+          if (candidate == row) {
+            found++;
+            break;
+          }
+        }
+      }
+      total += exact[q].length;
+    }
+    return (double) found / total;
+  }
+
+  /** A vector near a random centroid; the index normalizes it. */
+  private float[] sample() {
+    float[] centroid = centroids[random.nextInt(CLUSTERS)];
+    float[] v = gaussian(NOISE);
+    for (int i = 0; i < dims; i++) {
+      v[i] += centroid[i];
+    }
+    return v;
+  }
+
+  private float[] gaussian(float sigma) {
+    float[] v = new float[dims];
+    for (int i = 0; i < dims; i++) {
+      v[i] = (float) random.nextGaussian() * sigma;
+    }
+    return v;
+  }
+
+  private static double percentile(long[] sortedNanos, double p) {
+    int i = (int) Math.ceil(p * sortedNanos.length) - 1;
+    return sortedNanos[Math.max(0, i)] / 1_000.0;
+  }
+
+  private static int[] ints(String csv) {
+    return Arrays.stream(csv.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+  }
+}
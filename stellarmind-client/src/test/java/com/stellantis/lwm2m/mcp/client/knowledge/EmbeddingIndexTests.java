@@ -0,0 +1,73 @@
+package com.stellantis.lwm2m.mcp.client.knowledge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Exact and sign-code-prefiltered top-k over {@link EmbeddingIndex}. */
+class EmbeddingIndexTests {
+
+  private static final int DIMS = 200; // spans four code words, the last one partly used
+
+  private final Random random = new Random(11);
+
+  @Test
+  void encodesOneBitPerPositiveComponent() {
+    float[] v = new float[70];
+    v[0] = 0.5f;
+    v[1] = -0.5f;
+    v[3] = 2f;
+    v[64] = 1f;
+    v[69] = -1f;
+    long[] code = new long[2];
+    EmbeddingIndex.encode(v, code, 0);
+    assertThat(code).containsExactly(0b1001L, 0b1L);
+  }
+
+  @Test
+  void binaryWithShortlistCoveringAllRowsIsExact() {
+    EmbeddingIndex index = EmbeddingIndex.of(randomVectors(300));
+    float[] q = randomVector();
+    assertThat(index.binaryTopK(q, 10, 300)).containsExactly(index.exactTopK(q, 10));
+  }
+
+  @Test
+  void binaryShortlistKeepsNearDuplicates() {
+    List<float[]> rows = randomVectors(2000);
+    EmbeddingIndex index = EmbeddingIndex.of(rows);
+    for (int target : new int[] {0, 777, 1999}) {
+      float[] q = rows.get(target).clone();
+      for (int i = 0; i < DIMS; i++) {
+        q[i] += (float) random.nextGaussian() * 0.1f;
+      }
+      assertThat(index.binaryTopK(q, 1, 40)).containsExactly(target);
+    }
+  }
+
+  @Test
+  void returnsAtMostTheIndexedRows() {
+    EmbeddingIndex index = EmbeddingIndex.of(randomVectors(3));
+    assertThat(index.exactTopK(randomVector(), 10)).hasSize(3);
+    assertThat(index.binaryTopK(randomVector(), 10, 80)).hasSize(3);
+    assertThat(EmbeddingIndex.EMPTY.binaryTopK(randomVector(), 10, 80)).isEmpty();
+  }
+
+  private List<float[]> randomVectors(int n) {
+    List<float[]> rows = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      rows.add(randomVector());
+    }
+    return rows;
+  }
+
+  private float[] randomVector() {
+    float[] v = new float[DIMS];
+    for (int i = 0; i < DIMS; i++) {
+      v[i] = (float) random.nextGaussian();
+    }
+    return v;
+  }
+}
@@ -0,0 +1,271 @@
+package com.stellantis.lwm2m.mcp.client.knowledge;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Recall@k and latency of the HNSW index of {@link KnowledgeVectorIndex} against an exact scan, as
+ * the chunk table grows.
+ *
+ * <p>Needs PostgreSQL with pgvector 0.5.0 or later. Clustered random unit vectors stand in for
+ * chunk embeddings: the real corpus is a few dozen chunks, and per-column chunks or more databases
+ * take it into the thousands. The table grows through {@code bench.sizes}; at each size the index
+ * is rebuilt and every query runs once with index scans off (exact) and once per {@code
+ * bench.ef-search} value. Recall is measured against the exact top-k computed in memory.
+ *
+ * <p>Run with {@code mvn -pl stellarmind-client test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.stellantis.lwm2m.mcp.client.knowledge.HnswRecallBenchmark
+ * -Dbench.url=jdbc:postgresql://localhost:5432/lwm2m}. It creates and drops {@value #TABLE}.
+ */
+public final class HnswRecallBenchmark {
+
+  private static final String TABLE = "gtw.knowledge_chunks_json_bench";
+  private static final int CLUSTERS = 64;
+  private static final float NOISE = 0.6f;
+
+  private final int dims = Integer.getInteger("bench.dims", 1536);
+  private final int k = Integer.getInteger("bench.k", 10);
+  private final int queryCount = Integer.getInteger("bench.queries", 200);
+  private final int m = Integer.getInteger("bench.m", 16);
+  private final int efConstruction = Integer.getInteger("bench.ef-construction", 64);
+  private final int[] sizes = ints(System.getProperty("bench.sizes", "1000,5000,20000"));
+  private final int[] efSearches = ints(System.getProperty("bench.ef-search", "16,40,100"));
+
+  /** Recall and sorted per-query latencies (nanos) of a timed pass. */
+  private record Pass(double recall, long[] nanos) {}
+
+  private final Random random = new Random(42);
+  private final float[][] centroids = new float[CLUSTERS][];
+  private final List<float[]> rows = new ArrayList<>();
+
+  public static void main(String[] args) throws SQLException {
+    String url = System.getProperty("bench.url", "jdbc:postgresql://localhost:5432/lwm2m");
+    String user = System.getProperty("bench.user", "postgres");
+    String password = System.getProperty("bench.password", System.getenv("DB_PASSWORD"));
+    try (Connection con =
+        DriverManager.getConnection(url, user, password == null ? "postgres" : password)) {
+      new HnswRecallBenchmark().run(con);
+    }
+  }
+
+  private void run(Connection con) throws SQLException {
+    for (int c = 0; c < CLUSTERS; c++) {
+      centroids[c] = normalize(gaussian(1f));
+    }
+    List<float[]> queries = new ArrayList<>(queryCount);
+    for (int q = 0; q < queryCount; q++) {
+      queries.add(sample());
+    }
+    execute(con, "CREATE EXTENSION IF NOT EXISTS vector");
+    execute(con, "CREATE SCHEMA IF NOT EXISTS gtw");
+    execute(con, "DROP TABLE IF EXISTS " + TABLE);
+    execute(
+        con,
+        "CREATE TABLE " + TABLE + " (id BIGINT PRIMARY KEY, embedding vector(" + dims + "))");
+    System.out.printf(
+        "dims=%d k=%d queries=%d m=%d ef_construction=%d%n",
+        dims,
+        k,
+        queryCount,
+        m,
+        efConstruction);
+    System.out.printf(
+        "%8s %-6s %9s %9s %8s %8s %9s%n",
+        "rows",
+        "mode",
+        "ef_search",
+        "recall@k",
+        "p50_ms",
+        "p95_ms",
+        "build_ms");
+    try {
+      for (int size : sizes) {
+        grow(con, size);
+        List<Set<Long>> truth = queries.stream().map(this::exactTopK).toList();
+
+        execute(con, "DROP INDEX IF EXISTS gtw.knowledge_chunks_json_bench_hnsw");
+        long t0 = System.nanoTime();
+        execute(
+            con,
+            String.format(
+                "CREATE INDEX knowledge_chunks_json_bench_hnsw ON %s "
+                    + "USING hnsw (embedding vector_cosine_ops) "
+                    + "WITH (m = %d, ef_construction = %d)",
+                TABLE, m, efConstruction));
+        long buildMs = (System.nanoTime() - t0) / 1_000_000L;
+        execute(con, "ANALYZE " + TABLE);
+
+        execute(con, "SET enable_indexscan = off");
+        execute(con, "SET enable_seqscan = on");
+        report(size, "exact", "-", search(con, queries, truth), "-");
+
+        execute(con, "SET enable_indexscan = on");
+        execute(con, "SET enable_seqscan = off");
+        for (int ef : efSearches) {
+          execute(con, "SET hnsw.ef_search = " + ef);
+          Pass pass = search(con, queries, truth);
+          report(size, "hnsw", String.valueOf(ef), pass, String.valueOf(buildMs));
+        }
+      }
+    } finally {
+      execute(con, "DROP TABLE IF EXISTS " + TABLE);
+    }
+  }
+
+  /** Runs every query once to warm up, then once timed. */
+  private Pass search(Connection con, List<float[]> queries, List<Set<Long>> truth)
+      throws SQLException {
+    String sql = "SELECT id FROM " + TABLE + " ORDER BY embedding <=> ?::vector LIMIT ?";
+    try (PreparedStatement ps = con.prepareStatement(sql)) {
+      for (float[] query : queries) {
+        topK(ps, query);
+      }
+      long[] nanos = new long[queries.size()];
+      double found = 0;
+      for (int q = 0; q < queries.size(); q++) {
+        long t0 = System.nanoTime();
+        Set<Long> ids = topK(ps, queries.get(q));
+        nanos[q] = System.nanoTime() - t0;
+        ids.retainAll(truth.get(q));
+        found += ids.size();
+      }
+      Arrays.sort(nanos);
+      return new Pass(found / ((double) queries.size() * k), nanos);
+    }
+  }
+
+  private Set<Long> topK(PreparedStatement ps, float[] query) throws SQLException {
+    ps.setString(1, literal(query));
+    ps.setInt(2, k);
+    Set<Long> ids = new HashSet<>();
+    try (ResultSet rs = ps.executeQuery()) {
+      while (rs.next()) {
+        ids.add(rs.getLong(1));
+      }
+    }
+    return ids;
+  }
+
+  private void report(int size, String mode, String ef, Pass pass, String buildMs) {
+    System.out.printf(
+        "%8d %-6s %9s %9.3f %8.2f %8.2f %9s%n",
+        size,
+        mode,
+        ef,
+        pass.recall(),
+        percentile(pass.nanos(), 0.50),
+        percentile(pass.nanos(), 0.95),
+        buildMs);
+  }
+
+  /** Inserts rows until the table holds {@code size}; row ids are their index in {@link #rows}. */
+  private void grow(Connection con, int size) throws SQLException {
+    String sql = "INSERT INTO " + TABLE + " (id, embedding) VALUES (?, ?::vector)";
+    try (PreparedStatement ps = con.prepareStatement(sql)) {
+      while (rows.size() < size) {
+        float[] v = sample();
+        ps.setLong(1, rows.size());
+        ps.setString(2, literal(v));
+        ps.addBatch();
+        rows.add(v);
+        if (rows.size() % 500 == 0) {
+          ps.executeBatch();
+        }
+      }
+      ps.executeBatch();
+    }
+  }
+
+  private Set<Long> exactTopK(float[] query) {
+    long[] best = new long[k];
+    double[] bestScore = new double[k];
+    Arrays.fill(bestScore, Double.NEGATIVE_INFINITY);
+    for (int i = 0; i < rows.size(); i++) {
+      double score = dot(query, rows.get(i));
+      if (score <= bestScore[k - 1]) {
+        continue;
+      }
+      int j = k - 1;
+      while (j > 0 && bestScore[j - 1] < score) {
+        bestScore[j] = bestScore[j - 1];
+        best[j] = best[j - 1];
+        j--;
+      }
+      bestScore[j] = score;
+      best[j] = i;
+    }
+    Set<Long> ids = new HashSet<>();
+    for (long id : best) {
+      ids.add(id);
+    }
+    return ids;
+  }
+
+  /** A unit vector near a random centroid. */
+  private float[] sample() {
+    float[] centroid = centroids[random.nextInt(CLUSTERS)];
+    float[] v = gaussian(NOISE / (float) Math.sqrt(dims));
+    for (int i = 0; i < dims; i++) {
+      v[i] += centroid[i];
+    }
+    return normalize(v);
+  }
+
+  private float[] gaussian(float sigma) {
+    float[] v = new float[dims];
+    for (int i = 0; i < dims; i++) {
+      v[i] = (float) random.nextGaussian() * sigma;
+    }
+    return v;
+  }
+
+  private static float[] normalize(float[] v) {
+    double norm = Math.sqrt(dot(v, v));
+    for (int i = 0; i < v.length; i++) {
+      v[i] = (float) (v[i] / norm);
+    }
+    return v;
+  }
+
+  private static double dot(float[] a, float[] b) {
+    double sum = 0;
+    for (int i = 0; i < a.length; i++) {
+      sum += a[i] * b[i];
+    }
+    return sum;
+  }
+
+  private static String literal(float[] v) {
+    StringBuilder sb = new StringBuilder(v.length * 12).append('[');
+    for (int i = 0; i < v.length; i++) {
+      if (i > 0) sb.append(',');
+      sb.append(v[i]);
+    }
+    return sb.append(']').toString();
+  }
+
+  private static double percentile(long[] sortedNanos, double p) {
+    int i = (int) Math.ceil(p * sortedNanos.length) - 1;
+    return sortedNanos[Math.max(0, i)] / 1_000_000.0;
+  }
+
+  private static void execute(Connection con, String sql) throws SQLException {
+    try (Statement st = con.createStatement()) {
+      st.execute(sql);
+    }
+  }
+
+  private static int[] ints(String csv) {
+    return Arrays.stream(csv.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+  }
+}
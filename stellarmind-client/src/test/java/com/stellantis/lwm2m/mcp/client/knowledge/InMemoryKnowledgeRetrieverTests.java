@@ -0,0 +1,121 @@
+package com.stellantis.lwm2m.mcp.client.knowledge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.stellantis.lwm2m.mcp.client.model.KnowledgeChunkJson;
+import com.stellantis.lwm2m.mcp.client.repository.KnowledgeChunkJsonRepository;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** In-process cosine search over the schema knowledge, with pgvector as fallback. */
+class InMemoryKnowledgeRetrieverTests {
+
+  private final KnowledgeChunkJsonRepository repo = mock(KnowledgeChunkJsonRepository.class);
+  private final PgVectorKnowledgeRetriever pgvector = mock(PgVectorKnowledgeRetriever.class);
+  private final InMemoryKnowledgeRetriever retriever =
+      new InMemoryKnowledgeRetriever(repo, pgvector, true, 2000, 16);
+
+  @Test
+  void ranksByCosineNotMagnitude() {
+    KnowledgeChunkJson aligned = chunk(1L, 1f, 0f, 0f);
+    KnowledgeChunkJson close = chunk(2L, 0.9f, 0.3f, 0f);
+    KnowledgeChunkJson scaled = chunk(3L, 10f, 10f, 0f);
+    KnowledgeChunkJson opposite = chunk(4L, -1f, 0f, 0f);
+    when(repo.findAll()).thenReturn(List.of(scaled, opposite, close, aligned));
+    retriever.reload();
+
+    assertThat(retriever.findMostRelevant(new float[] {2f, 0f, 0f}, 3))
+        .containsExactly(aligned, close, scaled);
+    verifyNoInteractions(pgvector);
+  }
+
+  @Test
+  void shortlistsBySignCodeFromMinChunks() {
+    KnowledgeChunkJson unusable = chunk(9L);
+    KnowledgeChunkJson nearest = chunk(1L, 1f, 1f, 1f, -0.01f); // one sign flipped
+    KnowledgeChunkJson sameSigns = chunk(2L, 0.1f, 0.1f, 0.1f, 1f);
+    KnowledgeChunkJson opposite = chunk(3L, -1f, -1f, -1f, -1f);
+    KnowledgeChunkJson mixed = chunk(4L, 1f, -1f, 1f, -1f);
+    List<KnowledgeChunkJson> all = List.of(unusable, opposite, nearest, mixed, sameSigns);
+    when(repo.findAll()).thenReturn(all);
+    float[] query = {1f, 1f, 1f, 0.01f};
+
+    // a shortlist of one keeps the chunk whose sign code matches, not the best cosine
+    InMemoryKnowledgeRetriever binary = new InMemoryKnowledgeRetriever(repo, pgvector, true, 2, 1);
+    binary.reload();
+    assertThat(binary.findMostRelevant(query, 1)).containsExactly(sameSigns);
+    // a shortlist of two (k * oversample) also holds the nearest chunk, rescored first
+    assertThat(binary.findMostRelevant(query, 2)).containsExactly(nearest, sameSigns);
+
+    InMemoryKnowledgeRetriever exact = new InMemoryKnowledgeRetriever(repo, pgvector, true, 5, 1);
+    exact.reload();
+    assertThat(exact.findMostRelevant(query, 1)).containsExactly(nearest);
+    verifyNoInteractions(pgvector);
+  }
+
+  @Test
+  void reranksCandidatesByCosineAndTermsInProcess() {
+    KnowledgeChunkJson events = chunk(1L, 1f, 0f, 0f);
+    events.setContent("Table bs.event: serial_number, status, created_at");
+    KnowledgeChunkJson vehicles = chunk(2L, 0.9f, 0.3f, 0f);
+    vehicles.setContent("Table gtw.vehicle: vin, model, serial_number");
+    when(repo.findAll()).thenReturn(List.of(events, vehicles));
+    retriever.reload();
+    float[] query = {1f, 0f, 0f};
+
+    assertThat(retriever.rerank(List.of(events, vehicles), query, "vehicles by vin", 2))
+        .contains(List.of(vehicles, events));
+    assertThat(retriever.rerank(List.of(events, vehicles), new float[] {0f, 1f, 0f}, "status", 1))
+        .contains(List.of(events));
+    // unknown candidates and other dimensions are left to PostgreSQL
+    assertThat(retriever.rerank(List.of(chunk(3L, 1f, 0f, 0f)), query, "vin", 1)).isEmpty();
+    assertThat(retriever.rerank(List.of(events), new float[] {1f, 0f}, "vin", 1)).isEmpty();
+    verifyNoInteractions(pgvector);
+  }
+
+  @Test
+  void fallsBackToPgvectorWhenEmptyOrDimensionsDiffer() {
+    float[] query = {1f, 0f, 0f};
+    retriever.findMostRelevant(query, 2);
+    verify(pgvector).findMostRelevant(query, 2);
+
+    when(repo.findAll()).thenReturn(List.of(chunk(1L, 1f, 0f)));
+    retriever.reload();
+    retriever.findMostRelevant(query, 2);
+    verify(pgvector, times(2)).findMostRelevant(query, 2);
+  }
+
+  @Test
+  void unrolledDotMatchesPlainLoop() {
+    Random random = new Random(7);
+    int dims = 1536 + 3; // not a multiple of any lane count
+    float[] matrix = new float[2 * dims];
+    float[] q = new float[dims];
+    for (int i = 0; i < matrix.length; i++) {
+      matrix[i] = (float) random.nextGaussian();
+    }
+    for (int i = 0; i < dims; i++) {
+      q[i] = (float) random.nextGaussian();
+    }
+    float expected = 0f;
+    for (int i = 0; i < dims; i++) {
+      expected += matrix[dims + i] * q[i];
+    }
+    assertThat(VectorScoring.dot(matrix, dims, q, dims)).isCloseTo(expected, within(1e-2f));
+  }
+
+  private static KnowledgeChunkJson chunk(long id, float... embedding) {
+    KnowledgeChunkJson chunk = new KnowledgeChunkJson();
+    chunk.setId(id);
+    chunk.setContent("chunk " + id);
+    chunk.setEmbedding(embedding);
+    return chunk;
+  }
+}
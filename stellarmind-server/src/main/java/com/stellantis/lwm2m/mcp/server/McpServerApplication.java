@@ -1,22 +1,32 @@
 package com.stellantis.lwm2m.mcp.server;
 
 import com.stellantis.lwm2m.mcp.server.tool.DacDbTool;
+import com.stellantis.lwm2m.mcp.server.tool.DmOperationTool;
 import java.util.List;
 import org.springframework.ai.support.ToolCallbacks;
 import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "com.stellantis.lwm2m.mcp.server")
+@EnableScheduling
 public class McpServerApplication {
 
   public static void main(String[] args) {
     SpringApplication.run(McpServerApplication.class, args);
   }
 
+  /** DM tools write to vehicle gateways and are only exposed with {@code dm.tools.enabled}. */
   @Bean
-  public List<ToolCallback> dacTools(DacDbTool dacDbTool) {
-    return List.of(ToolCallbacks.from(dacDbTool));
+  public List<ToolCallback> dacTools(
+      DacDbTool dacDbTool,
+      DmOperationTool dmOperationTool,
+      @Value("${dm.tools.enabled:false}") boolean dmToolsEnabled) {
+    return dmToolsEnabled
+        ? List.of(ToolCallbacks.from(dacDbTool, dmOperationTool))
+        : List.of(ToolCallbacks.from(dacDbTool));
   }
 }
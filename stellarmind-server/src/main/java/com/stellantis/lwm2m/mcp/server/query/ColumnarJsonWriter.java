@@ -0,0 +1,120 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * Columnar response body: column names and SQL types are written once, each row is an array.
+ *
+ * <pre>
+ * "format": "columnar",
+ * "columns": [{"name": "vin", "type": "varchar"},
+ *             {"name": "status", "type": "varchar", "dictionary": ["failed", "ok"]}],
+ * "data": [["VR1...", 0], ["VR2...", 1]]
+ * </pre>
+ *
+ * <p>A text column is dictionary-encoded (cells become indexes into {@code dictionary}) when it
+ * has at most {@value #MAX_DICTIONARY_SIZE} distinct values and each value repeats on average.
+ * Since that is only known once every row has been seen, the rows of the response (bounded by the
+ * tool's row or page limit) are buffered until {@link #end()}.
+ *
+ * <p>An empty result still lists its columns when the caller {@linkplain #describe described} the
+ * statement before reading.
+ */
+final class ColumnarJsonWriter extends ResultJsonWriter {
+
+  static final int MAX_DICTIONARY_SIZE = 32;
+
+  private final List<Object[]> rows = new ArrayList<>();
+  /** Distinct values per text column; null once a column cannot be encoded. */
+  private List<Map<String, Integer>> dictionaries;
+
+  ColumnarJsonWriter(JsonGenerator generator) {
+    super(generator);
+  }
+
+  @Override
+  public void begin() {
+    // everything is written in end()
+  }
+
+  @Override
+  protected void row(ResultSet rs) throws SQLException {
+    if (dictionaries == null) {
+      dictionaries = new ArrayList<>(labels.length);
+      for (int i = 0; i < labels.length; i++) {
+        dictionaries.add(new LinkedHashMap<>());
+      }
+    }
+    Object[] row = new Object[labels.length];
+    for (int i = 0; i < row.length; i++) {
+      Object value = JdbcUtils.getResultSetValue(rs, i + 1);
+      row[i] = value;
+      Map<String, Integer> dictionary = dictionaries.get(i);
+      if (dictionary == null || value == null) {
+        continue;
+      }
+      if (!(value instanceof String s)) {
+        dictionaries.set(i, null);
+      } else if (!dictionary.containsKey(s)) {
+        if (dictionary.size() == MAX_DICTIONARY_SIZE) {
+          dictionaries.set(i, null);
+        } else {
+          dictionary.put(s, dictionary.size());
+        }
+      }
+    }
+    rows.add(row);
+  }
+
+  @Override
+  public void end() throws IOException {
+    int columns = labels == null ? 0 : labels.length;
+    List<Map<String, Integer>> encoded = new ArrayList<>(columns);
+    for (int i = 0; i < columns; i++) {
+      Map<String, Integer> dictionary = dictionaries == null ? null : dictionaries.get(i);
+      boolean worthIt = dictionary != null && dictionary.size() * 2 <= rows.size();
+      encoded.add(worthIt ? dictionary : null);
+    }
+
+    generator.writeStringField("format", "columnar");
+    generator.writeArrayFieldStart("columns");
+    for (int i = 0; i < columns; i++) {
+      generator.writeStartObject();
+      generator.writeStringField("name", labels[i]);
+      generator.writeStringField("type", types[i]);
+      if (encoded.get(i) != null) {
+        generator.writeArrayFieldStart("dictionary");
+        for (String value : encoded.get(i).keySet()) {
+          generator.writeString(value);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+
+    generator.writeArrayFieldStart("data");
+    for (Object[] row : rows) {
+      generator.writeStartArray();
+      for (int i = 0; i < columns; i++) {
+        Map<String, Integer> dictionary = encoded.get(i);
+        if (dictionary != null && row[i] != null) {
+          generator.writeNumber(dictionary.get((String) row[i]));
+        } else {
+          generator.writeObject(row[i]);
+        }
+      }
+      generator.writeEndArray();
+    }
+    generator.writeEndArray();
+    rows.clear();
+  }
+}
@@ -0,0 +1,184 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stellantis.lwm2m.mcp.sql.SqlFingerprint;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pre-flight check of generated SQL against the planner's estimate: {@code EXPLAIN (FORMAT JSON)}
+ * gives the total cost and row count of the top plan node. A query above {@code
+ * dac.cost-guard.max-total-cost} or {@code dac.cost-guard.max-rows} is either rejected or, with
+ * {@code dac.cost-guard.action=limit}, wrapped in a LIMIT and re-estimated; the limited query runs
+ * if its estimate is within bounds.
+ *
+ * <p>Estimates are cached by {@link SqlFingerprint}, so a repeated query shape (with different
+ * literals) skips the EXPLAIN round trip. EXPLAIN runs in a {@link QueryGovernor} transaction.
+ *
+ * <p>Metrics: {@code dac.query.cost.checks{decision=pass|limited|rejected}} and {@code
+ * dac.query.cost.cache{result=hit|miss}}.
+ */
+@Component
+public class QueryCostGuard {
+
+  private static final Logger log = LoggerFactory.getLogger(QueryCostGuard.class);
+
+  public enum Action {
+    REJECT,
+    LIMIT
+  }
+
+  /**
+   * @param totalCost planner total cost of the top node
+   * @param rows planner row estimate of the top node
+   */
+  public record Estimate(double totalCost, double rows) {}
+
+  /**
+   * @param sql SQL to execute (the LIMIT-wrapped query when {@code limited})
+   * @param estimate estimate of the submitted SQL (null when the guard is disabled)
+   * @param rejected whether the query must not run
+   * @param limited whether {@code sql} was rewritten with a LIMIT
+   */
+  public record Decision(String sql, Estimate estimate, boolean rejected, boolean limited) {}
+
+  private record CachedEstimate(Estimate estimate, long expiresAtNanos) {}
+
+  private final JdbcTemplate jdbc;
+  private final QueryGovernor governor;
+  private final MeterRegistry meterRegistry;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final boolean enabled;
+  private final double maxTotalCost;
+  private final double maxRows;
+  private final Action action;
+  private final Duration cacheTtl;
+  private final Map<String, CachedEstimate> cache;
+
+  public QueryCostGuard(
+      JdbcTemplate jdbc,
+      QueryGovernor governor,
+      MeterRegistry meterRegistry,
+      @Value("${dac.cost-guard.enabled:true}") boolean enabled,
+      @Value("${dac.cost-guard.max-total-cost:1000000}") double maxTotalCost,
+      @Value("${dac.cost-guard.max-rows:100000}") double maxRows,
+      @Value("${dac.cost-guard.action:limit}") String action,
+      @Value("${dac.cost-guard.cache.max-entries:1000}") int cacheMaxEntries,
+      @Value("${dac.cost-guard.cache.ttl:10m}") Duration cacheTtl) {
+    this.jdbc = jdbc;
+    this.governor = governor;
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+    this.maxTotalCost = maxTotalCost;
+    this.maxRows = maxRows;
+    this.action = Action.valueOf(action.trim().toUpperCase(Locale.ROOT));
+    this.cacheTtl = cacheTtl;
+    this.cache =
+        new LinkedHashMap<>(64, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, CachedEstimate> eldest) {
+            return size() > cacheMaxEntries;
+          }
+        };
+  }
+
+  public double maxTotalCost() {
+    return maxTotalCost;
+  }
+
+  public double maxRows() {
+    return maxRows;
+  }
+
+  /**
+   * Checks {@code sql} against the thresholds.
+   *
+   * @param limit row limit used when the query is rewritten
+   */
+  public Decision check(String sql, long limit) {
+    if (!enabled) {
+      return new Decision(sql, null, false, false);
+    }
+    Estimate estimate = estimate(sql);
+    if (withinBounds(estimate)) {
+      return decided(new Decision(sql, estimate, false, false));
+    }
+    if (action == Action.LIMIT) {
+      String limited = RowLimit.wrap(sql, limit);
+      if (withinBounds(estimate(limited))) {
+        log.info(
+            "Cost guard applied LIMIT {} cost={} rows={}",
+            limit,
+            estimate.totalCost(),
+            estimate.rows());
+        return decided(new Decision(limited, estimate, false, true));
+      }
+    }
+    log.warn("Cost guard rejected query cost={} rows={}", estimate.totalCost(), estimate.rows());
+    return decided(new Decision(sql, estimate, true, false));
+  }
+
+  private boolean withinBounds(Estimate estimate) {
+    return estimate.totalCost() <= maxTotalCost && estimate.rows() <= maxRows;
+  }
+
+  private Decision decided(Decision decision) {
+    String name = decision.rejected() ? "rejected" : decision.limited() ? "limited" : "pass";
+    meterRegistry.counter("dac.query.cost.checks", "decision", name).increment();
+    return decision;
+  }
+
+  private Estimate estimate(String sql) {
+    String key = SqlFingerprint.of(sql);
+    long now = System.nanoTime();
+    synchronized (cache) {
+      CachedEstimate cached = cache.get(key);
+      if (cached != null && cached.expiresAtNanos() - now > 0) {
+        meterRegistry.counter("dac.query.cost.cache", "result", "hit").increment();
+        return cached.estimate();
+      }
+    }
+    meterRegistry.counter("dac.query.cost.cache", "result", "miss").increment();
+    Estimate estimate = explain(sql);
+    synchronized (cache) {
+      cache.put(key, new CachedEstimate(estimate, now + cacheTtl.toNanos()));
+    }
+    return estimate;
+  }
+
+  private Estimate explain(String sql) {
+    String plan =
+        jdbc.execute(
+            (ConnectionCallback<String>)
+                con -> {
+                  try (QueryGovernor.Transaction tx = governor.begin(con);
+                      Statement st = con.createStatement()) {
+                    return tx.run(
+                        st,
+                        () -> {
+                          try (ResultSet rs = st.executeQuery("EXPLAIN (FORMAT JSON) " + sql)) {
+                            return rs.next() ? rs.getString(1) : null;
+                          }
+                        });
+                  }
+                });
+    try {
+      JsonNode top = objectMapper.readTree(plan).path(0).path("Plan");
+      return new Estimate(top.path("Total Cost").asDouble(), top.path("Plan Rows").asDouble());
+    } catch (Exception e) {
+      throw new IllegalStateException("Unreadable EXPLAIN output", e);
+    }
+  }
+}
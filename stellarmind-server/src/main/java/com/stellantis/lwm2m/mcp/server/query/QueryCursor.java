@@ -0,0 +1,143 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Server-side cursor over one query result, used by {@link QueryCursorRegistry}. Holds its own
+ * connection in a {@link QueryGovernor} transaction until it is exhausted, closed or evicted.
+ */
+public final class QueryCursor implements AutoCloseable {
+
+  /**
+   * @param rowCount rows in this page
+   * @param offset rows returned by earlier pages
+   * @param hasMore whether another page exists
+   */
+  public record Page(int rowCount, long offset, boolean hasMore) {}
+
+  private final Connection connection;
+  private final QueryGovernor.Transaction transaction;
+  private final PreparedStatement statement;
+  private final ResultSet resultSet;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private long rowsRead;
+  /** The result set is positioned on a row that has not been returned yet. */
+  private boolean pending;
+
+  private boolean exhausted;
+  private volatile long lastAccessNanos = System.nanoTime();
+
+  private QueryCursor(
+      Connection connection,
+      QueryGovernor.Transaction transaction,
+      PreparedStatement statement,
+      ResultSet rs) {
+    this.connection = connection;
+    this.transaction = transaction;
+    this.statement = statement;
+    this.resultSet = rs;
+  }
+
+  /** Executes {@code sql} on a dedicated connection with a forward-only cursor. */
+  public static QueryCursor open(
+      DataSource dataSource, QueryGovernor governor, String sql, int fetchSize)
+      throws SQLException {
+    Connection con = dataSource.getConnection();
+    QueryGovernor.Transaction tx = null;
+    PreparedStatement ps = null;
+    try {
+      tx = governor.begin(con);
+      ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      ps.setFetchSize(fetchSize);
+      ResultSet rs = tx.run(ps, ps::executeQuery);
+      return new QueryCursor(con, tx, ps, rs);
+    } catch (SQLException | RuntimeException e) {
+      if (ps != null) {
+        ps.close();
+      }
+      release(con, tx);
+      throw e;
+    }
+  }
+
+  /** Hands the next {@code pageSize} rows to {@code rowHandler}. */
+  public Page read(int pageSize, RowCallbackHandler rowHandler) throws SQLException {
+    lock.lock();
+    try {
+      lastAccessNanos = System.nanoTime();
+      return transaction.run(statement, () -> readPage(pageSize, rowHandler));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Page readPage(int pageSize, RowCallbackHandler rowHandler) throws SQLException {
+    if (rowHandler instanceof ResultJsonWriter writer) { // columns even when the page is empty
+      writer.describe(resultSet.getMetaData());
+    }
+    long offset = rowsRead;
+    int rows = 0;
+    while (rows < pageSize && !exhausted) {
+      if (!pending && !resultSet.next()) {
+        exhausted = true;
+        break;
+      }
+      pending = false;
+      rowHandler.processRow(resultSet);
+      rows++;
+    }
+    if (!exhausted && !pending) { // full page: peek so hasMore is exact
+      pending = resultSet.next();
+      exhausted = !pending;
+    }
+    rowsRead += rows;
+    return new Page(rows, offset, pending);
+  }
+
+  long lastAccessNanos() {
+    return lastAccessNanos;
+  }
+
+  /** Locks the cursor for closing unless a page is being read. */
+  boolean tryLock() {
+    return lock.tryLock();
+  }
+
+  void unlock() {
+    lock.unlock();
+  }
+
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      try {
+        resultSet.close();
+        statement.close();
+      } catch (SQLException ignored) {
+        // connection is released below either way
+      }
+      release(connection, transaction);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static void release(Connection con, QueryGovernor.Transaction tx) {
+    if (tx != null) {
+      tx.close();
+    }
+    try {
+      con.close();
+    } catch (SQLException ignored) {
+      // nothing left to release
+    }
+  }
+}
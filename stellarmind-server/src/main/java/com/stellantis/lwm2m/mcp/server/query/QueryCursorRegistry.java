@@ -0,0 +1,153 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import jakarta.annotation.PreDestroy;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Open {@link QueryCursor}s of the {@code executeDataQueryPage} tool, keyed by an opaque
+ * continuation token.
+ *
+ * <p>Every cursor pins a pooled connection, so the registry is bounded by {@code
+ * dac.cursor.max-open}: opening one more evicts the least recently used idle cursor. A slot is
+ * reserved before the query runs, so queries of concurrent calls run in parallel without exceeding
+ * the bound. Cursors idle for longer than {@code dac.cursor.idle-timeout} are closed by a periodic
+ * sweep.
+ */
+@Component
+public class QueryCursorRegistry {
+
+  private static final Logger log = LoggerFactory.getLogger(QueryCursorRegistry.class);
+
+  private final DataSource dataSource;
+  private final QueryGovernor governor;
+  private final int maxOpen;
+  private final Duration idleTimeout;
+  private final Map<String, QueryCursor> cursors = new ConcurrentHashMap<>();
+  private final SecureRandom random = new SecureRandom();
+
+  /** Slots taken by cursors whose query is still running; guarded by this. */
+  private int reserved;
+
+  public QueryCursorRegistry(
+      DataSource dataSource,
+      QueryGovernor governor,
+      @Value("${dac.cursor.max-open:4}") int maxOpen,
+      @Value("${dac.cursor.idle-timeout:2m}") Duration idleTimeout) {
+    this.dataSource = dataSource;
+    this.governor = governor;
+    this.maxOpen = maxOpen;
+    this.idleTimeout = idleTimeout;
+  }
+
+  /**
+   * Executes {@code sql} and registers its cursor.
+   *
+   * @return continuation token of the new cursor
+   */
+  public String open(String sql, int fetchSize) throws SQLException {
+    reserve();
+    QueryCursor cursor;
+    try {
+      cursor = QueryCursor.open(dataSource, governor, sql, fetchSize);
+    } catch (SQLException | RuntimeException e) {
+      unreserve();
+      throw e;
+    }
+    String token = newToken();
+    synchronized (this) {
+      cursors.put(token, cursor);
+      reserved--;
+    }
+    log.info("Query cursor opened token={} open={}", token, cursors.size());
+    return token;
+  }
+
+  private synchronized void reserve() {
+    while (cursors.size() + reserved >= maxOpen) {
+      if (!evictLeastRecentlyUsed()) {
+        throw new IllegalStateException("Too many open query cursors, try again later");
+      }
+    }
+    reserved++;
+  }
+
+  private synchronized void unreserve() {
+    reserved--;
+  }
+
+  public Optional<QueryCursor> get(String token) {
+    return token == null ? Optional.empty() : Optional.ofNullable(cursors.get(token));
+  }
+
+  /** Closes and forgets the cursor; no-op for unknown tokens. */
+  public void close(String token) {
+    QueryCursor cursor = token == null ? null : cursors.remove(token);
+    if (cursor != null) {
+      cursor.close();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${dac.cursor.sweep-interval:30s}")
+  public void evictIdle() {
+    long cutoff = System.nanoTime() - idleTimeout.toNanos();
+    cursors.forEach(
+        (token, cursor) -> {
+          if (cursor.lastAccessNanos() < cutoff && closeIfIdle(token, cursor)) {
+            log.info("Query cursor expired token={}", token);
+          }
+        });
+  }
+
+  @PreDestroy
+  public void closeAll() {
+    cursors.keySet().forEach(this::close);
+  }
+
+  private boolean evictLeastRecentlyUsed() {
+    return cursors.entrySet().stream()
+        .sorted(Comparator.comparingLong(e -> e.getValue().lastAccessNanos()))
+        .anyMatch(
+            e -> {
+              boolean evicted = closeIfIdle(e.getKey(), e.getValue());
+              if (evicted) {
+                log.info("Query cursor evicted token={}", e.getKey());
+              }
+              return evicted;
+            });
+  }
+
+  /** Closes the cursor unless a page is being read from it right now. */
+  private boolean closeIfIdle(String token, QueryCursor cursor) {
+    if (!cursor.tryLock()) {
+      return false;
+    }
+    try {
+      if (!cursors.remove(token, cursor)) {
+        return false;
+      }
+      cursor.close();
+      return true;
+    } finally {
+      cursor.unlock();
+    }
+  }
+
+  private String newToken() {
+    byte[] bytes = new byte[18];
+    random.nextBytes(bytes);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+}
@@ -0,0 +1,58 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs independent tool queries concurrently, each on its own pooled connection.
+ *
+ * <p>The pool is shared by all tool calls and sized by {@code dac.fan-out.max-concurrency}, which
+ * therefore also caps the connections fan-out can hold at once; queries beyond the cap queue. A
+ * single call may submit at most {@code dac.fan-out.max-statements} queries.
+ *
+ * <p>Interrupting the waiting tool thread cancels the queries still queued or running; running ones
+ * are interrupted, which lets the {@link QueryGovernor} watchdog cancel their statements.
+ */
+@Component
+public class QueryFanOut {
+
+  private final ExecutorService executor;
+  private final int maxStatements;
+
+  public QueryFanOut(
+      @Value("${dac.fan-out.max-concurrency:4}") int maxConcurrency,
+      @Value("${dac.fan-out.max-statements:8}") int maxStatements) {
+    CustomizableThreadFactory threads = new CustomizableThreadFactory("dac-fan-out-");
+    threads.setDaemon(true);
+    this.executor = Executors.newFixedThreadPool(maxConcurrency, threads);
+    this.maxStatements = maxStatements;
+  }
+
+  public int maxStatements() {
+    return maxStatements;
+  }
+
+  /** Runs {@code tasks} concurrently and returns their results in order. */
+  public <T> List<T> invokeAll(List<? extends Callable<T>> tasks)
+      throws InterruptedException, ExecutionException {
+    List<T> results = new ArrayList<>(tasks.size());
+    for (Future<T> future : executor.invokeAll(tasks)) {
+      results.add(future.get());
+    }
+    return results;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,195 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resource limits for LLM-generated SQL. Every tool query runs inside a {@link Transaction} that is
+ * {@code READ ONLY} and carries the configured profile as {@code SET LOCAL} settings:
+ *
+ * <ul>
+ *   <li>{@code statement_timeout} ({@code dac.governor.statement-timeout})
+ *   <li>{@code work_mem} ({@code dac.governor.work-mem})
+ *   <li>{@code max_parallel_workers_per_gather} ({@code
+ *       dac.governor.max-parallel-workers-per-gather})
+ * </ul>
+ *
+ * <p>An MCP call that is abandoned (the client disconnects or the call is cancelled) interrupts the
+ * tool thread; the JDBC read does not notice, so a watchdog polls the threads with a running
+ * statement and cancels the statement of any interrupted one.
+ *
+ * <p>Metrics: {@code dac.query.duration{outcome=success|error|timeout|cancelled}} and {@code
+ * dac.query.cancellations{reason=timeout|abandoned}}.
+ */
+@Component
+public class QueryGovernor {
+
+  private static final Logger log = LoggerFactory.getLogger(QueryGovernor.class);
+
+  /** SQLSTATE of a statement cancelled by a timeout or a cancel request. */
+  private static final String QUERY_CANCELED = "57014";
+
+  /**
+   * @param statementTimeout per-statement limit
+   * @param workMem memory per sort/hash operation, in PostgreSQL units (e.g. {@code 32MB})
+   * @param maxParallelWorkersPerGather parallel workers per Gather node
+   */
+  public record Profile(
+      Duration statementTimeout, String workMem, int maxParallelWorkersPerGather) {}
+
+  /** Statement being executed by a tool thread. */
+  private static final class RunningStatement {
+    final Statement statement;
+    volatile boolean cancelled;
+
+    RunningStatement(Statement statement) {
+      this.statement = statement;
+    }
+  }
+
+  /** Unit of work run under {@link Transaction#run}. */
+  @FunctionalInterface
+  public interface StatementWork<T> {
+    T run() throws SQLException;
+  }
+
+  private final Profile profile;
+  private final MeterRegistry meterRegistry;
+  private final Map<Thread, RunningStatement> running = new ConcurrentHashMap<>();
+  private final Counter timeouts;
+  private final Counter abandoned;
+
+  public QueryGovernor(
+      @Value("${dac.governor.statement-timeout:30s}") Duration statementTimeout,
+      @Value("${dac.governor.work-mem:32MB}") String workMem,
+      @Value("${dac.governor.max-parallel-workers-per-gather:2}") int maxParallelWorkers,
+      MeterRegistry meterRegistry) {
+    this.profile = new Profile(statementTimeout, workMem, maxParallelWorkers);
+    this.meterRegistry = meterRegistry;
+    this.timeouts = cancellations(meterRegistry, "timeout");
+    this.abandoned = cancellations(meterRegistry, "abandoned");
+  }
+
+  private static Counter cancellations(MeterRegistry registry, String reason) {
+    return Counter.builder("dac.query.cancellations").tag("reason", reason).register(registry);
+  }
+
+  public Profile profile() {
+    return profile;
+  }
+
+  /**
+   * Starts a governed read-only transaction on {@code con}. Closing it rolls back and restores the
+   * connection's auto-commit and read-only flags.
+   */
+  public Transaction begin(Connection con) throws SQLException {
+    Transaction tx = new Transaction(con);
+    try {
+      con.setReadOnly(true);
+      con.setAutoCommit(false);
+      try (PreparedStatement ps =
+          con.prepareStatement(
+              "SELECT set_config('statement_timeout', ?, true),"
+                  + " set_config('work_mem', ?, true),"
+                  + " set_config('max_parallel_workers_per_gather', ?, true)")) {
+        ps.setString(1, Long.toString(profile.statementTimeout().toMillis()));
+        ps.setString(2, profile.workMem());
+        ps.setString(3, Integer.toString(profile.maxParallelWorkersPerGather()));
+        ps.execute();
+      }
+      return tx;
+    } catch (SQLException | RuntimeException e) {
+      tx.close();
+      throw e;
+    }
+  }
+
+  /** Cancels the running statement of every tool thread that has been interrupted. */
+  @Scheduled(fixedDelayString = "${dac.governor.watchdog-interval:500ms}")
+  public void cancelAbandoned() {
+    running.forEach(
+        (thread, current) -> {
+          if (thread.isInterrupted() && !current.cancelled) {
+            current.cancelled = true;
+            try {
+              current.statement.cancel();
+              abandoned.increment();
+              log.warn("Cancelled statement of abandoned tool call thread={}", thread.getName());
+            } catch (SQLException e) {
+              log.warn("Statement cancel failed thread={}: {}", thread.getName(), e.getMessage());
+            }
+          }
+        });
+  }
+
+  /** A governed transaction; see {@link QueryGovernor#begin}. */
+  public final class Transaction implements AutoCloseable {
+
+    private final Connection con;
+    private final boolean autoCommit;
+    private final boolean readOnly;
+
+    private Transaction(Connection con) throws SQLException {
+      this.con = con;
+      this.autoCommit = con.getAutoCommit();
+      this.readOnly = con.isReadOnly();
+    }
+
+    /**
+     * Runs {@code work} on the current thread with {@code statement} registered for cancellation,
+     * and records its duration.
+     */
+    public <T> T run(Statement statement, StatementWork<T> work) throws SQLException {
+      Thread thread = Thread.currentThread();
+      RunningStatement current = new RunningStatement(statement);
+      running.put(thread, current);
+      long t0 = System.nanoTime();
+      String outcome = "error";
+      try {
+        T result = work.run();
+        outcome = "success";
+        return result;
+      } catch (SQLException e) {
+        if (QUERY_CANCELED.equals(e.getSQLState())) {
+          if (current.cancelled) {
+            outcome = "cancelled";
+          } else {
+            outcome = "timeout";
+            timeouts.increment();
+          }
+        }
+        throw e;
+      } finally {
+        running.remove(thread, current);
+        Timer.builder("dac.query.duration")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(Duration.ofNanos(System.nanoTime() - t0));
+      }
+    }
+
+    @Override
+    public void close() {
+      try {
+        con.rollback();
+        con.setAutoCommit(autoCommit);
+        con.setReadOnly(readOnly);
+      } catch (SQLException e) {
+        log.warn("Could not reset governed connection: {}", e.getMessage());
+      }
+    }
+  }
+}
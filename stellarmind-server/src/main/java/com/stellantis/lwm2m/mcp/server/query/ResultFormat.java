@@ -0,0 +1,24 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import java.util.Locale;
+
+/** Shape of the {@code data} block in query tool responses. */
+public enum ResultFormat {
+  /** One JSON object per row, keyed by column name. */
+  ROWS,
+  /** Column list once, then one JSON array per row; low-cardinality text is dictionary-encoded. */
+  COLUMNAR;
+
+  /** Parses a tool argument; blank means {@link #ROWS}. */
+  public static ResultFormat from(String value) {
+    if (value == null || value.isBlank()) {
+      return ROWS;
+    }
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          "Unknown format '" + value + "', expected rows or columnar", e);
+    }
+  }
+}
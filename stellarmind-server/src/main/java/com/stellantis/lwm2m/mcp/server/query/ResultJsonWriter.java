@@ -0,0 +1,98 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * Writes the rows of a query result into the {@code data} field of a tool response that is being
+ * generated. Call {@link #begin()}, hand every row to {@link #processRow}, then call {@link
+ * #end()}.
+ *
+ * <p>Values are converted the same way {@link org.springframework.jdbc.core.ColumnMapRowMapper}
+ * does.
+ */
+public abstract class ResultJsonWriter implements RowCallbackHandler {
+
+  protected final JsonGenerator generator;
+  protected String[] labels;
+  protected String[] types;
+
+  protected ResultJsonWriter(JsonGenerator generator) {
+    this.generator = generator;
+  }
+
+  public static ResultJsonWriter of(ResultFormat format, JsonGenerator generator) {
+    return format == ResultFormat.COLUMNAR
+        ? new ColumnarJsonWriter(generator)
+        : new RowsJsonWriter(generator);
+  }
+
+  public abstract void begin() throws IOException;
+
+  public abstract void end() throws IOException;
+
+  /**
+   * Takes column names and types from {@code md} unless they are already known; by default they
+   * come from the first row.
+   */
+  public void describe(ResultSetMetaData md) throws SQLException {
+    if (labels != null || md == null) {
+      return;
+    }
+    String[] names = new String[md.getColumnCount()];
+    types = new String[names.length];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = JdbcUtils.lookupColumnName(md, i + 1);
+      types[i] = md.getColumnTypeName(i + 1);
+    }
+    labels = names;
+  }
+
+  @Override
+  public final void processRow(ResultSet rs) throws SQLException {
+    if (labels == null) {
+      describe(rs.getMetaData());
+    }
+    try {
+      row(rs);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  protected abstract void row(ResultSet rs) throws SQLException, IOException;
+
+  /** {@code "data": [ {"col": value, ...}, ... ]} */
+  private static final class RowsJsonWriter extends ResultJsonWriter {
+
+    RowsJsonWriter(JsonGenerator generator) {
+      super(generator);
+    }
+
+    @Override
+    public void begin() throws IOException {
+      generator.writeArrayFieldStart("data");
+    }
+
+    @Override
+    protected void row(ResultSet rs) throws SQLException, IOException {
+      generator.writeStartObject();
+      for (int i = 0; i < labels.length; i++) {
+        generator.writeFieldName(labels[i]);
+        generator.writeObject(JdbcUtils.getResultSetValue(rs, i + 1));
+      }
+      generator.writeEndObject();
+    }
+
+    @Override
+    public void end() throws IOException {
+      generator.writeEndArray();
+    }
+  }
+}
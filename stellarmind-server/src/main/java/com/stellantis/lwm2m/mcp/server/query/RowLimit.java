@@ -0,0 +1,167 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.Fetch;
+import net.sf.jsqlparser.statement.select.Limit;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import net.sf.jsqlparser.statement.select.SetOperationList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enforces a row limit on the outermost SELECT of a query by rewriting its AST, so the bound is
+ * applied (and planned for) by the database rather than left to the SQL generator.
+ *
+ * <ul>
+ *   <li>A missing, larger or non-constant LIMIT (or FETCH FIRST) is replaced; a smaller constant
+ *       one is kept.
+ *   <li>UNION / INTERSECT / EXCEPT get the LIMIT on the whole set operation; CTE queries on the
+ *       main query. Limits inside CTEs and subqueries are not touched.
+ *   <li>A pure aggregate (every select item a bare aggregate call, no GROUP BY) returns a single
+ *       row and is left alone. An aggregate inside another expression, e.g. a set-returning {@code
+ *       unnest(array_agg(x))}, does not qualify.
+ *   <li>SQL the parser does not understand is wrapped as {@code SELECT * FROM (...) LIMIT n}.
+ * </ul>
+ */
+public final class RowLimit {
+
+  private static final Logger log = LoggerFactory.getLogger(RowLimit.class);
+
+  private static final Set<String> AGGREGATES =
+      Set.of(
+          "count",
+          "sum",
+          "avg",
+          "min",
+          "max",
+          "array_agg",
+          "string_agg",
+          "json_agg",
+          "jsonb_agg",
+          "json_object_agg",
+          "jsonb_object_agg",
+          "bool_and",
+          "bool_or",
+          "every",
+          "bit_and",
+          "bit_or",
+          "stddev",
+          "stddev_pop",
+          "stddev_samp",
+          "variance",
+          "var_pop",
+          "var_samp",
+          "percentile_cont",
+          "percentile_disc",
+          "mode",
+          "corr",
+          "covar_pop",
+          "covar_samp");
+
+  /**
+   * @param sql SQL to execute
+   * @param rewritten whether {@code sql} differs from the input
+   */
+  public record Bounded(String sql, boolean rewritten) {}
+
+  private RowLimit() {}
+
+  /** Bounds a read-only query (already checked by {@code SqlSafety}) to {@code limit} rows. */
+  public static Bounded apply(String sql, long limit) {
+    Statement statement;
+    try {
+      statement = CCJSqlParserUtil.parse(sql);
+    } catch (JSQLParserException e) {
+      log.debug("Unparseable SQL, wrapping it in a LIMIT: {}", e.getMessage());
+      return new Bounded(wrap(sql, limit), true);
+    }
+    if (!(statement instanceof Select select) || isPureAggregate(select)) {
+      return new Bounded(sql, false);
+    }
+    Select target = limitHolder(select);
+    if (isBounded(target, limit)) {
+      return new Bounded(sql, false);
+    }
+    target.setFetch(null);
+    Limit rowLimit = target.getLimit() != null ? target.getLimit() : new Limit();
+    rowLimit.setRowCount(new LongValue(limit));
+    target.setLimit(rowLimit);
+    return new Bounded(select.toString(), true);
+  }
+
+  /**
+   * {@code SELECT * FROM (sql) AS limited LIMIT n}; the line breaks keep a trailing {@code --}
+   * comment from swallowing the closing parenthesis.
+   */
+  static String wrap(String sql, long limit) {
+    return "SELECT * FROM (\n" + stripTrailingSemicolons(sql) + "\n) AS limited LIMIT " + limit;
+  }
+
+  /**
+   * The node whose LIMIT applies to the whole result. For a set operation the parser may attach a
+   * trailing LIMIT to the last branch; textually that is the same clause, so it is rewritten in
+   * place instead of adding a second one.
+   */
+  private static Select limitHolder(Select select) {
+    if (select instanceof SetOperationList set
+        && set.getLimit() == null
+        && set.getFetch() == null) {
+      List<Select> branches = set.getSelects();
+      Select last = branches.get(branches.size() - 1);
+      if (last instanceof PlainSelect && (last.getLimit() != null || last.getFetch() != null)) {
+        return last;
+      }
+    }
+    return select;
+  }
+
+  private static boolean isBounded(Select select, long limit) {
+    Limit rowLimit = select.getLimit();
+    if (rowLimit != null && rowLimit.getRowCount() instanceof LongValue rows) {
+      return rows.getValue() <= limit;
+    }
+    Fetch fetch = select.getFetch();
+    return rowLimit == null
+        && fetch != null
+        && fetch.getExpression() instanceof LongValue rows
+        && rows.getValue() <= limit;
+  }
+
+  private static boolean isPureAggregate(Select select) {
+    if (!(select instanceof PlainSelect plain)
+        || plain.getGroupBy() != null
+        || plain.getSelectItems() == null) {
+      return false;
+    }
+    for (SelectItem<?> item : plain.getSelectItems()) {
+      if (!(item.getExpression() instanceof Function function) || !isAggregate(function)) {
+        return false;
+      }
+    }
+    return !plain.getSelectItems().isEmpty();
+  }
+
+  /** Window functions are not {@link Function}s, so an aggregate with OVER never matches. */
+  private static boolean isAggregate(Function function) {
+    String name = function.getName();
+    return name != null
+        && AGGREGATES.contains(name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT));
+  }
+
+  private static String stripTrailingSemicolons(String sql) {
+    int end = sql.length();
+    while (end > 0 && (sql.charAt(end - 1) == ';' || Character.isWhitespace(sql.charAt(end - 1)))) {
+      end--;
+    }
+    return sql.substring(0, end);
+  }
+}
@@ -0,0 +1,189 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import com.stellantis.lwm2m.mcp.server.service.DatabaseService.StreamedResult;
+import jakarta.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executes the branches of a {@link UnionAllSplit} concurrently, each on its own pooled connection
+ * in its own {@link QueryGovernor} transaction, and merges their rows into one result stream as
+ * they arrive. PostgreSQL would otherwise run the branches one after the other in a single
+ * backend.
+ *
+ * <p>Rows are handed to the writer one at a time under a lock, so the writer never sees two
+ * threads. Column names and types come from the first branch, as they would for the union; its
+ * statement is described before any row is written. Once the combined limit is reached the
+ * remaining branches stop reading. Row order across branches is arrival order, which {@code UNION
+ * ALL} does not define anyway, and each branch reads its own snapshot.
+ *
+ * <p>The pool ({@code dac.union-split.max-concurrency}) is separate from {@link QueryFanOut}, so a
+ * fanned-out query can split without waiting on its own pool.
+ */
+@Component
+public class UnionAllExecutor {
+
+  private final JdbcTemplate jdbc;
+  private final QueryGovernor governor;
+  private final boolean enabled;
+  private final ExecutorService executor;
+
+  public UnionAllExecutor(
+      JdbcTemplate jdbc,
+      QueryGovernor governor,
+      @Value("${dac.union-split.enabled:true}") boolean enabled,
+      @Value("${dac.union-split.max-concurrency:4}") int maxConcurrency) {
+    this.jdbc = jdbc;
+    this.governor = governor;
+    this.enabled = enabled;
+    CustomizableThreadFactory threads = new CustomizableThreadFactory("dac-union-");
+    threads.setDaemon(true);
+    this.executor = Executors.newFixedThreadPool(maxConcurrency, threads);
+  }
+
+  /** The split of {@code sql}, or empty when it does not qualify or splitting is disabled. */
+  public Optional<UnionAllSplit> split(String sql) {
+    return enabled ? UnionAllSplit.of(sql) : Optional.empty();
+  }
+
+  /**
+   * Streams the merged branches of {@code split} into {@code writer}, with the same contract as
+   * {@link com.stellantis.lwm2m.mcp.server.service.DatabaseService#streamGeneratedSql}.
+   */
+  public StreamedResult stream(
+      UnionAllSplit split, int maxRows, int fetchSize, ResultJsonWriter writer) {
+    long limit = split.limit() == null ? Long.MAX_VALUE : split.limit();
+    Merge merge = new Merge(writer, maxRows, limit);
+    List<Callable<Void>> tasks = new ArrayList<>(split.branches().size());
+    for (int i = 0; i < split.branches().size(); i++) {
+      String sql = split.branches().get(i);
+      boolean first = i == 0;
+      tasks.add(() -> branch(sql, first, maxRows, fetchSize, merge));
+    }
+    try {
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Query execution was cancelled", e);
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof RuntimeException cause
+          ? cause
+          : new IllegalStateException(e.getCause());
+    }
+    return new StreamedResult(merge.rows, merge.truncated);
+  }
+
+  private Void branch(String sql, boolean first, int maxRows, int fetchSize, Merge merge) {
+    try {
+      return jdbc.execute(
+          (ConnectionCallback<Void>)
+              con -> {
+                try (QueryGovernor.Transaction tx = governor.begin(con);
+                    PreparedStatement ps =
+                        con.prepareStatement(
+                            sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                  ps.setFetchSize(fetchSize);
+                  ps.setMaxRows(maxRows + 1);
+                  if (first) {
+                    merge.describe(ps.getMetaData());
+                  }
+                  return tx.run(
+                      ps,
+                      () -> {
+                        try (ResultSet rs = ps.executeQuery()) {
+                          merge.awaitDescribed();
+                          while (rs.next() && merge.offer(rs)) {
+                            // rows are written by offer
+                          }
+                        }
+                        return null;
+                      });
+                }
+              });
+    } catch (RuntimeException e) {
+      merge.abort();
+      throw e;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /** Shared sink of the branches; {@link #offer} serializes the writer. */
+  private static final class Merge {
+    private final ResultJsonWriter writer;
+    private final int maxRows;
+    private final long limit;
+    private final CountDownLatch described = new CountDownLatch(1);
+    private int rows;
+    private boolean truncated;
+    private volatile boolean done;
+
+    Merge(ResultJsonWriter writer, int maxRows, long limit) {
+      this.writer = writer;
+      this.maxRows = maxRows;
+      this.limit = limit;
+    }
+
+    synchronized void describe(ResultSetMetaData md) throws SQLException {
+      try {
+        writer.describe(md);
+      } finally {
+        described.countDown();
+      }
+    }
+
+    void awaitDescribed() throws SQLException {
+      try {
+        described.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SQLException("Interrupted while waiting for the first branch", e);
+      }
+    }
+
+    /** Writes the current row of {@code rs}; false once the branches should stop reading. */
+    synchronized boolean offer(ResultSet rs) throws SQLException {
+      if (done) {
+        return false;
+      }
+      if (rows >= limit) {
+        done = true;
+        return false;
+      }
+      if (rows >= maxRows) {
+        truncated = true;
+        done = true;
+        return false;
+      }
+      writer.processRow(rs);
+      rows++;
+      return true;
+    }
+
+    void abort() {
+      done = true;
+      described.countDown();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.Limit;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SetOperation;
+import net.sf.jsqlparser.statement.select.SetOperationList;
+import net.sf.jsqlparser.statement.select.UnionOp;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+
+/**
+ * A top-level {@code UNION ALL} whose branches read disjoint schemas (e.g. one branch on {@code
+ * bs}, one on {@code gtw}), split into independently executable branches.
+ *
+ * <p>Only plain {@code UNION ALL} chains qualify: no CTEs, no ORDER BY or OFFSET over the union,
+ * and every table schema-qualified so the schemas are known. A constant LIMIT over the union
+ * (including the one {@link RowLimit} adds) is kept as {@link #limit} and pushed down into every
+ * branch, since no branch needs to return more rows than the union.
+ *
+ * @param branches SQL of each branch, in union order
+ * @param limit LIMIT of the whole union, or null
+ */
+public record UnionAllSplit(List<String> branches, Long limit) {
+
+  /** Splits {@code sql}, or empty when it is not a qualifying {@code UNION ALL}. */
+  public static Optional<UnionAllSplit> of(String sql) {
+    Statement statement;
+    try {
+      statement = CCJSqlParserUtil.parse(sql);
+    } catch (JSQLParserException e) {
+      return Optional.empty();
+    }
+    if (!(statement instanceof SetOperationList union) || !isPlainUnionAll(union)) {
+      return Optional.empty();
+    }
+    Limit unionLimit = union.getLimit();
+    Select last = union.getSelects().get(union.getSelects().size() - 1);
+    if (last instanceof PlainSelect plain && plain.getLimit() != null) {
+      // The parser attaches a trailing LIMIT to the last branch (see RowLimit#limitHolder);
+      // textually it is the LIMIT of the whole union
+      if (unionLimit != null) {
+        return Optional.empty();
+      }
+      unionLimit = plain.getLimit();
+      plain.setLimit(null);
+    }
+    Long limit = null;
+    if (unionLimit != null) {
+      if (unionLimit.getOffset() != null || !(unionLimit.getRowCount() instanceof LongValue rows)) {
+        return Optional.empty();
+      }
+      limit = rows.getValue();
+    }
+
+    Set<String> seenSchemas = new HashSet<>();
+    List<String> branches = new ArrayList<>(union.getSelects().size());
+    for (Select branch : union.getSelects()) {
+      Set<String> schemas = schemas(branch);
+      if (schemas.isEmpty() || schemas.stream().anyMatch(s -> !seenSchemas.add(s))) {
+        return Optional.empty();
+      }
+      String branchSql = branch.toString();
+      branches.add(limit == null ? branchSql : RowLimit.apply(branchSql, limit).sql());
+    }
+    return Optional.of(new UnionAllSplit(List.copyOf(branches), limit));
+  }
+
+  private static boolean isPlainUnionAll(SetOperationList union) {
+    if (union.getSelects().size() < 2
+        || (union.getWithItemsList() != null && !union.getWithItemsList().isEmpty())
+        || (union.getOrderByElements() != null && !union.getOrderByElements().isEmpty())
+        || union.getOffset() != null
+        || union.getFetch() != null) {
+      return false;
+    }
+    for (SetOperation operation : union.getOperations()) {
+      if (!(operation instanceof UnionOp op) || !op.isAll()) {
+        return false;
+      }
+    }
+    // A trailing ORDER BY/OFFSET the parser attached to the last branch belongs to the whole union
+    Select last = union.getSelects().get(union.getSelects().size() - 1);
+    return !(last instanceof PlainSelect plain)
+        || (plain.getOffset() == null
+            && plain.getFetch() == null
+            && (plain.getOrderByElements() == null || plain.getOrderByElements().isEmpty()));
+  }
+
+  /** Schemas of the tables {@code branch} reads; empty if any table is not schema-qualified. */
+  private static Set<String> schemas(Select branch) {
+    Set<String> schemas = new HashSet<>();
+    for (String table : new TablesNamesFinder().getTables((Statement) branch)) {
+      String[] parts = table.split("\\.");
+      if (parts.length < 2) {
+        return Set.of();
+      }
+      schemas.add(parts[parts.length - 2].replace("\"", "").toLowerCase(Locale.ROOT));
+    }
+    return schemas;
+  }
+}
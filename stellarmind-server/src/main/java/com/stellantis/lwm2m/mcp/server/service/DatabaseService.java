@@ -2,6 +2,7 @@ package com.stellantis.lwm2m.mcp.server.service;
 
 import java.util.List;
 import java.util.Map;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
 /**
  * Database service abstraction for: 1) Retrieving relevant schema embeddings from pgvector based on
@@ -17,4 +18,24 @@ public interface DatabaseService {
    * @return list of rows as key-value pairs
    */
   List<Map<String, Object>> executeGeneratedSql(String sql);
+
+  /**
+   * Executes an SQL statement on a forward-only cursor and hands each row to {@code rowHandler} as
+   * it is read. At most {@code maxRows} rows are handed over; one more row is fetched to detect
+   * truncation, the rest of the result is never read.
+   *
+   * @param sql SQL statement to execute
+   * @param maxRows rows handed to {@code rowHandler} at most
+   * @param fetchSize rows per round trip to the database
+   * @param rowHandler called once per row, with the result set positioned on it
+   * @return number of rows handled and whether the result was cut at {@code maxRows}
+   */
+  StreamedResult streamGeneratedSql(
+      String sql, int maxRows, int fetchSize, RowCallbackHandler rowHandler);
+
+  /**
+   * @param rowCount rows handed to the row handler
+   * @param truncated whether the query had more than {@code maxRows} rows
+   */
+  record StreamedResult(int rowCount, boolean truncated) {}
 }
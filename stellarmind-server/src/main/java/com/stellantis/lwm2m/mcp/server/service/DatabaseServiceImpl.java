@@ -1,12 +1,21 @@
 package com.stellantis.lwm2m.mcp.server.service;
 
 import com.stellantis.lwm2m.mcp.server.execption.SqlGenerationException;
+import com.stellantis.lwm2m.mcp.server.query.QueryGovernor;
+import com.stellantis.lwm2m.mcp.server.query.ResultJsonWriter;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -18,7 +27,7 @@ import org.springframework.util.StringUtils;
  *       repository.
  *   <li>Generates SQL via a configured {@link } (LLM model is picked from application.yml).
  *   <li>Enforces read-only SQL (SELECT/WITH only) before execution.
- *   <li>Executes SQL using Spring {@link JdbcTemplate}.
+ *   <li>Executes SQL using Spring {@link JdbcTemplate}, inside a {@link QueryGovernor} transaction.
  * </ul>
  */
 @Service
@@ -26,11 +35,16 @@ public class DatabaseServiceImpl implements DatabaseService {
 
   private static final Logger log = LoggerFactory.getLogger(DatabaseServiceImpl.class);
 
+  private static final RowMapperResultSetExtractor<Map<String, Object>> ROWS_AS_MAPS =
+      new RowMapperResultSetExtractor<>(new ColumnMapRowMapper());
+
   private final JdbcTemplate jdbc;
+  private final QueryGovernor governor;
 
   @Autowired
-  public DatabaseServiceImpl(JdbcTemplate jdbc) {
+  public DatabaseServiceImpl(JdbcTemplate jdbc, QueryGovernor governor) {
     this.jdbc = jdbc;
+    this.governor = governor;
   }
 
   /** Executes an LLM-generated (already validated) SQL query. */
@@ -40,7 +54,63 @@ public class DatabaseServiceImpl implements DatabaseService {
       throw new SqlGenerationException("SQL must not be empty");
     }
     try {
-      return jdbc.queryForList(sql);
+      return jdbc.execute(
+          (ConnectionCallback<List<Map<String, Object>>>)
+              con -> {
+                try (QueryGovernor.Transaction tx = governor.begin(con);
+                    Statement st = con.createStatement()) {
+                  return tx.run(
+                      st,
+                      () -> {
+                        try (ResultSet rs = st.executeQuery(sql)) {
+                          return ROWS_AS_MAPS.extractData(rs);
+                        }
+                      });
+                }
+              });
+    } catch (Exception e) {
+      log.error("SQL execution failed: {}", sql, e);
+      throw new SqlGenerationException("SQL execution failed", e);
+    }
+  }
+
+  /**
+   * Streams the result through a forward-only cursor inside a governed read-only transaction
+   * (PgJDBC only honours the fetch size inside a transaction).
+   */
+  @Override
+  public StreamedResult streamGeneratedSql(
+      String sql, int maxRows, int fetchSize, RowCallbackHandler rowHandler) {
+    if (!StringUtils.hasText(sql)) {
+      throw new SqlGenerationException("SQL must not be empty");
+    }
+    try {
+      return jdbc.execute(
+          (ConnectionCallback<StreamedResult>)
+              con -> {
+                try (QueryGovernor.Transaction tx = governor.begin(con);
+                    PreparedStatement ps =
+                        con.prepareStatement(
+                            sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                  ps.setFetchSize(fetchSize);
+                  ps.setMaxRows(maxRows + 1);
+                  return tx.run(
+                      ps,
+                      () -> {
+                        try (ResultSet rs = ps.executeQuery()) {
+                          if (rowHandler instanceof ResultJsonWriter writer) {
+                            writer.describe(rs.getMetaData()); // columns even without rows
+                          }
+                          int rows = 0;
+                          while (rows < maxRows && rs.next()) {
+                            rowHandler.processRow(rs);
+                            rows++;
+                          }
+                          return new StreamedResult(rows, rows == maxRows && rs.next());
+                        }
+                      });
+                }
+              });
     } catch (Exception e) {
       log.error("SQL execution failed: {}", sql, e);
       throw new SqlGenerationException("SQL execution failed", e);
@@ -0,0 +1,277 @@
+package com.stellantis.lwm2m.mcp.server.service;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stellantis.lwm2m.mcp.sql.SqlSafety;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Submits one DM operation per target from a payload template.
+ *
+ * <p>Targets are either an explicit list or the rows of a read-only selector over the tables in
+ * {@code dm.bulk.selector-tables}. Selector rows are read up front by one short query capped at
+ * {@code dm.bulk.max-targets}, so no connection is held while operations are submitted. In the
+ * template, {@code {{target}}} is the list entry (or the first selector column) and {@code
+ * {{column}}} any selector column; values are JSON-escaped, so placeholders go inside JSON
+ * strings.
+ *
+ * <p>Operations go out through the non-blocking {@link DmOperationClient}, at most {@code
+ * dm.bulk.concurrency} at a time and at most {@code dm.bulk.rate-per-second} started per second. A
+ * failed target is recorded and does not stop the others.
+ */
+@Service
+public class DmBulkService {
+
+  private static final Logger log = LoggerFactory.getLogger(DmBulkService.class);
+
+  private static final Pattern PLACEHOLDER =
+      Pattern.compile("\\{\\{\\s*([A-Za-z_][A-Za-z0-9_]*)\\s*\\}\\}");
+  private static final int MAX_REPORTED_FAILURES = 20;
+  private static final int MAX_ERROR_MESSAGE_LENGTH = 200;
+
+  /**
+   * @param total number of targets
+   * @param rows one row per target; {@code target} holds its identifier
+   */
+  public record Targets(long total, Flux<Map<String, Object>> rows) {}
+
+  /**
+   * @param target target identifier
+   * @param success whether the operation was accepted
+   * @param error failure reason, null on success
+   */
+  public record TargetOutcome(String target, boolean success, String error) {}
+
+  /**
+   * @param total targets submitted
+   * @param succeeded operations accepted
+   * @param failed operations that failed
+   * @param failures first failures, at most {@value #MAX_REPORTED_FAILURES}
+   */
+  public record BulkResult(long total, long succeeded, long failed, List<TargetOutcome> failures) {}
+
+  private final DmOperationClient operationClient;
+  private final DatabaseService databaseService;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final int concurrency;
+  private final Duration submitInterval;
+  private final int maxTargets;
+  private final Set<String> selectorTables;
+
+  public DmBulkService(
+      DmOperationClient operationClient,
+      DatabaseService databaseService,
+      @Value("${dm.bulk.concurrency:8}") int concurrency,
+      @Value("${dm.bulk.rate-per-second:20}") int ratePerSecond,
+      @Value("${dm.bulk.max-targets:10000}") int maxTargets,
+      @Value("${dm.bulk.selector-tables:gtw.vehicle,gtw.ecu}") String selectorTables) {
+    this.operationClient = operationClient;
+    this.databaseService = databaseService;
+    this.concurrency = concurrency;
+    this.submitInterval =
+        ratePerSecond > 0 ? Duration.ofNanos(1_000_000_000L / ratePerSecond) : Duration.ZERO;
+    this.maxTargets = maxTargets;
+    this.selectorTables =
+        Stream.of(selectorTables.split(","))
+            .map(t -> t.trim().toLowerCase(Locale.ROOT))
+            .filter(t -> !t.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+  }
+
+  /**
+   * Resolves the targets of a bulk request: exactly one of {@code targets} and {@code selectorSql}
+   * must be given.
+   *
+   * @throws IllegalArgumentException if the request is invalid or has too many targets
+   */
+  public Targets targets(List<String> targets, String selectorSql) {
+    boolean hasList = targets != null && !targets.isEmpty();
+    boolean hasSelector = selectorSql != null && !selectorSql.isBlank();
+    if (hasList == hasSelector) {
+      throw new IllegalArgumentException("Give either a list of targets or a target query");
+    }
+    if (hasList) {
+      checkTargetCount(targets.size());
+      return new Targets(targets.size(), Flux.fromIterable(targets).map(DmBulkService::targetRow));
+    }
+    List<Map<String, Object>> rows = selectorRows(validateSelector(selectorSql));
+    return new Targets(rows.size(), Flux.fromIterable(rows).map(DmBulkService::selectorRow));
+  }
+
+  /**
+   * Checks that {@code template} renders to JSON. Values are rendered as JSON string content, so
+   * the check substitutes a string sample and a placeholder outside quotes fails it.
+   *
+   * @throws IllegalArgumentException otherwise
+   */
+  public void validateTemplate(String template) {
+    if (template == null || template.isBlank()) {
+      throw new IllegalArgumentException("Payload template is empty");
+    }
+    try {
+      objectMapper.readTree(PLACEHOLDER.matcher(template).replaceAll("sample"));
+    } catch (Exception e) {
+      throw new IllegalArgumentException(
+          "Payload template is not valid JSON (placeholders must be inside JSON strings)");
+    }
+  }
+
+  /** Submits one operation per target and emits the aggregated outcome. */
+  public Mono<BulkResult> submit(String template, Targets targets) {
+    return submit(template, targets, outcome -> {});
+  }
+
+  /** As {@link #submit(String, Targets)}, reporting each target outcome as it completes. */
+  public Mono<BulkResult> submit(
+      String template, Targets targets, Consumer<TargetOutcome> onOutcome) {
+    Flux<Map<String, Object>> rows =
+        submitInterval.isZero() ? targets.rows() : targets.rows().delayElements(submitInterval);
+    return rows.flatMap(row -> submitOne(template, row), concurrency)
+        .doOnNext(onOutcome)
+        .reduceWith(Tally::new, Tally::add)
+        .map(Tally::result);
+  }
+
+  private Mono<TargetOutcome> submitOne(String template, Map<String, Object> row) {
+    String target = String.valueOf(row.get("target"));
+    String payload;
+    try {
+      payload = render(template, row);
+    } catch (IllegalArgumentException e) {
+      return Mono.just(new TargetOutcome(target, false, e.getMessage()));
+    }
+    return operationClient
+        .createOperation(payload)
+        .thenReturn(new TargetOutcome(target, true, null))
+        .onErrorResume(
+            e -> {
+              log.warn("DM operation failed target={}: {}", target, e.getMessage());
+              return Mono.just(new TargetOutcome(target, false, truncate(e.getMessage())));
+            });
+  }
+
+  /** Replaces every placeholder of {@code template} with the JSON-escaped row value. */
+  private String render(String template, Map<String, Object> row) {
+    Matcher m = PLACEHOLDER.matcher(template);
+    StringBuilder payload = new StringBuilder(template.length() + 64);
+    while (m.find()) {
+      String name = m.group(1);
+      if (!row.containsKey(name)) {
+        throw new IllegalArgumentException("Unknown placeholder {{" + name + "}}");
+      }
+      Object value = row.get(name);
+      String escaped =
+          value == null
+              ? ""
+              : new String(JsonStringEncoder.getInstance().quoteAsString(value.toString()));
+      m.appendReplacement(payload, Matcher.quoteReplacement(escaped));
+    }
+    m.appendTail(payload);
+    return payload.toString();
+  }
+
+  private String validateSelector(String selectorSql) {
+    if (!SqlSafety.isReadOnly(selectorSql)) {
+      throw new IllegalArgumentException("Target query must be a single read-only query");
+    }
+    String sql = selectorSql.strip().replaceAll("[;\\s]+$", "");
+    Set<String> tables;
+    try {
+      tables = TablesNamesFinder.findTables(sql);
+    } catch (JSQLParserException e) {
+      throw new IllegalArgumentException("Target query could not be parsed");
+    }
+    for (String table : tables) {
+      if (!selectorTables.contains(table.replace("\"", "").toLowerCase(Locale.ROOT))) {
+        throw new IllegalArgumentException(
+            "Target query may only read " + String.join(", ", new TreeSet<>(selectorTables)));
+      }
+    }
+    return sql;
+  }
+
+  private void checkTargetCount(long total) {
+    if (total > maxTargets) {
+      throw new IllegalArgumentException(
+          String.format("%d targets selected, at most %d per bulk operation", total, maxTargets));
+    }
+  }
+
+  /**
+   * Reads all selector rows in one governed query before anything is submitted, one row past
+   * {@code dm.bulk.max-targets} to detect an oversized selection.
+   */
+  private List<Map<String, Object>> selectorRows(String sql) {
+    List<Map<String, Object>> rows =
+        databaseService.executeGeneratedSql(
+            "SELECT * FROM (\n" + sql + "\n) AS selector LIMIT " + (maxTargets + 1L));
+    if (rows.size() > maxTargets) {
+      throw new IllegalArgumentException(
+          String.format("More than %d targets selected", maxTargets));
+    }
+    return rows;
+  }
+
+  private static Map<String, Object> targetRow(String target) {
+    Map<String, Object> row = new LinkedCaseInsensitiveMap<>();
+    row.put("target", target);
+    return row;
+  }
+
+  private static Map<String, Object> selectorRow(Map<String, Object> columns) {
+    if (!columns.containsKey("target") && !columns.isEmpty()) {
+      columns.put("target", columns.values().iterator().next());
+    }
+    return columns;
+  }
+
+  private static String truncate(String message) {
+    if (message == null || message.length() <= MAX_ERROR_MESSAGE_LENGTH) {
+      return message;
+    }
+    return message.substring(0, MAX_ERROR_MESSAGE_LENGTH) + "...";
+  }
+
+  /** Running counts of a bulk submission; used by a single reducer. */
+  private static final class Tally {
+    private long succeeded;
+    private long failed;
+    private final List<TargetOutcome> failures = new ArrayList<>();
+
+    Tally add(TargetOutcome outcome) {
+      if (outcome.success()) {
+        succeeded++;
+      } else {
+        failed++;
+        if (failures.size() < MAX_REPORTED_FAILURES) {
+          failures.add(outcome);
+        }
+      }
+      return this;
+    }
+
+    BulkResult result() {
+      return new BulkResult(succeeded + failed, succeeded, failed, List.copyOf(failures));
+    }
+  }
+}
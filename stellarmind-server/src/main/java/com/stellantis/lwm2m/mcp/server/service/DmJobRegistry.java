@@ -0,0 +1,242 @@
+package com.stellantis.lwm2m.mcp.server.service;
+
+import com.stellantis.lwm2m.mcp.server.service.DmBulkService.TargetOutcome;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Background DM operation jobs, so a large submission does not hold an MCP tool call open.
+ *
+ * <p>Jobs run on a bounded pool ({@code dm.jobs.workers} threads, at most {@code
+ * dm.jobs.queue-capacity} waiting); submitting beyond that is refused. A job that runs to the end
+ * is {@code SUCCEEDED} when no target failed, {@code FAILED} when none succeeded and {@code
+ * PARTIAL} otherwise; a job whose work throws is {@code FAILED}. Progress and per-target
+ * outcomes are kept in memory, at most {@code dm.jobs.max-results-per-job} outcomes per job.
+ * Finished jobs are evicted after {@code dm.jobs.retention}, or earlier (oldest first) when more
+ * than {@code dm.jobs.max-jobs} jobs are registered.
+ */
+@Service
+public class DmJobRegistry {
+
+  private static final Logger log = LoggerFactory.getLogger(DmJobRegistry.class);
+
+  public enum Status {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    PARTIAL,
+    FAILED
+  }
+
+  /**
+   * Work of a job; reports each target outcome as it is known and returns the response body to
+   * keep on the job (the DM API response of a single operation), or null.
+   */
+  @FunctionalInterface
+  public interface JobWork {
+    String run(Consumer<TargetOutcome> onOutcome) throws Exception;
+  }
+
+  /**
+   * Snapshot of a job.
+   *
+   * @param response response body returned by the work, null if none
+   * @param results per-target outcomes from {@code resultsOffset}, in completion order
+   * @param resultsTruncated whether outcomes beyond the per-job limit were dropped
+   */
+  public record JobView(
+      String jobId,
+      String kind,
+      Status status,
+      long total,
+      long processed,
+      long succeeded,
+      long failed,
+      String createdAt,
+      String finishedAt,
+      String error,
+      String response,
+      int resultsOffset,
+      List<TargetOutcome> results,
+      boolean resultsTruncated) {}
+
+  private final class Job {
+    final String id = UUID.randomUUID().toString();
+    final String kind;
+    final long total;
+    final Instant createdAt = Instant.now();
+    final AtomicLong succeeded = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    final List<TargetOutcome> results = new ArrayList<>(); // guarded by itself
+    volatile Status status = Status.QUEUED;
+    volatile Instant finishedAt;
+    volatile String error;
+    volatile String response;
+    volatile boolean resultsTruncated;
+
+    Job(String kind, long total) {
+      this.kind = kind;
+      this.total = total;
+    }
+
+    void record(TargetOutcome outcome) {
+      (outcome.success() ? succeeded : failed).incrementAndGet();
+      synchronized (results) {
+        if (results.size() < maxResultsPerJob) {
+          results.add(outcome);
+        } else {
+          resultsTruncated = true;
+        }
+      }
+    }
+
+    JobView view(int offset, int limit) {
+      List<TargetOutcome> page;
+      synchronized (results) {
+        int from = Math.min(Math.max(offset, 0), results.size());
+        page = List.copyOf(results.subList(from, Math.min(from + limit, results.size())));
+      }
+      // finishedAt is written after the final status, so read it first
+      Instant finished = finishedAt;
+      Status current = status;
+      long ok = succeeded.get();
+      long ko = failed.get();
+      return new JobView(
+          id,
+          kind,
+          current,
+          total,
+          ok + ko,
+          ok,
+          ko,
+          createdAt.toString(),
+          finished == null ? null : finished.toString(),
+          error,
+          response,
+          Math.max(offset, 0),
+          page,
+          resultsTruncated);
+    }
+  }
+
+  private final ThreadPoolExecutor executor;
+  private final int maxJobs;
+  private final int maxResultsPerJob;
+  private final Duration retention;
+  private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+  public DmJobRegistry(
+      @Value("${dm.jobs.workers:2}") int workers,
+      @Value("${dm.jobs.queue-capacity:16}") int queueCapacity,
+      @Value("${dm.jobs.max-jobs:200}") int maxJobs,
+      @Value("${dm.jobs.max-results-per-job:10000}") int maxResultsPerJob,
+      @Value("${dm.jobs.retention:1h}") Duration retention) {
+    this.executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("dm-job-"));
+    this.maxJobs = maxJobs;
+    this.maxResultsPerJob = maxResultsPerJob;
+    this.retention = retention;
+  }
+
+  /**
+   * Queues {@code work} as a new job.
+   *
+   * @param kind job type reported back to the caller
+   * @param total number of targets
+   * @return job id
+   * @throws IllegalStateException if the registry or the queue is full
+   */
+  public synchronized String submit(String kind, long total, JobWork work) {
+    if (jobs.size() >= maxJobs && !evictOldestFinished()) {
+      throw new IllegalStateException("Too many DM jobs, try again later");
+    }
+    Job job = new Job(kind, total);
+    jobs.put(job.id, job);
+    try {
+      executor.execute(() -> run(job, work));
+    } catch (RejectedExecutionException e) {
+      jobs.remove(job.id);
+      throw new IllegalStateException("Too many DM jobs queued, try again later");
+    }
+    log.info("DM job queued jobId={} kind={} total={}", job.id, kind, total);
+    return job.id;
+  }
+
+  /** Snapshot of a job with up to {@code limit} outcomes from {@code offset}. */
+  public Optional<JobView> view(String jobId, int offset, int limit) {
+    Job job = jobId == null ? null : jobs.get(jobId.trim());
+    return job == null ? Optional.empty() : Optional.of(job.view(offset, limit));
+  }
+
+  private void run(Job job, JobWork work) {
+    job.status = Status.RUNNING;
+    Status outcome = Status.FAILED;
+    try {
+      job.response = work.run(job::record);
+      if (job.failed.get() == 0) {
+        outcome = Status.SUCCEEDED;
+      } else if (job.succeeded.get() > 0) {
+        outcome = Status.PARTIAL;
+      } else {
+        job.error = "All targets failed";
+      }
+    } catch (Exception e) {
+      job.error = e.getMessage();
+      log.error("DM job failed jobId={}", job.id, e);
+    } finally {
+      job.status = outcome;
+      job.finishedAt = Instant.now();
+      log.info(
+          "DM job finished jobId={} status={} succeeded={} failed={}",
+          job.id,
+          job.status,
+          job.succeeded.get(),
+          job.failed.get());
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${dm.jobs.sweep-interval:1m}")
+  public void evictExpired() {
+    Instant cutoff = Instant.now().minus(retention);
+    jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+  }
+
+  private boolean evictOldestFinished() {
+    return jobs.values().stream()
+        .filter(job -> job.finishedAt != null)
+        .min(Comparator.comparing((Job job) -> job.finishedAt))
+        .map(job -> jobs.remove(job.id) != null)
+        .orElse(false);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,44 @@
+package com.stellantis.lwm2m.mcp.server.service;
+
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/** Non-blocking client of the DM operation API, authenticated through {@link TokenService}. */
+@Service
+public class DmOperationClient {
+
+  private static final String DEFAULT_OPERATION_API_URL =
+      "http://localhost:9001/lwm2m-gtw-ops/v1/operations";
+
+  private final TokenService tokenService;
+  private final WebClient webClient;
+
+  public DmOperationClient(
+      TokenService tokenService,
+      WebClient.Builder webClientBuilder,
+      @Value("${dm.operations.url:" + DEFAULT_OPERATION_API_URL + "}") String operationApiUrl) {
+    this.tokenService = tokenService;
+    this.webClient = webClientBuilder.baseUrl(operationApiUrl).build();
+  }
+
+  /** Posts one operation payload and emits the API response body. */
+  public Mono<String> createOperation(String operationPayload) {
+    return tokenService
+        .getAccessToken()
+        .switchIfEmpty(Mono.error(new RuntimeException("Failed to retrieve access token")))
+        .flatMap(
+            token ->
+                webClient
+                    .post()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header("Authorization", "Bearer " + token)
+                    .header("correlator-id", UUID.randomUUID().toString())
+                    .bodyValue(operationPayload)
+                    .retrieve()
+                    .bodyToMono(String.class));
+  }
+}
@@ -2,34 +2,117 @@ package com.stellantis.lwm2m.mcp.server.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
 
+/**
+ * OAuth access token for the DM operation API, cached in memory for its {@code expires_in}.
+ *
+ * <p>A cached token is returned without a network call. A refresh is scheduled {@code
+ * lwm2m.auth.refresh-before-expiry} ahead of expiry (half-way through very short lifetimes), so
+ * callers normally never wait for the identity provider; a caller that finds the token due for
+ * refresh triggers one in the background and still gets the current token. Only a missing or
+ * expired token makes the caller wait. Concurrent refreshes are coalesced into one request.
+ */
 @Service
 public class TokenService {
 
   private static final Logger log = LoggerFactory.getLogger(TokenService.class);
-  private static final String TOKEN_URL = "https://idfed.mpsa.com/as/token.oauth2";
+  private static final String DEFAULT_TOKEN_URL = "https://idfed.mpsa.com/as/token.oauth2";
 
-  // The token provided by the user to be used as a Bearer token for the request
-  @org.springframework.beans.factory.annotation.Value("${lwm2m.auth.token:}")
-  private String authToken;
+  /** A token is not handed out during its last seconds, to allow for clock skew and latency. */
+  private static final Duration EXPIRY_SKEW = Duration.ofSeconds(5);
+
+  private record CachedToken(String value, Instant refreshAt, Instant expiresAt) {}
 
   private final WebClient webClient;
   private final ObjectMapper objectMapper;
+  // The token provided by the user to be used as a Bearer token for the request
+  private final String authToken;
+  private final String tokenUrl;
+  private final Duration refreshBeforeExpiry;
+  private final Duration defaultExpiresIn;
 
-  public TokenService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
-    this.webClient = webClientBuilder.baseUrl(TOKEN_URL).build();
+  private volatile CachedToken current;
+  private Mono<CachedToken> refreshing; // guarded by this
+  private Disposable scheduledRefresh; // guarded by this
+
+  public TokenService(
+      WebClient.Builder webClientBuilder,
+      ObjectMapper objectMapper,
+      @Value("${lwm2m.auth.token:}") String authToken,
+      @Value("${lwm2m.auth.token-url:" + DEFAULT_TOKEN_URL + "}") String tokenUrl,
+      @Value("${lwm2m.auth.refresh-before-expiry:60s}") Duration refreshBeforeExpiry,
+      @Value("${lwm2m.auth.default-expires-in:5m}") Duration defaultExpiresIn) {
+    this.webClient = webClientBuilder.baseUrl(tokenUrl).build();
     this.objectMapper = objectMapper;
+    this.authToken = authToken;
+    this.tokenUrl = tokenUrl;
+    this.refreshBeforeExpiry = refreshBeforeExpiry;
+    this.defaultExpiresIn = defaultExpiresIn;
   }
 
+  /** The current token; completes immediately unless there is no valid cached token. */
   public Mono<String> getAccessToken() {
-    log.info("Fetching access token from {}", TOKEN_URL);
+    CachedToken token = current;
+    Instant now = Instant.now();
+    if (token != null && now.isBefore(token.expiresAt().minus(EXPIRY_SKEW))) {
+      if (!now.isBefore(token.refreshAt())) {
+        refreshInBackground();
+      }
+      return Mono.just(token.value());
+    }
+    return refresh().map(CachedToken::value);
+  }
+
+  /** The in-flight refresh, or a new one; every caller of the same refresh shares its result. */
+  private synchronized Mono<CachedToken> refresh() {
+    if (refreshing == null) {
+      refreshing =
+          fetchToken()
+              .doOnNext(this::store)
+              .doFinally(signal -> refreshDone())
+              .cache();
+    }
+    return refreshing;
+  }
+
+  private synchronized void refreshDone() {
+    refreshing = null;
+  }
+
+  private void refreshInBackground() {
+    refresh()
+        .subscribe(
+            token -> log.debug("Access token refreshed in the background"),
+            e -> log.warn("Background access token refresh failed: {}", e.getMessage()));
+  }
+
+  private void store(CachedToken token) {
+    current = token;
+    Duration delay = Duration.between(Instant.now(), token.refreshAt());
+    synchronized (this) {
+      if (scheduledRefresh != null) {
+        scheduledRefresh.dispose();
+      }
+      scheduledRefresh =
+          Mono.delay(delay.isNegative() ? Duration.ZERO : delay)
+              .subscribe(tick -> refreshInBackground());
+    }
+  }
+
+  private Mono<CachedToken> fetchToken() {
+    log.info("Fetching access token from {}", tokenUrl);
 
     return webClient
         .post()
@@ -43,16 +126,33 @@ public class TokenService {
         .doOnError(e -> log.error("Failed to fetch access token", e));
   }
 
-  private String extractToken(String responseBody) {
+  private CachedToken extractToken(String responseBody) {
+    JsonNode root;
     try {
-      JsonNode root = objectMapper.readTree(responseBody);
-      if (root.has("access_token")) {
-        return root.get("access_token").asText();
-      } else {
-        throw new RuntimeException("access_token not found in response");
-      }
+      root = objectMapper.readTree(responseBody);
     } catch (Exception e) {
       throw new RuntimeException("Failed to parse token response", e);
     }
+    if (!root.hasNonNull("access_token")) {
+      throw new RuntimeException("access_token not found in response");
+    }
+    Duration lifetime =
+        root.path("expires_in").asLong() > 0
+            ? Duration.ofSeconds(root.path("expires_in").asLong())
+            : defaultExpiresIn;
+    Duration lead =
+        refreshBeforeExpiry.compareTo(lifetime.dividedBy(2)) < 0
+            ? refreshBeforeExpiry
+            : lifetime.dividedBy(2);
+    Instant now = Instant.now();
+    Instant expiresAt = now.plus(lifetime);
+    return new CachedToken(root.get("access_token").asText(), expiresAt.minus(lead), expiresAt);
+  }
+
+  @PreDestroy
+  public synchronized void shutdown() {
+    if (scheduledRefresh != null) {
+      scheduledRefresh.dispose();
+    }
   }
 }
@@ -1,15 +1,34 @@
 package com.stellantis.lwm2m.mcp.server.tool;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stellantis.lwm2m.mcp.server.dto.QueryResponse;
+import com.stellantis.lwm2m.mcp.server.query.QueryCostGuard;
+import com.stellantis.lwm2m.mcp.server.query.QueryCursor;
+import com.stellantis.lwm2m.mcp.server.query.QueryCursorRegistry;
+import com.stellantis.lwm2m.mcp.server.query.QueryFanOut;
+import com.stellantis.lwm2m.mcp.server.query.ResultFormat;
+import com.stellantis.lwm2m.mcp.server.query.ResultJsonWriter;
+import com.stellantis.lwm2m.mcp.server.query.RowLimit;
+import com.stellantis.lwm2m.mcp.server.query.UnionAllExecutor;
+import com.stellantis.lwm2m.mcp.server.query.UnionAllSplit;
 import com.stellantis.lwm2m.mcp.server.service.DatabaseService;
+import com.stellantis.lwm2m.mcp.server.service.DatabaseService.StreamedResult;
+import com.stellantis.lwm2m.mcp.sql.SqlSafety;
+import com.stellantis.lwm2m.mcp.sql.SqlVerdict;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -17,69 +36,111 @@ public class DacDbTool {
 
   private static final Logger log = LoggerFactory.getLogger(DacDbTool.class);
   private static final int MAX_RESULT_ROWS = 1000;
+  private static final int FETCH_SIZE = 200;
   private static final int MAX_ERROR_MESSAGE_LENGTH = 200;
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int MAX_PAGED_ROWS = 10_000;
 
   private final DatabaseService databaseService;
+  private final QueryCursorRegistry cursorRegistry;
+  private final QueryCostGuard costGuard;
+  private final QueryFanOut fanOut;
+  private final UnionAllExecutor unionExecutor;
   private final ObjectMapper objectMapper;
 
-  public DacDbTool(DatabaseService databaseService) {
+  /** JSON response of one query and whether it succeeded. */
+  private record QueryOutcome(String json, boolean success) {}
+
+  public DacDbTool(
+      DatabaseService databaseService,
+      QueryCursorRegistry cursorRegistry,
+      QueryCostGuard costGuard,
+      QueryFanOut fanOut,
+      UnionAllExecutor unionExecutor) {
     this.databaseService = databaseService;
+    this.cursorRegistry = cursorRegistry;
+    this.costGuard = costGuard;
+    this.fanOut = fanOut;
+    this.unionExecutor = unionExecutor;
     this.objectMapper = new ObjectMapper();
   }
 
   @Tool(
       name = "executeDataQuery",
-      description = "Execute a SQL query on the DAC database and return formatted results as JSON.")
-  public String executeDataQuery(String sqlQuery) {
+      description =
+          "Execute a SQL query on the DAC database and return formatted results as JSON. Set"
+              + " format to \"columnar\" to receive the column list once and each row as an array"
+              + " (low-cardinality text columns as indexes into the column's dictionary).")
+  public String executeDataQuery(
+      String sqlQuery,
+      @ToolParam(description = "rows (default) or columnar", required = false) String format) {
     final String traceId = UUID.randomUUID().toString();
     final long t0 = System.nanoTime();
     log.info(
         "traceId={} step=START tool=executeDataQuery sqlPreview='{}'",
         traceId,
         truncate(sqlQuery, 100));
+    return runQuery(traceId, t0, sqlQuery, format).json();
+  }
 
-    try {
-      // Basic SQL validation
-      if (!isValidSql(sqlQuery)) {
-        String error = "Invalid SQL query format";
-        log.warn("traceId={} step=VALIDATION_ERROR error='{}'", traceId, error);
-        return formatErrorResponse(error);
-      }
-
-      // Execute the query
-      List<Map<String, Object>> results = databaseService.executeGeneratedSql(sqlQuery);
+  @Tool(
+      name = "executeDataQueries",
+      description =
+          "Execute several independent read-only SQL queries on the DAC database in parallel and"
+              + " return all results in one response, in the order given. Each entry of results"
+              + " has the same shape as an executeDataQuery response. Use this instead of"
+              + " consecutive executeDataQuery calls when the queries do not depend on each other.")
+  public String executeDataQueries(
+      @ToolParam(description = "SQL queries to run") List<String> sqlQueries,
+      @ToolParam(description = "rows (default) or columnar", required = false) String format) {
+    final String traceId = UUID.randomUUID().toString();
+    final long t0 = System.nanoTime();
+    int count = sqlQueries == null ? 0 : sqlQueries.size();
+    log.info("traceId={} step=START tool=executeDataQueries queries={}", traceId, count);
+    if (count == 0) {
+      return formatErrorResponse("No SQL queries given");
+    }
+    if (count > fanOut.maxStatements()) {
+      return formatErrorResponse(
+          String.format(
+              "Too many queries (%d), at most %d per call", count, fanOut.maxStatements()));
+    }
 
-      // Check result size limits
-      if (results.size() > MAX_RESULT_ROWS) {
-        String warning =
-            String.format(
-                "Query returned %d rows, showing first %d rows only",
-                results.size(), MAX_RESULT_ROWS);
-        log.warn(
-            "traceId={} step=RESULT_TRUNCATED totalRows={} maxRows={}",
-            traceId,
-            results.size(),
-            MAX_RESULT_ROWS);
-        results = results.subList(0, MAX_RESULT_ROWS);
-
-        String response = formatSuccessResponse(results, warning);
-        log.info(
-            "traceId={} step=SUCCESS rows={} truncated=true totalTimeMs={}",
-            traceId,
-            results.size(),
-            toMs(System.nanoTime() - t0));
-        return response;
+    List<Callable<QueryOutcome>> tasks = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String sql = sqlQueries.get(i);
+      String queryTraceId = traceId + "/" + i;
+      tasks.add(() -> runQuery(queryTraceId, System.nanoTime(), sql, format));
+    }
+    try {
+      List<QueryOutcome> outcomes = fanOut.invokeAll(tasks);
+      long failed = outcomes.stream().filter(o -> !o.success()).count();
+      StringWriter json = new StringWriter(8192);
+      try (JsonGenerator generator = objectMapper.createGenerator(json)) {
+        generator.writeStartObject();
+        generator.writeBooleanField("success", failed == 0);
+        generator.writeNumberField("queryCount", count);
+        generator.writeNumberField("failedCount", failed);
+        generator.writeArrayFieldStart("results");
+        for (QueryOutcome outcome : outcomes) {
+          generator.writeRawValue(outcome.json());
+        }
+        generator.writeEndArray();
+        generator.writeNullField("error");
+        generator.writeEndObject();
       }
-
-      // Format successful response
-      String response = formatSuccessResponse(results, null);
       log.info(
-          "traceId={} step=SUCCESS rows={} totalTimeMs={}",
+          "traceId={} step=SUCCESS queries={} failed={} totalTimeMs={}",
           traceId,
-          results.size(),
+          count,
+          failed,
           toMs(System.nanoTime() - t0));
-      return response;
+      return json.toString();
 
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("traceId={} step=CANCELLED totalTimeMs={}", traceId, toMs(System.nanoTime() - t0));
+      return formatErrorResponse("Query execution was cancelled");
     } catch (Exception e) {
       String errorMessage = truncate(e.getMessage(), MAX_ERROR_MESSAGE_LENGTH);
       log.error(
@@ -89,39 +150,208 @@ public class DacDbTool {
           e.getClass().getSimpleName(),
           toMs(System.nanoTime() - t0),
           e);
-      return formatErrorResponse("Failed to execute query: " + errorMessage);
+      return formatErrorResponse("Failed to execute queries: " + errorMessage);
     }
   }
 
-  // ---------- Helper Methods ----------
+  @Tool(
+      name = "executeDataQueryPage",
+      description =
+          "Execute a SQL query on the DAC database and return one page of rows as JSON, plus a"
+              + " continuationToken while more rows remain. To read the next page call again with"
+              + " only the continuationToken; the query is not re-executed. Tokens expire after a"
+              + " short idle period. format works as for executeDataQuery.")
+  public String executeDataQueryPage(
+      @ToolParam(description = "SQL query; omit when passing a continuationToken", required = false)
+          String sqlQuery,
+      @ToolParam(description = "continuationToken of the previous page", required = false)
+          String continuationToken,
+      @ToolParam(description = "rows per page, default 100, max 1000", required = false)
+          Integer pageSize,
+      @ToolParam(description = "rows (default) or columnar", required = false) String format) {
+    final String traceId = UUID.randomUUID().toString();
+    final long t0 = System.nanoTime();
+    final int size =
+        pageSize == null || pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_RESULT_ROWS);
+    boolean continuing = continuationToken != null && !continuationToken.isBlank();
+    log.info(
+        "traceId={} step=START tool=executeDataQueryPage continuing={} pageSize={} sqlPreview='{}'",
+        traceId,
+        continuing,
+        size,
+        truncate(sqlQuery, 100));
 
-  private boolean isValidSql(String sql) {
-    if (sql == null || sql.trim().isEmpty()) {
-      return false;
+    // arguments first: a bad argument must not cost the caller an open cursor
+    ResultFormat resultFormat;
+    try {
+      resultFormat = ResultFormat.from(format);
+    } catch (IllegalArgumentException e) {
+      log.warn("traceId={} step=VALIDATION_ERROR error='{}'", traceId, e.getMessage());
+      return formatErrorResponse(e.getMessage());
     }
 
-    String trimmed = sql.trim().toLowerCase();
+    String token = continuing ? continuationToken.trim() : null;
+    QueryCostGuard.Decision cost = null;
+    if (!continuing) {
+      SqlVerdict verdict = SqlSafety.classify(sqlQuery);
+      if (!verdict.isReadOnly()) {
+        String error = "Invalid SQL query format";
+        log.warn("traceId={} step=VALIDATION_ERROR error='{}' verdict={}", traceId, error, verdict);
+        return formatErrorResponse(error);
+      }
+      try {
+        cost = costGuard.check(sqlQuery, MAX_PAGED_ROWS);
+        if (cost.rejected()) {
+          log.warn("traceId={} step=COST_REJECTED estimate={}", traceId, cost.estimate());
+          return formatTooExpensiveResponse(cost);
+        }
+        token = cursorRegistry.open(cost.sql(), size);
+      } catch (Exception e) { // no cursor was opened
+        return pageErrorResponse(traceId, t0, e);
+      }
+    }
+    QueryCursor cursor = cursorRegistry.get(token).orElse(null);
+    if (cursor == null) {
+      String error = "Unknown or expired continuationToken; run the query again";
+      log.warn("traceId={} step=CURSOR_NOT_FOUND error='{}'", traceId, error);
+      return formatErrorResponse(error);
+    }
 
-    // Basic SQL validation - starts with common SQL keywords
-    return trimmed.startsWith("select")
-        || trimmed.startsWith("with")
-        || trimmed.startsWith("show")
-        || trimmed.startsWith("describe")
-        || trimmed.startsWith("explain");
+    StringWriter json = new StringWriter(8192);
+    QueryCursor.Page page;
+    try (JsonGenerator generator = objectMapper.createGenerator(json)) {
+      generator.writeStartObject();
+      generator.writeBooleanField("success", true);
+      ResultJsonWriter rowWriter = ResultJsonWriter.of(resultFormat, generator);
+      rowWriter.begin();
+      page = cursor.read(size, rowWriter);
+      rowWriter.end();
+      generator.writeNumberField("rowCount", page.rowCount());
+      generator.writeNumberField("offset", page.offset());
+      generator.writeBooleanField("hasMore", page.hasMore());
+      generator.writeStringField("continuationToken", page.hasMore() ? token : null);
+      generator.writeNullField("error");
+      if (cost != null && cost.limited()) {
+        generator.writeStringField("warning", limitedWarning(cost, MAX_PAGED_ROWS));
+      }
+      generator.writeEndObject();
+    } catch (Exception e) { // the read failed or its page is lost: the cursor cannot continue
+      cursorRegistry.close(token);
+      return pageErrorResponse(traceId, t0, e);
+    }
+    if (!page.hasMore()) {
+      cursorRegistry.close(token);
+    }
+    log.info(
+        "traceId={} step=SUCCESS rows={} offset={} hasMore={} totalTimeMs={}",
+        traceId,
+        page.rowCount(),
+        page.offset(),
+        page.hasMore(),
+        toMs(System.nanoTime() - t0));
+    return json.toString();
+  }
+
+  private String pageErrorResponse(String traceId, long t0, Exception e) {
+    String errorMessage = truncate(e.getMessage(), MAX_ERROR_MESSAGE_LENGTH);
+    log.error(
+        "traceId={} step=ERROR message='{}' exceptionType={} totalTimeMs={}",
+        traceId,
+        errorMessage,
+        e.getClass().getSimpleName(),
+        toMs(System.nanoTime() - t0),
+        e);
+    return formatErrorResponse("Failed to execute query: " + errorMessage);
   }
 
-  private String formatSuccessResponse(List<Map<String, Object>> results, String warning) {
+  // ---------- Helper Methods ----------
+
+  /** Validates, bounds and runs one query; failures are returned as an error response. */
+  private QueryOutcome runQuery(String traceId, long t0, String sqlQuery, String format) {
     try {
-      QueryResponse response = new QueryResponse();
-      response.success = true;
-      response.rowCount = results.size();
-      response.data = results;
-      response.warning = warning;
+      ResultFormat resultFormat = ResultFormat.from(format);
 
-      return objectMapper.writeValueAsString(response);
-    } catch (JsonProcessingException e) {
-      log.error("Failed to serialize results to JSON", e);
-      return formatErrorResponse("Failed to format query results");
+      // Read-only validation (shared with the client)
+      SqlVerdict verdict = SqlSafety.classify(sqlQuery);
+      if (!verdict.isReadOnly()) {
+        String error = "Invalid SQL query format";
+        log.warn(
+            "traceId={} step=VALIDATION_ERROR error='{}' verdict={}", traceId, error, verdict);
+        return new QueryOutcome(formatErrorResponse(error), false);
+      }
+
+      // Planner pre-flight on the query as written, so its row estimate is not capped by our
+      // LIMIT: reject, or add a LIMIT to, queries estimated as too expensive
+      QueryCostGuard.Decision cost = costGuard.check(sqlQuery, MAX_RESULT_ROWS + 1);
+      if (cost.rejected()) {
+        log.warn("traceId={} step=COST_REJECTED estimate={}", traceId, cost.estimate());
+        return new QueryOutcome(formatTooExpensiveResponse(cost), false);
+      }
+
+      // Bound the outermost SELECT to MAX_RESULT_ROWS + 1 (the extra row detects truncation);
+      // a query the guard already limited keeps its LIMIT
+      RowLimit.Bounded bounded = RowLimit.apply(cost.sql(), MAX_RESULT_ROWS + 1);
+      if (bounded.rewritten()) {
+        log.info("traceId={} step=LIMIT_ENFORCED limit={}", traceId, MAX_RESULT_ROWS + 1);
+      }
+
+      // UNION ALL across disjoint schemas: run the branches concurrently
+      Optional<UnionAllSplit> split = unionExecutor.split(bounded.sql());
+      split.ifPresent(
+          u -> log.info("traceId={} step=UNION_SPLIT branches={}", traceId, u.branches().size()));
+
+      // Execute the query, serializing rows as they are read from the cursor
+      StringWriter json = new StringWriter(8192);
+      StreamedResult result;
+      try (JsonGenerator generator = objectMapper.createGenerator(json)) {
+        generator.writeStartObject();
+        generator.writeBooleanField("success", true);
+        ResultJsonWriter rowWriter = ResultJsonWriter.of(resultFormat, generator);
+        rowWriter.begin();
+        result =
+            split.isPresent()
+                ? unionExecutor.stream(split.get(), MAX_RESULT_ROWS, FETCH_SIZE, rowWriter)
+                : databaseService.streamGeneratedSql(
+                    bounded.sql(), MAX_RESULT_ROWS, FETCH_SIZE, rowWriter);
+        rowWriter.end();
+        generator.writeNumberField("rowCount", result.rowCount());
+        generator.writeNullField("error");
+        if (cost.limited()) {
+          generator.writeStringField("warning", limitedWarning(cost, MAX_RESULT_ROWS));
+        } else if (result.truncated()) {
+          generator.writeStringField(
+              "warning",
+              String.format(
+                  "Query returned more than %d rows, showing first %d rows only",
+                  MAX_RESULT_ROWS, MAX_RESULT_ROWS));
+        } else {
+          generator.writeNullField("warning");
+        }
+        generator.writeEndObject();
+      }
+
+      if (result.truncated()) {
+        log.warn("traceId={} step=RESULT_TRUNCATED maxRows={}", traceId, MAX_RESULT_ROWS);
+      }
+      log.info(
+          "traceId={} step=SUCCESS rows={} truncated={} totalTimeMs={}",
+          traceId,
+          result.rowCount(),
+          result.truncated(),
+          toMs(System.nanoTime() - t0));
+      return new QueryOutcome(json.toString(), true);
+
+    } catch (Exception e) {
+      String errorMessage = truncate(e.getMessage(), MAX_ERROR_MESSAGE_LENGTH);
+      log.error(
+          "traceId={} step=ERROR message='{}' exceptionType={} totalTimeMs={}",
+          traceId,
+          errorMessage,
+          e.getClass().getSimpleName(),
+          toMs(System.nanoTime() - t0),
+          e);
+      return new QueryOutcome(
+          formatErrorResponse("Failed to execute query: " + errorMessage), false);
     }
   }
 
@@ -139,6 +369,39 @@ public class DacDbTool {
     }
   }
 
+  /**
+   * Structured rejection the model can act on: the planner estimate, the configured limits and what
+   * to change.
+   */
+  private String formatTooExpensiveResponse(QueryCostGuard.Decision cost) {
+    Map<String, Object> guard = new LinkedHashMap<>();
+    guard.put("estimatedCost", cost.estimate().totalCost());
+    guard.put("estimatedRows", cost.estimate().rows());
+    guard.put("maxCost", costGuard.maxTotalCost());
+    guard.put("maxRows", costGuard.maxRows());
+    guard.put(
+        "suggestion",
+        "Narrow the query with selective WHERE filters (e.g. a time range or id), aggregate with"
+            + " GROUP BY instead of returning raw rows, or avoid cross joins.");
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("success", false);
+    response.put("error", "Query too expensive");
+    response.put("rowCount", 0);
+    response.put("tooExpensive", true);
+    response.put("costEstimate", guard);
+    try {
+      return objectMapper.writeValueAsString(response);
+    } catch (JsonProcessingException e) {
+      return formatErrorResponse("Query too expensive");
+    }
+  }
+
+  private static String limitedWarning(QueryCostGuard.Decision cost, int rows) {
+    return String.format(
+        "Query was estimated at %.0f rows (cost %.0f); results limited to the first %d rows",
+        cost.estimate().rows(), cost.estimate().totalCost(), rows);
+  }
+
   private static String truncate(String str, int maxLength) {
     if (str == null || str.length() <= maxLength) {
       return str;
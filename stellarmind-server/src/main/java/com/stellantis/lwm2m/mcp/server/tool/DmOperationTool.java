@@ -1,56 +1,76 @@
 package com.stellantis.lwm2m.mcp.server.tool;
 
-import com.stellantis.lwm2m.mcp.server.service.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stellantis.lwm2m.mcp.server.service.DmBulkService;
+import com.stellantis.lwm2m.mcp.server.service.DmBulkService.BulkResult;
+import com.stellantis.lwm2m.mcp.server.service.DmBulkService.TargetOutcome;
+import com.stellantis.lwm2m.mcp.server.service.DmJobRegistry;
+import com.stellantis.lwm2m.mcp.server.service.DmOperationClient;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.tool.annotation.Tool;
-import org.springframework.http.MediaType;
+import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 
 @Component
 public class DmOperationTool {
 
   private static final Logger log = LoggerFactory.getLogger(DmOperationTool.class);
-  private static final String OPERATION_API_URL =
-      "http://localhost:9001/lwm2m-gtw-ops/v1/operations";
+  private static final int DEFAULT_JOB_RESULTS = 100;
+  private static final int MAX_JOB_RESULTS = 1000;
 
-  private final TokenService tokenService;
-  private final WebClient webClient;
+  private final DmOperationClient operationClient;
+  private final DmBulkService bulkService;
+  private final DmJobRegistry jobRegistry;
+  private final ObjectMapper objectMapper;
 
-  public DmOperationTool(TokenService tokenService, WebClient.Builder webClientBuilder) {
-    this.tokenService = tokenService;
-    this.webClient = webClientBuilder.baseUrl(OPERATION_API_URL).build();
+  public DmOperationTool(
+      DmOperationClient operationClient, DmBulkService bulkService, DmJobRegistry jobRegistry) {
+    this.operationClient = operationClient;
+    this.bulkService = bulkService;
+    this.jobRegistry = jobRegistry;
+    this.objectMapper = new ObjectMapper();
   }
 
   @Tool(
       name = "create_dm_operation",
       description =
-          "Create a Device Management (DM) operation by sending a JSON payload to the backend system.")
-  public String createOperation(String operationPayload) {
+          "Create a Device Management (DM) operation by sending a JSON payload to the backend system."
+              + " With async=true a jobId is returned at once; poll it with get_dm_operation_job.")
+  public String createOperation(
+      String operationPayload,
+      @ToolParam(description = "return a jobId instead of waiting", required = false)
+          Boolean async) {
     final String traceId = UUID.randomUUID().toString();
     log.info(
         "traceId={} step=START tool=create_dm_operation payload='{}'", traceId, operationPayload);
 
     try {
-      // 1. Get Token
-      String token = tokenService.getAccessToken().block();
-      if (token == null) {
-        throw new RuntimeException("Failed to retrieve access token");
+      if (Boolean.TRUE.equals(async)) {
+        String jobId =
+            jobRegistry.submit(
+                "single",
+                1,
+                onOutcome -> {
+                  try {
+                    String response = operationClient.createOperation(operationPayload).block();
+                    onOutcome.accept(new TargetOutcome("operation", true, null));
+                    return response;
+                  } catch (RuntimeException e) {
+                    onOutcome.accept(new TargetOutcome("operation", false, e.getMessage()));
+                    return null;
+                  }
+                });
+        log.info("traceId={} step=JOB_QUEUED jobId={}", traceId, jobId);
+        return jobQueuedResponse(jobId, 1);
       }
 
-      // 2. Call API
-      String response =
-          webClient
-              .post()
-              .contentType(MediaType.APPLICATION_JSON)
-              .header("Authorization", "Bearer " + token)
-              .header("correlator-id", UUID.randomUUID().toString())
-              .bodyValue(operationPayload)
-              .retrieve()
-              .bodyToMono(String.class)
-              .block();
+      // Token (served from the cache) and API call in one non-blocking chain
+      String response = operationClient.createOperation(operationPayload).block();
 
       log.info("traceId={} step=SUCCESS response='{}'", traceId, response);
       return response;
@@ -60,4 +80,116 @@ public class DmOperationTool {
       return "{\"error\": \"Failed to create operation: " + e.getMessage() + "\"}";
     }
   }
+
+  @Tool(
+      name = "create_dm_operations_bulk",
+      description =
+          "Create one Device Management (DM) operation per target from a JSON payload template."
+              + " Give either targets (e.g. ECU serial numbers) or targetQuery, a read-only SQL"
+              + " query over gtw.vehicle / gtw.ecu returning one row per target. In the template,"
+              + " {{target}} is replaced by the target (the first column of targetQuery) and"
+              + " {{column}} by any column of targetQuery. Returns success and failure counts, or"
+              + " with async=true a jobId at once; poll it with get_dm_operation_job.")
+  public String createOperationsBulk(
+      @ToolParam(description = "JSON payload with {{target}} / {{column}} placeholders")
+          String payloadTemplate,
+      @ToolParam(description = "target identifiers", required = false) List<String> targets,
+      @ToolParam(description = "read-only SQL selecting the targets", required = false)
+          String targetQuery,
+      @ToolParam(description = "return a jobId instead of waiting", required = false)
+          Boolean async) {
+    final String traceId = UUID.randomUUID().toString();
+    final long t0 = System.nanoTime();
+    log.info(
+        "traceId={} step=START tool=create_dm_operations_bulk targets={} targetQuery='{}'",
+        traceId,
+        targets == null ? 0 : targets.size(),
+        targetQuery);
+
+    try {
+      bulkService.validateTemplate(payloadTemplate);
+      DmBulkService.Targets resolved = bulkService.targets(targets, targetQuery);
+      log.info("traceId={} step=TARGETS_RESOLVED total={}", traceId, resolved.total());
+
+      if (Boolean.TRUE.equals(async)) {
+        String jobId =
+            jobRegistry.submit(
+                "bulk",
+                resolved.total(),
+                onOutcome -> {
+                  bulkService.submit(payloadTemplate, resolved, onOutcome).block();
+                  return null;
+                });
+        log.info("traceId={} step=JOB_QUEUED jobId={}", traceId, jobId);
+        return jobQueuedResponse(jobId, resolved.total());
+      }
+
+      BulkResult result = bulkService.submit(payloadTemplate, resolved).block();
+
+      log.info(
+          "traceId={} step=SUCCESS total={} succeeded={} failed={} totalTimeMs={}",
+          traceId,
+          result.total(),
+          result.succeeded(),
+          result.failed(),
+          (System.nanoTime() - t0) / 1_000_000L);
+      Map<String, Object> response = new LinkedHashMap<>();
+      response.put("success", result.failed() == 0);
+      response.put("total", result.total());
+      response.put("succeeded", result.succeeded());
+      response.put("failed", result.failed());
+      response.put("failures", result.failures());
+      response.put("error", null);
+      return toJson(response);
+
+    } catch (Exception e) {
+      log.error("traceId={} step=ERROR msg='{}'", traceId, e.getMessage(), e);
+      Map<String, Object> response = new LinkedHashMap<>();
+      response.put("success", false);
+      response.put("error", "Failed to create operations: " + e.getMessage());
+      return toJson(response);
+    }
+  }
+
+  @Tool(
+      name = "get_dm_operation_job",
+      description =
+          "Report the progress of a DM operation job started with async=true: status (QUEUED,"
+              + " RUNNING, SUCCEEDED, PARTIAL, FAILED), total, processed, succeeded and failed"
+              + " counts, the DM API response of a single operation, and per-target results in"
+              + " completion order, one page at a time.")
+  public String getOperationJob(
+      String jobId,
+      @ToolParam(description = "index of the first result to return, default 0", required = false)
+          Integer resultsOffset,
+      @ToolParam(description = "results per page, default 100, max 1000", required = false)
+          Integer resultsLimit) {
+    int offset = resultsOffset == null ? 0 : Math.max(resultsOffset, 0);
+    int limit =
+        resultsLimit == null || resultsLimit <= 0
+            ? DEFAULT_JOB_RESULTS
+            : Math.min(resultsLimit, MAX_JOB_RESULTS);
+    return jobRegistry
+        .view(jobId, offset, limit)
+        .map(this::toJson)
+        .orElseGet(() -> toJson(Map.of("success", false, "error", "Unknown or expired jobId")));
+  }
+
+  private String jobQueuedResponse(String jobId, long total) {
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("success", true);
+    response.put("jobId", jobId);
+    response.put("status", DmJobRegistry.Status.QUEUED);
+    response.put("total", total);
+    response.put("error", null);
+    return toJson(response);
+  }
+
+  private String toJson(Object response) {
+    try {
+      return objectMapper.writeValueAsString(response);
+    } catch (Exception e) {
+      return "{\"success\": false, \"error\": \"Failed to serialize response\"}";
+    }
+  }
 }
@@ -0,0 +1,74 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.StringWriter;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import org.junit.jupiter.api.Test;
+
+/** Columnar tool responses, for empty and dictionary-encoded results. */
+class ColumnarJsonWriterTests {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void listsColumnsOfEmptyResult() throws Exception {
+    String json = write(metaData(), new String[0][]);
+
+    assertThat(json)
+        .isEqualTo(
+            "{\"format\":\"columnar\",\"columns\":[{\"name\":\"vin\",\"type\":\"varchar\"},"
+                + "{\"name\":\"status\",\"type\":\"varchar\"}],\"data\":[]}");
+  }
+
+  @Test
+  void encodesRepeatedTextAsDictionary() throws Exception {
+    String json =
+        write(
+            metaData(),
+            new String[][] {{"VR1", "ok"}, {"VR2", "ok"}, {"VR3", "failed"}, {"VR4", "ok"}});
+
+    assertThat(json)
+        .contains("{\"name\":\"vin\",\"type\":\"varchar\"}")
+        .contains("{\"name\":\"status\",\"type\":\"varchar\",\"dictionary\":[\"ok\",\"failed\"]}")
+        .contains("\"data\":[[\"VR1\",0],[\"VR2\",0],[\"VR3\",1],[\"VR4\",0]]");
+  }
+
+  private String write(ResultSetMetaData md, String[][] rows) throws Exception {
+    StringWriter json = new StringWriter();
+    try (JsonGenerator generator = objectMapper.createGenerator(json)) {
+      generator.writeStartObject();
+      ResultJsonWriter writer = ResultJsonWriter.of(ResultFormat.COLUMNAR, generator);
+      writer.begin();
+      writer.describe(md);
+      for (String[] row : rows) {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getMetaData()).thenReturn(md);
+        when(rs.getString(1)).thenReturn(row[0]);
+        when(rs.getString(2)).thenReturn(row[1]);
+        when(rs.getObject(1)).thenReturn(row[0]);
+        when(rs.getObject(2)).thenReturn(row[1]);
+        writer.processRow(rs);
+      }
+      writer.end();
+      generator.writeEndObject();
+    }
+    return json.toString();
+  }
+
+  private static ResultSetMetaData metaData() throws SQLException {
+    ResultSetMetaData md = mock(ResultSetMetaData.class);
+    when(md.getColumnCount()).thenReturn(2);
+    when(md.getColumnLabel(1)).thenReturn("vin");
+    when(md.getColumnLabel(2)).thenReturn("status");
+    when(md.getColumnTypeName(1)).thenReturn("varchar");
+    when(md.getColumnTypeName(2)).thenReturn("varchar");
+    return md;
+  }
+}
@@ -0,0 +1,176 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Bounded cursor registry over mocked JDBC connections. */
+class QueryCursorRegistryTests {
+
+  private final DataSource dataSource = mock(DataSource.class);
+  private final QueryGovernor governor =
+      new QueryGovernor(Duration.ofSeconds(30), "32MB", 2, new SimpleMeterRegistry());
+  private final List<Connection> connections = new CopyOnWriteArrayList<>();
+
+  /** While set, reading a row blocks until it is counted down. */
+  private volatile CountDownLatch readGate;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void releaseBlockedThreads() {
+    release.countDown();
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedIdleCursor() throws Exception {
+    when(dataSource.getConnection()).thenAnswer(invocation -> connection());
+    QueryCursorRegistry registry =
+        new QueryCursorRegistry(dataSource, governor, 2, Duration.ofMinutes(2));
+    String first = registry.open("SELECT 1", 100);
+    String second = registry.open("SELECT 2", 100);
+    registry.get(first).orElseThrow().read(10, rs -> {});
+
+    String third = registry.open("SELECT 3", 100);
+
+    assertThat(registry.get(second)).isEmpty();
+    assertThat(registry.get(first)).isPresent();
+    assertThat(registry.get(third)).isPresent();
+    verify(connections.get(1)).close();
+  }
+
+  @Test
+  void refusesToOpenWhenEveryCursorIsBeingRead() throws Exception {
+    when(dataSource.getConnection()).thenAnswer(invocation -> connection());
+    QueryCursorRegistry registry =
+        new QueryCursorRegistry(dataSource, governor, 1, Duration.ofMinutes(2));
+    QueryCursor busy = registry.get(registry.open("SELECT 1", 100)).orElseThrow();
+    readGate = release;
+    CompletableFuture<QueryCursor.Page> read =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return busy.read(10, rs -> {});
+              } catch (SQLException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+    while (busy.tryLock()) { // wait for the read to hold the cursor
+      busy.unlock();
+      Thread.sleep(1);
+    }
+
+    assertThatThrownBy(() -> registry.open("SELECT 2", 100))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Too many open query cursors");
+
+    release.countDown();
+    assertThat(read.get(5, TimeUnit.SECONDS).hasMore()).isFalse();
+  }
+
+  @Test
+  void runsQueriesOutsideTheLockWithinTheBound() throws Exception {
+    CountDownLatch slowQueryStarted = new CountDownLatch(1);
+    when(dataSource.getConnection())
+        .thenAnswer(
+            invocation -> {
+              slowQueryStarted.countDown();
+              release.await();
+              return connection();
+            })
+        .thenAnswer(invocation -> connection());
+    QueryCursorRegistry registry =
+        new QueryCursorRegistry(dataSource, governor, 2, Duration.ofMinutes(2));
+    CompletableFuture<String> slow =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return registry.open("SELECT pg_sleep(10)", 100);
+              } catch (SQLException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+    assertThat(slowQueryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // not blocked by the running query; its reserved slot is not evictable
+    String fast = registry.open("SELECT 1", 100);
+    assertThat(registry.get(fast)).isPresent();
+
+    String next = registry.open("SELECT 2", 100); // evicts the idle fast cursor
+    assertThat(registry.get(fast)).isEmpty();
+
+    release.countDown();
+    assertThat(registry.get(slow.get(5, TimeUnit.SECONDS))).isPresent();
+    assertThat(registry.get(next)).isPresent();
+  }
+
+  @Test
+  void freesTheSlotWhenTheQueryFails() throws Exception {
+    when(dataSource.getConnection())
+        .thenThrow(new SQLException("connection refused"))
+        .thenAnswer(invocation -> connection());
+    QueryCursorRegistry registry =
+        new QueryCursorRegistry(dataSource, governor, 1, Duration.ofMinutes(2));
+
+    assertThatThrownBy(() -> registry.open("SELECT 1", 100)).isInstanceOf(SQLException.class);
+    assertThat(registry.get(registry.open("SELECT 1", 100))).isPresent();
+  }
+
+  @Test
+  void closesExpiredCursors() throws Exception {
+    when(dataSource.getConnection()).thenAnswer(invocation -> connection());
+    QueryCursorRegistry expiring =
+        new QueryCursorRegistry(dataSource, governor, 4, Duration.ofNanos(1));
+    QueryCursorRegistry keeping =
+        new QueryCursorRegistry(dataSource, governor, 4, Duration.ofMinutes(2));
+    String expired = expiring.open("SELECT 1", 100);
+    String kept = keeping.open("SELECT 1", 100);
+    Thread.sleep(2);
+
+    expiring.evictIdle();
+    keeping.evictIdle();
+
+    assertThat(expiring.get(expired)).isEmpty();
+    verify(connections.get(0)).close();
+    assertThat(keeping.get(kept)).isPresent();
+  }
+
+  private Connection connection() throws SQLException {
+    Connection con = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    ResultSet rs = mock(ResultSet.class);
+    when(con.prepareStatement(anyString())).thenReturn(statement);
+    when(con.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+    when(statement.executeQuery()).thenReturn(rs);
+    when(rs.next())
+        .thenAnswer(
+            invocation -> {
+              CountDownLatch gate = readGate;
+              if (gate != null) {
+                gate.await();
+              }
+              return false;
+            });
+    connections.add(con);
+    return con;
+  }
+}
@@ -0,0 +1,89 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/** Row limits enforced by rewriting the outermost SELECT. */
+class RowLimitTests {
+
+  private static final long CAP = 1001;
+
+  @Test
+  void addsLimitToUnboundedSelect() {
+    assertThat(RowLimit.apply("SELECT id FROM gtw.ecu", CAP))
+        .isEqualTo(new RowLimit.Bounded("SELECT id FROM gtw.ecu LIMIT 1001", true));
+  }
+
+  @Test
+  void keepsSmallerLimitAndFetch() {
+    assertThat(RowLimit.apply("SELECT id FROM gtw.ecu LIMIT 10", CAP).rewritten()).isFalse();
+    assertThat(RowLimit.apply("SELECT id FROM gtw.ecu FETCH FIRST 5 ROWS ONLY", CAP).rewritten())
+        .isFalse();
+  }
+
+  @Test
+  void replacesLargerOrNonConstantLimit() {
+    assertThat(RowLimit.apply("SELECT id FROM gtw.ecu LIMIT 50000 OFFSET 10", CAP).sql())
+        .isEqualTo("SELECT id FROM gtw.ecu LIMIT 1001 OFFSET 10");
+    assertThat(RowLimit.apply("SELECT id FROM gtw.ecu LIMIT ALL", CAP).sql())
+        .isEqualTo("SELECT id FROM gtw.ecu LIMIT 1001");
+    assertThat(RowLimit.apply("SELECT id FROM gtw.ecu FETCH FIRST 5000 ROWS ONLY", CAP).sql())
+        .isEqualTo("SELECT id FROM gtw.ecu LIMIT 1001");
+  }
+
+  @Test
+  void limitsWholeUnion() {
+    assertThat(RowLimit.apply("SELECT id FROM bs.a UNION SELECT id FROM gtw.b", CAP).sql())
+        .isEqualTo("SELECT id FROM bs.a UNION SELECT id FROM gtw.b LIMIT 1001");
+    // the trailing LIMIT is rewritten in place, not doubled
+    assertThat(
+            RowLimit.apply("SELECT id FROM bs.a UNION ALL SELECT id FROM gtw.b LIMIT 5000", CAP)
+                .sql())
+        .isEqualTo("SELECT id FROM bs.a UNION ALL SELECT id FROM gtw.b LIMIT 1001");
+    assertThat(
+            RowLimit.apply("SELECT id FROM bs.a UNION ALL SELECT id FROM gtw.b LIMIT 20", CAP)
+                .rewritten())
+        .isFalse();
+  }
+
+  @Test
+  void limitsMainQueryOfCteOnly() {
+    assertThat(
+            RowLimit.apply(
+                    "WITH recent AS (SELECT id FROM gtw.ecu LIMIT 50000) SELECT id FROM recent",
+                    CAP)
+                .sql())
+        .isEqualTo(
+            "WITH recent AS (SELECT id FROM gtw.ecu LIMIT 50000) SELECT id FROM recent LIMIT 1001");
+  }
+
+  @Test
+  void leavesPureAggregatesAlone() {
+    assertThat(RowLimit.apply("SELECT count(*), max(updated_at) FROM gtw.ecu", CAP).rewritten())
+        .isFalse();
+  }
+
+  @Test
+  void limitsAggregatesThatReturnSeveralRows() {
+    assertThat(RowLimit.apply("SELECT vin, count(*) FROM gtw.ecu GROUP BY vin", CAP).sql())
+        .endsWith("GROUP BY vin LIMIT 1001");
+    assertThat(RowLimit.apply("SELECT unnest(array_agg(id)) FROM gtw.ecu", CAP).sql())
+        .isEqualTo("SELECT unnest(array_agg(id)) FROM gtw.ecu LIMIT 1001");
+    assertThat(RowLimit.apply("SELECT id, count(*) OVER () FROM gtw.ecu", CAP).rewritten())
+        .isTrue();
+  }
+
+  @Test
+  void wrapsUnparseableSql() {
+    String sql = "SELECT id FROM gtw.ecu WHERE name ~~ 'x' -- comment;";
+    assertThat(RowLimit.apply("SELECT FROM WHERE ((", CAP))
+        .isEqualTo(
+            new RowLimit.Bounded(
+                "SELECT * FROM (\nSELECT FROM WHERE ((\n) AS limited LIMIT 1001", true));
+    assertThat(RowLimit.wrap(sql, CAP))
+        .isEqualTo(
+            "SELECT * FROM (\nSELECT id FROM gtw.ecu WHERE name ~~ 'x' -- comment\n)"
+                + " AS limited LIMIT 1001");
+  }
+}
@@ -0,0 +1,72 @@
+package com.stellantis.lwm2m.mcp.server.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+/** Splitting cross-schema {@code UNION ALL} queries, as bounded by {@link RowLimit} first. */
+class UnionAllSplitTests {
+
+  private static final String UNION =
+      "SELECT id FROM bs.devices WHERE active UNION ALL SELECT id FROM gtw.gateways";
+
+  @Test
+  void splitsUnionBoundedByRowLimit() {
+    String bounded = RowLimit.apply(UNION, 1001).sql();
+
+    UnionAllSplit split = UnionAllSplit.of(bounded).orElseThrow();
+
+    assertThat(split.limit()).isEqualTo(1001L);
+    assertThat(split.branches())
+        .containsExactly(
+            "SELECT id FROM bs.devices WHERE active LIMIT 1001",
+            "SELECT id FROM gtw.gateways LIMIT 1001");
+  }
+
+  @Test
+  void keepsSmallerExplicitLimitOfTheUnion() {
+    String bounded = RowLimit.apply(UNION + " LIMIT 50", 1001).sql();
+
+    UnionAllSplit split = UnionAllSplit.of(bounded).orElseThrow();
+
+    assertThat(split.limit()).isEqualTo(50L);
+    assertThat(split.branches())
+        .containsExactly(
+            "SELECT id FROM bs.devices WHERE active LIMIT 50",
+            "SELECT id FROM gtw.gateways LIMIT 50");
+  }
+
+  @Test
+  void splitsUnboundedUnion() {
+    UnionAllSplit split = UnionAllSplit.of(UNION).orElseThrow();
+
+    assertThat(split.limit()).isNull();
+    assertThat(split.branches())
+        .containsExactly("SELECT id FROM bs.devices WHERE active", "SELECT id FROM gtw.gateways");
+  }
+
+  @Test
+  void keepsBranchLimitInsideParentheses() {
+    UnionAllSplit split =
+        UnionAllSplit.of(
+                "SELECT id FROM bs.devices UNION ALL (SELECT id FROM gtw.gateways LIMIT 5)"
+                    + " LIMIT 10")
+            .orElseThrow();
+
+    assertThat(split.limit()).isEqualTo(10L);
+    assertThat(split.branches().get(1)).contains("LIMIT 5");
+  }
+
+  @Test
+  void rejectsUnionsThatCannotBeSplit() {
+    assertThat(UnionAllSplit.of(UNION + " ORDER BY id LIMIT 10")).isEmpty();
+    assertThat(UnionAllSplit.of(UNION + " LIMIT 10 OFFSET 5")).isEmpty();
+    assertThat(UnionAllSplit.of(UNION.replace("UNION ALL", "UNION"))).isEmpty();
+    assertThat(UnionAllSplit.of("SELECT id FROM bs.a UNION ALL SELECT id FROM bs.b")).isEmpty();
+    assertThat(UnionAllSplit.of("SELECT id FROM devices UNION ALL SELECT id FROM gtw.g"))
+        .isEmpty();
+    assertThat(UnionAllSplit.of("WITH d AS (SELECT 1) " + UNION)).isEmpty();
+    assertThat(UnionAllSplit.of("SELECT id FROM bs.devices")).isEqualTo(Optional.empty());
+  }
+}
@@ -0,0 +1,183 @@
+package com.stellantis.lwm2m.mcp.server.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/** Bulk submission against local stubs of the token endpoint and the DM operation API. */
+class DmBulkServiceTests {
+
+  private static final int CONCURRENCY = 4;
+
+  private final Queue<String> payloads = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final DatabaseService database = mock(DatabaseService.class);
+  private HttpServer server;
+  private ExecutorService stubThreads;
+  private TokenService tokens;
+  private DmBulkService bulk;
+
+  @BeforeEach
+  void start() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    stubThreads = Executors.newFixedThreadPool(16);
+    server.setExecutor(stubThreads);
+    server.createContext(
+        "/token",
+        exchange -> respond(exchange, 200, "{\"access_token\":\"t\",\"expires_in\":600}"));
+    server.createContext(
+        "/operations",
+        exchange -> {
+          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+          String body = "";
+          try {
+            body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            payloads.add(body);
+            Thread.sleep(20);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } finally {
+            // before responding, or the client may start its next call before this one counts down
+            inFlight.decrementAndGet();
+          }
+          respond(exchange, body.contains("BAD") ? 500 : 201, "{\"id\":\"op\"}");
+        });
+    server.start();
+
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    tokens =
+        new TokenService(
+            WebClient.builder(),
+            new ObjectMapper(),
+            "user-token",
+            base + "/token",
+            Duration.ofSeconds(60),
+            Duration.ofMinutes(5));
+    DmOperationClient client =
+        new DmOperationClient(tokens, WebClient.builder(), base + "/operations");
+    bulk = new DmBulkService(client, database, CONCURRENCY, 0, 100, "gtw.vehicle,gtw.ecu");
+  }
+
+  @AfterEach
+  void stop() {
+    tokens.shutdown();
+    server.stop(0);
+    stubThreads.shutdownNow();
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  @Test
+  void submitsOneRenderedOperationPerTargetWithBoundedConcurrency() {
+    List<String> targets = IntStream.range(0, 40).mapToObj(i -> "ECU\"" + i).toList();
+    String template = "{\"serialNumber\":\"{{target}}\",\"operation\":\"reboot\"}";
+
+    DmBulkService.BulkResult result = bulk.submit(template, bulk.targets(targets, null)).block();
+
+    assertThat(result.total()).isEqualTo(40);
+    assertThat(result.succeeded()).isEqualTo(40);
+    assertThat(payloads)
+        .hasSize(40)
+        .contains("{\"serialNumber\":\"ECU\\\"7\",\"operation\":\"reboot\"}");
+    assertThat(maxInFlight.get()).isBetween(1, CONCURRENCY);
+  }
+
+  @Test
+  void countsFailedTargetsWithoutStoppingTheOthers() {
+    DmBulkService.BulkResult result =
+        bulk.submit(
+                "{\"serialNumber\":\"{{target}}\"}",
+                bulk.targets(List.of("ECU1", "BAD1", "ECU2", "BAD2"), null))
+            .block();
+
+    assertThat(result.succeeded()).isEqualTo(2);
+    assertThat(result.failed()).isEqualTo(2);
+    assertThat(result.failures())
+        .extracting(DmBulkService.TargetOutcome::target)
+        .containsExactlyInAnyOrder("BAD1", "BAD2");
+  }
+
+  @Test
+  void readsSelectorTargetsBeforeSubmitting() {
+    when(database.executeGeneratedSql(anyString()))
+        .thenReturn(List.of(row("ECU1", "VIN1"), row("ECU2", "VIN2")));
+
+    DmBulkService.Targets targets =
+        bulk.targets(null, "SELECT e.serial_number, e.vin FROM gtw.ecu e;");
+    DmBulkService.BulkResult result =
+        bulk.submit("{\"serialNumber\":\"{{target}}\",\"vin\":\"{{vin}}\"}", targets).block();
+
+    verify(database)
+        .executeGeneratedSql(
+            "SELECT * FROM (\nSELECT e.serial_number, e.vin FROM gtw.ecu e\n)"
+                + " AS selector LIMIT 101");
+    assertThat(targets.total()).isEqualTo(2);
+    assertThat(result.succeeded()).isEqualTo(2);
+    assertThat(payloads)
+        .containsExactlyInAnyOrder(
+            "{\"serialNumber\":\"ECU1\",\"vin\":\"VIN1\"}",
+            "{\"serialNumber\":\"ECU2\",\"vin\":\"VIN2\"}");
+  }
+
+  @Test
+  void rejectsSelectorsOverMaxTargets() {
+    when(database.executeGeneratedSql(anyString()))
+        .thenReturn(IntStream.range(0, 101).mapToObj(i -> row("ECU" + i, "VIN")).toList());
+
+    assertThatThrownBy(() -> bulk.targets(null, "SELECT serial_number FROM gtw.ecu"))
+        .hasMessage("More than 100 targets selected");
+  }
+
+  @Test
+  void rejectsInvalidRequests() {
+    assertThatThrownBy(() -> bulk.validateTemplate("{\"serialNumber\": {{target}"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> bulk.validateTemplate("{\"serialNumber\": {{target}}}"))
+        .hasMessageContaining("inside JSON strings");
+    bulk.validateTemplate("{\"serialNumber\": \"{{target}}\", \"note\": \"id-{{ target }}\"}");
+    assertThatThrownBy(() -> bulk.targets(List.of("ECU1"), "SELECT serial_number FROM gtw.ecu"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> bulk.targets(null, "SELECT token FROM gtw.credentials"))
+        .hasMessageContaining("gtw.ecu, gtw.vehicle");
+  }
+
+  private static Map<String, Object> row(String serialNumber, String vin) {
+    Map<String, Object> row = new LinkedCaseInsensitiveMap<>();
+    row.put("serial_number", serialNumber);
+    row.put("vin", vin);
+    return row;
+  }
+}
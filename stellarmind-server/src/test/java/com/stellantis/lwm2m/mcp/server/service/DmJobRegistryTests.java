@@ -0,0 +1,176 @@
+package com.stellantis.lwm2m.mcp.server.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.stellantis.lwm2m.mcp.server.service.DmBulkService.TargetOutcome;
+import com.stellantis.lwm2m.mcp.server.service.DmJobRegistry.JobView;
+import com.stellantis.lwm2m.mcp.server.service.DmJobRegistry.Status;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Job lifecycle on the bounded pool of {@link DmJobRegistry}. */
+class DmJobRegistryTests {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private DmJobRegistry registry;
+
+  @AfterEach
+  void stop() {
+    release.countDown();
+    registry.shutdown();
+  }
+
+  @Test
+  void runsJobsThroughQueuedRunningAndSucceeded() throws Exception {
+    registry = new DmJobRegistry(1, 4, 10, 100, Duration.ofHours(1));
+    CountDownLatch started = new CountDownLatch(1);
+    String running = registry.submit("single", 1, blockingWork(started));
+    String queued = registry.submit("single", 1, outcomes -> "{\"id\":\"op\"}");
+
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(view(running).status()).isEqualTo(Status.RUNNING);
+    assertThat(view(queued).status()).isEqualTo(Status.QUEUED);
+
+    release.countDown();
+    JobView done = awaitFinished(queued);
+    assertThat(done.status()).isEqualTo(Status.SUCCEEDED);
+    assertThat(done.response()).isEqualTo("{\"id\":\"op\"}");
+    assertThat(done.finishedAt()).isNotNull();
+    assertThat(awaitFinished(running).status()).isEqualTo(Status.SUCCEEDED);
+  }
+
+  @Test
+  void reportsFailedAndPartialJobs() throws Exception {
+    registry = new DmJobRegistry(2, 4, 10, 100, Duration.ofHours(1));
+    String allFailed =
+        registry.submit(
+            "bulk",
+            2,
+            outcomes -> {
+              outcomes.accept(new TargetOutcome("a", false, "500"));
+              outcomes.accept(new TargetOutcome("b", false, "500"));
+              return null;
+            });
+    String partial =
+        registry.submit(
+            "bulk",
+            2,
+            outcomes -> {
+              outcomes.accept(new TargetOutcome("a", true, null));
+              outcomes.accept(new TargetOutcome("b", false, "500"));
+              return null;
+            });
+    String thrown =
+        registry.submit(
+            "bulk",
+            2,
+            outcomes -> {
+              throw new IllegalStateException("token endpoint down");
+            });
+
+    JobView failedView = awaitFinished(allFailed);
+    assertThat(failedView.status()).isEqualTo(Status.FAILED);
+    assertThat(failedView.failed()).isEqualTo(2);
+    assertThat(failedView.results()).extracting(TargetOutcome::target).containsExactly("a", "b");
+    assertThat(awaitFinished(partial).status()).isEqualTo(Status.PARTIAL);
+    JobView thrownView = awaitFinished(thrown);
+    assertThat(thrownView.status()).isEqualTo(Status.FAILED);
+    assertThat(thrownView.error()).isEqualTo("token endpoint down");
+  }
+
+  @Test
+  void refusesJobsBeyondWorkersAndQueue() throws Exception {
+    registry = new DmJobRegistry(1, 1, 10, 100, Duration.ofHours(1));
+    CountDownLatch started = new CountDownLatch(1);
+    registry.submit("single", 1, blockingWork(started));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    registry.submit("single", 1, outcomes -> null);
+
+    assertThatThrownBy(() -> registry.submit("single", 1, outcomes -> null))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("queued");
+  }
+
+  @Test
+  void evictsOldestFinishedJobWhenFull() throws Exception {
+    registry = new DmJobRegistry(1, 4, 2, 100, Duration.ofHours(1));
+    String first = registry.submit("single", 1, outcomes -> null);
+    awaitFinished(first);
+    Thread.sleep(5);
+    String second = registry.submit("single", 1, outcomes -> null);
+    awaitFinished(second);
+
+    String third = registry.submit("single", 1, outcomes -> null);
+
+    assertThat(registry.view(first, 0, 10)).isEmpty();
+    assertThat(registry.view(second, 0, 10)).isPresent();
+    assertThat(registry.view(third, 0, 10)).isPresent();
+  }
+
+  @Test
+  void keepsRunningJobsWhenFullAndEvictsExpiredOnes() throws Exception {
+    registry = new DmJobRegistry(1, 4, 2, 100, Duration.ZERO);
+    CountDownLatch started = new CountDownLatch(1);
+    String running = registry.submit("single", 1, blockingWork(started));
+    registry.submit("single", 1, outcomes -> null);
+
+    assertThatThrownBy(() -> registry.submit("single", 1, outcomes -> null))
+        .hasMessageContaining("Too many DM jobs");
+
+    release.countDown();
+    awaitFinished(running);
+    Thread.sleep(5);
+    registry.evictExpired();
+    assertThat(registry.view(running, 0, 10)).isEmpty();
+  }
+
+  @Test
+  void capsResultsPerJob() throws Exception {
+    registry = new DmJobRegistry(1, 4, 10, 2, Duration.ofHours(1));
+    String job =
+        registry.submit(
+            "bulk",
+            3,
+            outcomes -> {
+              for (String target : new String[] {"a", "b", "c"}) {
+                outcomes.accept(new TargetOutcome(target, true, null));
+              }
+              return null;
+            });
+
+    JobView view = awaitFinished(job);
+    assertThat(view.processed()).isEqualTo(3);
+    assertThat(view.results()).hasSize(2);
+    assertThat(view.resultsTruncated()).isTrue();
+    assertThat(registry.view(job, 1, 10).orElseThrow().results())
+        .extracting(TargetOutcome::target)
+        .containsExactly("b");
+  }
+
+  private DmJobRegistry.JobWork blockingWork(CountDownLatch started) {
+    return outcomes -> {
+      started.countDown();
+      release.await();
+      outcomes.accept(new TargetOutcome("operation", true, null));
+      return null;
+    };
+  }
+
+  private JobView view(String jobId) {
+    return registry.view(jobId, 0, 100).orElseThrow();
+  }
+
+  private JobView awaitFinished(String jobId) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    JobView view = view(jobId);
+    while (view.finishedAt() == null && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+      view = view(jobId);
+    }
+    return view;
+  }
+}
@@ -0,0 +1,113 @@
+package com.stellantis.lwm2m.mcp.server.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+/** Token caching against a local stub of the token endpoint. */
+class TokenServiceTests {
+
+  private final AtomicInteger requests = new AtomicInteger();
+  private HttpServer server;
+  private TokenService tokens;
+  private volatile long expiresIn = 3600;
+  private volatile long delayMs;
+
+  @BeforeEach
+  void startStub() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext(
+        "/token",
+        exchange -> {
+          int n = requests.incrementAndGet();
+          try {
+            Thread.sleep(delayMs);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          byte[] body =
+              ("{\"access_token\":\"token-" + n + "\",\"expires_in\":" + expiresIn + "}")
+                  .getBytes(StandardCharsets.UTF_8);
+          exchange.getResponseHeaders().add("Content-Type", "application/json");
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+          }
+        });
+    server.start();
+  }
+
+  @AfterEach
+  void stopStub() {
+    if (tokens != null) {
+      tokens.shutdown();
+    }
+    server.stop(0);
+  }
+
+  private void createTokenService() {
+    String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/token";
+    tokens =
+        new TokenService(
+            WebClient.builder(),
+            new ObjectMapper(),
+            "user-token",
+            url,
+            Duration.ofSeconds(60),
+            Duration.ofMinutes(5));
+  }
+
+  @Test
+  void servesCachedTokenWithoutCallingTheEndpoint() {
+    createTokenService();
+
+    assertThat(tokens.getAccessToken().block()).isEqualTo("token-1");
+    assertThat(tokens.getAccessToken().block()).isEqualTo("token-1");
+    assertThat(requests).hasValue(1);
+  }
+
+  @Test
+  void coalescesConcurrentRefreshes() {
+    delayMs = 200;
+    createTokenService();
+
+    List<String> results =
+        Flux.range(0, 16).flatMap(i -> tokens.getAccessToken()).collectList().block();
+
+    assertThat(results).hasSize(16).containsOnly("token-1");
+    assertThat(requests).hasValue(1);
+  }
+
+  @Test
+  void refreshesInBackgroundBeforeExpiry() throws Exception {
+    expiresIn = 2; // refresh is due half-way, after one second
+    createTokenService();
+    assertThat(tokens.getAccessToken().block()).isEqualTo("token-1");
+
+    // no caller asks for a token while it is refreshed
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (requests.get() < 2 && System.nanoTime() < deadline) {
+      Thread.sleep(50);
+    }
+    assertThat(requests.get()).isGreaterThanOrEqualTo(2);
+
+    String token = tokens.getAccessToken().block();
+    while ("token-1".equals(token) && System.nanoTime() < deadline) {
+      Thread.sleep(50);
+      token = tokens.getAccessToken().block();
+    }
+    assertThat(token).isNotEqualTo("token-1");
+  }
+}
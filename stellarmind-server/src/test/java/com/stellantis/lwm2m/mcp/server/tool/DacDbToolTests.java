@@ -0,0 +1,53 @@
+package com.stellantis.lwm2m.mcp.server.tool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.stellantis.lwm2m.mcp.server.query.QueryCostGuard;
+import com.stellantis.lwm2m.mcp.server.query.QueryCursor;
+import com.stellantis.lwm2m.mcp.server.query.QueryCursorRegistry;
+import com.stellantis.lwm2m.mcp.server.query.QueryFanOut;
+import com.stellantis.lwm2m.mcp.server.query.UnionAllExecutor;
+import com.stellantis.lwm2m.mcp.server.service.DatabaseService;
+import java.sql.SQLException;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+/** Continuation calls of {@code executeDataQueryPage} and the cursor they refer to. */
+class DacDbToolTests {
+
+  private final QueryCursorRegistry cursorRegistry = mock(QueryCursorRegistry.class);
+  private final DacDbTool tool =
+      new DacDbTool(
+          mock(DatabaseService.class),
+          cursorRegistry,
+          mock(QueryCostGuard.class),
+          mock(QueryFanOut.class),
+          mock(UnionAllExecutor.class));
+
+  @Test
+  void keepsCursorOpenOnInvalidArgument() {
+    String json = tool.executeDataQueryPage(null, "token", 100, "xml");
+
+    assertThat(json).contains("\"success\":false").contains("Unknown format 'xml'");
+    verify(cursorRegistry, never()).get("token");
+    verify(cursorRegistry, never()).close("token");
+  }
+
+  @Test
+  void closesCursorWhenReadFails() throws Exception {
+    QueryCursor cursor = mock(QueryCursor.class);
+    when(cursorRegistry.get("token")).thenReturn(Optional.of(cursor));
+    when(cursor.read(anyInt(), any())).thenThrow(new SQLException("canceling statement"));
+
+    String json = tool.executeDataQueryPage(null, "token", 100, null);
+
+    assertThat(json).contains("\"success\":false").contains("canceling statement");
+    verify(cursorRegistry).close("token");
+  }
+}
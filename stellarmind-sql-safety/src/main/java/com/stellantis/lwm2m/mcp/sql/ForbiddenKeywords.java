@@ -0,0 +1,87 @@
+package com.stellantis.lwm2m.mcp.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/** Unquoted words that make a statement unsafe to run on the read-only path. */
+final class ForbiddenKeywords {
+
+  private static final List<String> KEYWORDS =
+      List.of(
+          // data modification and DDL
+          "insert",
+          "update",
+          "delete",
+          "merge",
+          "upsert",
+          "drop",
+          "alter",
+          "create",
+          "truncate",
+          "into", // SELECT ... INTO creates a table
+          "grant",
+          "revoke",
+          "lock",
+          "refresh",
+          "reindex",
+          // maintenance, procedural and session commands
+          "vacuum",
+          "analyze",
+          "call",
+          "do",
+          "copy",
+          "listen",
+          "notify",
+          "set",
+          "prepare",
+          "execute",
+          "explain", // avoid leaking plans / executing explain analyze
+          // server-side functions with side effects or file/network access
+          "set_config",
+          "pg_sleep",
+          "pg_read_file",
+          "pg_read_binary_file",
+          "pg_ls_dir",
+          "pg_terminate_backend",
+          "pg_cancel_backend",
+          "lo_import",
+          "lo_export",
+          "dblink",
+          "dblink_exec");
+
+  /** Keywords bucketed by lower-case first letter, so a word is compared with a few at most. */
+  private static final String[][] BY_FIRST_LETTER = index();
+
+  private ForbiddenKeywords() {}
+
+  /** Whether {@code sql[start, end)} is a forbidden keyword, ignoring case. */
+  static boolean matches(String sql, int start, int end) {
+    char c = (char) (sql.charAt(start) | 0x20);
+    if (c < 'a' || c > 'z') {
+      return false;
+    }
+    int len = end - start;
+    for (String keyword : BY_FIRST_LETTER[c - 'a']) {
+      if (keyword.length() == len && sql.regionMatches(true, start, keyword, 0, len)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String[][] index() {
+    List<List<String>> buckets = new ArrayList<>();
+    for (int i = 0; i < 26; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    for (String keyword : KEYWORDS) {
+      buckets.get(keyword.toLowerCase(Locale.ROOT).charAt(0) - 'a').add(keyword);
+    }
+    String[][] index = new String[26][];
+    for (int i = 0; i < 26; i++) {
+      index[i] = buckets.get(i).toArray(String[]::new);
+    }
+    return index;
+  }
+}
@@ -0,0 +1,54 @@
+package com.stellantis.lwm2m.mcp.sql;
+
+import com.stellantis.lwm2m.mcp.sql.SqlLexer.TokenType;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Normalised "shape" of a SQL statement: comments dropped, string, numeric and parameter literals
+ * replaced by {@code ?}, unquoted words lower-cased and tokens separated by single spaces. Two
+ * queries that differ only in literal values, formatting or keyword case share a fingerprint.
+ */
+public final class SqlFingerprint {
+
+  private SqlFingerprint() {}
+
+  /** Returns the normalised text of {@code sql}; input that does not lex is returned trimmed. */
+  public static String normalize(String sql) {
+    SqlLexer lexer = new SqlLexer(sql);
+    StringBuilder out = new StringBuilder(sql.length());
+    TokenType type;
+    while ((type = lexer.next()) != TokenType.EOF) {
+      if (type == TokenType.ERROR) {
+        return sql.trim();
+      }
+      if (out.length() > 0) {
+        out.append(' ');
+      }
+      switch (type) {
+        case STRING, NUMBER, PARAMETER -> out.append('?');
+        case WORD -> out.append(lexer.text().toLowerCase(Locale.ROOT));
+        default -> out.append(sql, lexer.start(), lexer.end());
+      }
+    }
+    return out.toString();
+  }
+
+  /** Returns the SHA-256 (hex) of the normalised text of {@code sql}. */
+  public static String of(String sql) {
+    return sha256(normalize(sql));
+  }
+
+  public static String sha256(String text) {
+    try {
+      byte[] hash =
+          MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
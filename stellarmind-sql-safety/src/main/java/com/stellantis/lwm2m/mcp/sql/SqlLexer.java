@@ -0,0 +1,239 @@
+package com.stellantis.lwm2m.mcp.sql;
+
+/**
+ * Single-pass PostgreSQL tokenizer. Reports one token at a time as a {@code [start, end)} range of
+ * the input, so scanning a statement allocates nothing per token.
+ *
+ * <p>Handled lexical forms:
+ *
+ * <ul>
+ *   <li>whitespace, {@code --} line comments and (nested) {@code /* ... *&#47;} block comments,
+ *       which are skipped;
+ *   <li>{@code 'string'} literals with {@code ''} escapes, {@code E'...'} literals with backslash
+ *       escapes, and {@code B'...'}, {@code X'...'}, {@code N'...'} prefixes;
+ *   <li>dollar-quoted strings ({@code $$...$$}, {@code $tag$...$tag$});
+ *   <li>{@code "quoted identifiers"} with {@code ""} escapes;
+ *   <li>numbers, positional parameters ({@code $1}) and unquoted words (keywords or identifiers);
+ *   <li>everything else as single-character symbols, {@code ;} as its own type.
+ * </ul>
+ *
+ * <p>Unterminated strings, identifiers and comments produce {@link TokenType#ERROR}.
+ */
+public final class SqlLexer {
+
+  public enum TokenType {
+    WORD,
+    QUOTED_IDENTIFIER,
+    STRING,
+    NUMBER,
+    PARAMETER,
+    SYMBOL,
+    SEMICOLON,
+    ERROR,
+    EOF
+  }
+
+  private final String sql;
+  private final int length;
+  private int pos;
+  private int start;
+  private int end;
+
+  public SqlLexer(String sql) {
+    this.sql = sql;
+    this.length = sql.length();
+  }
+
+  /** Start offset (inclusive) of the current token. */
+  public int start() {
+    return start;
+  }
+
+  /** End offset (exclusive) of the current token. */
+  public int end() {
+    return end;
+  }
+
+  /** Text of the current token (allocates; for diagnostics and tests). */
+  public String text() {
+    return sql.substring(start, end);
+  }
+
+  /** Whether the current token is the given keyword, ignoring case. */
+  public boolean is(String keyword) {
+    int len = end - start;
+    return len == keyword.length() && sql.regionMatches(true, start, keyword, 0, len);
+  }
+
+  /** Advances to the next token. */
+  public TokenType next() {
+    if (!skipTrivia()) {
+      return token(pos, length, TokenType.ERROR);
+    }
+    if (pos >= length) {
+      return token(length, length, TokenType.EOF);
+    }
+    int s = pos;
+    char c = sql.charAt(pos);
+
+    if (c == '\'') {
+      return quoted(s, s, '\'', false, TokenType.STRING);
+    }
+    if (c == '"') {
+      return quoted(s, s, '"', false, TokenType.QUOTED_IDENTIFIER);
+    }
+    if (isDigit(c) || (c == '.' && pos + 1 < length && isDigit(sql.charAt(pos + 1)))) {
+      return number(s);
+    }
+    if (c == '$') {
+      return dollar(s);
+    }
+    if (isIdentifierStart(c)) {
+      if (pos + 1 < length && sql.charAt(pos + 1) == '\'') {
+        switch (c) {
+          case 'e', 'E':
+            return quoted(s, s + 1, '\'', true, TokenType.STRING);
+          case 'b', 'B', 'x', 'X', 'n', 'N':
+            return quoted(s, s + 1, '\'', false, TokenType.STRING);
+          default:
+            break;
+        }
+      }
+      pos++;
+      while (pos < length && isIdentifierPart(sql.charAt(pos))) {
+        pos++;
+      }
+      return token(s, pos, TokenType.WORD);
+    }
+    pos++;
+    return token(s, pos, c == ';' ? TokenType.SEMICOLON : TokenType.SYMBOL);
+  }
+
+  /** Skips whitespace and comments; false on an unterminated block comment. */
+  private boolean skipTrivia() {
+    while (pos < length) {
+      char c = sql.charAt(pos);
+      if (Character.isWhitespace(c)) {
+        pos++;
+      } else if (c == '-' && pos + 1 < length && sql.charAt(pos + 1) == '-') {
+        pos += 2;
+        while (pos < length && sql.charAt(pos) != '\n') {
+          pos++;
+        }
+      } else if (c == '/' && pos + 1 < length && sql.charAt(pos + 1) == '*') {
+        pos += 2;
+        int depth = 1;
+        while (depth > 0) {
+          if (pos + 1 >= length) {
+            pos = length;
+            return false;
+          }
+          char a = sql.charAt(pos);
+          char b = sql.charAt(pos + 1);
+          if (a == '/' && b == '*') {
+            depth++;
+            pos += 2;
+          } else if (a == '*' && b == '/') {
+            depth--;
+            pos += 2;
+          } else {
+            pos++;
+          }
+        }
+      } else {
+        return true;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Quoted string or identifier whose opening quote is at {@code quoteAt}; a doubled quote is an
+   * escaped quote, and so is a backslash-escaped one when {@code backslashEscapes} is set.
+   */
+  private TokenType quoted(
+      int s, int quoteAt, char quote, boolean backslashEscapes, TokenType type) {
+    pos = quoteAt + 1;
+    while (pos < length) {
+      char c = sql.charAt(pos);
+      if (backslashEscapes && c == '\\') {
+        pos += 2;
+      } else if (c == quote) {
+        if (pos + 1 < length && sql.charAt(pos + 1) == quote) {
+          pos += 2;
+        } else {
+          pos++;
+          return token(s, pos, type);
+        }
+      } else {
+        pos++;
+      }
+    }
+    pos = length;
+    return token(s, length, TokenType.ERROR);
+  }
+
+  private TokenType number(int s) {
+    pos++;
+    while (pos < length) {
+      char c = sql.charAt(pos);
+      if ((c == 'e' || c == 'E')
+          && pos + 1 < length
+          && (sql.charAt(pos + 1) == '+' || sql.charAt(pos + 1) == '-')) {
+        pos += 2;
+      } else if (isDigit(c) || c == '.' || c == '_' || Character.isLetter(c)) {
+        pos++;
+      } else {
+        break;
+      }
+    }
+    return token(s, pos, TokenType.NUMBER);
+  }
+
+  /** {@code $1} parameter, {@code $tag$...$tag$} string, or a lone {@code $} symbol. */
+  private TokenType dollar(int s) {
+    int p = s + 1;
+    if (p < length && isDigit(sql.charAt(p))) {
+      while (p < length && isDigit(sql.charAt(p))) {
+        p++;
+      }
+      pos = p;
+      return token(s, p, TokenType.PARAMETER);
+    }
+    if (p < length && isIdentifierStart(sql.charAt(p))) {
+      while (p < length && isIdentifierPart(sql.charAt(p)) && sql.charAt(p) != '$') {
+        p++;
+      }
+    }
+    if (p >= length || sql.charAt(p) != '$') {
+      pos = s + 1;
+      return token(s, pos, TokenType.SYMBOL);
+    }
+    int tagEnd = p + 1; // delimiter is sql[s, tagEnd)
+    int close = sql.indexOf(sql.substring(s, tagEnd), tagEnd);
+    if (close < 0) {
+      pos = length;
+      return token(s, length, TokenType.ERROR);
+    }
+    pos = close + (tagEnd - s);
+    return token(s, pos, TokenType.STRING);
+  }
+
+  private TokenType token(int s, int e, TokenType type) {
+    start = s;
+    end = e;
+    return type;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isIdentifierStart(char c) {
+    return c == '_' || Character.isLetter(c);
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return c == '_' || c == '$' || Character.isLetterOrDigit(c);
+  }
+}
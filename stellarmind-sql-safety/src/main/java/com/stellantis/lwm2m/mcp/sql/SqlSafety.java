@@ -0,0 +1,61 @@
+package com.stellantis.lwm2m.mcp.sql;
+
+import com.stellantis.lwm2m.mcp.sql.SqlLexer.TokenType;
+
+/**
+ * Read-only classification of generated SQL in one pass over the input, without regular
+ * expressions.
+ *
+ * <p>A statement is {@link SqlVerdict#READ_ONLY} when its first token is {@code SELECT} or {@code
+ * WITH}, no unquoted word is a {@link ForbiddenKeywords forbidden keyword}, and nothing but
+ * semicolons follows the first {@code ;}. Words inside strings, dollar quotes, quoted identifiers
+ * and comments are never considered.
+ */
+public final class SqlSafety {
+
+  private SqlSafety() {}
+
+  public static SqlVerdict classify(String sql) {
+    if (sql == null) {
+      return SqlVerdict.EMPTY;
+    }
+    SqlLexer lexer = new SqlLexer(sql);
+    TokenType type = lexer.next();
+    if (type == TokenType.EOF) {
+      return SqlVerdict.EMPTY;
+    }
+    if (type == TokenType.ERROR) {
+      return SqlVerdict.MALFORMED;
+    }
+    if (type != TokenType.WORD || !(lexer.is("select") || lexer.is("with"))) {
+      return SqlVerdict.NOT_A_QUERY;
+    }
+    boolean terminated = false;
+    while ((type = lexer.next()) != TokenType.EOF) {
+      switch (type) {
+        case ERROR:
+          return SqlVerdict.MALFORMED;
+        case SEMICOLON:
+          terminated = true;
+          break;
+        case WORD:
+          if (terminated) {
+            return SqlVerdict.MULTIPLE_STATEMENTS;
+          }
+          if (ForbiddenKeywords.matches(sql, lexer.start(), lexer.end())) {
+            return SqlVerdict.FORBIDDEN_KEYWORD;
+          }
+          break;
+        default:
+          if (terminated) {
+            return SqlVerdict.MULTIPLE_STATEMENTS;
+          }
+      }
+    }
+    return SqlVerdict.READ_ONLY;
+  }
+
+  public static boolean isReadOnly(String sql) {
+    return classify(sql).isReadOnly();
+  }
+}
@@ -0,0 +1,21 @@
+package com.stellantis.lwm2m.mcp.sql;
+
+/** Outcome of {@link SqlSafety#classify(String)}. */
+public enum SqlVerdict {
+  /** A single SELECT/WITH statement without forbidden keywords. */
+  READ_ONLY,
+  /** Null, blank or comment-only input. */
+  EMPTY,
+  /** Does not start with SELECT or WITH. */
+  NOT_A_QUERY,
+  /** Contains a statement after a {@code ;}. */
+  MULTIPLE_STATEMENTS,
+  /** Contains a data-modifying, DDL, session or server-side function keyword. */
+  FORBIDDEN_KEYWORD,
+  /** Unterminated string, quoted identifier, dollar quote or block comment. */
+  MALFORMED;
+
+  public boolean isReadOnly() {
+    return this == READ_ONLY;
+  }
+}
@@ -0,0 +1,93 @@
+package com.stellantis.lwm2m.mcp.sql;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SqlSafety#isReadOnly} against the regex-based {@code isReadOnlySql} it replaced.
+ *
+ * <p>Run with {@code mvn -pl stellarmind-sql-safety -Pjmh test-compile exec:exec}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SqlSafetyBenchmark {
+
+  @Param({"short", "long"})
+  public String shape;
+
+  private String sql;
+
+  @Setup
+  public void setUp() {
+    sql =
+        switch (shape) {
+          case "short" -> "SELECT serial_number, status FROM bs.event WHERE status = 'failed'";
+          default ->
+              "WITH recent AS (SELECT e.serial_number, e.status, e.event_date FROM bs.event e "
+                  + "WHERE e.event_date >= current_date - interval '7 days') "
+                  + "-- failures per vehicle\n"
+                  + "SELECT v.vin, v.vehicle_region, count(*) AS failures, max(r.event_date) "
+                  + "FROM recent r JOIN bs.bs_ecu c ON c.serial_number = r.serial_number "
+                  + "JOIN bs.bs_vehicle v ON v.vin = c.vin /* only failed */ "
+                  + "WHERE r.status IN ('failed', 'timeout', 'rejected') "
+                  + "GROUP BY v.vin, v.vehicle_region ORDER BY failures DESC LIMIT 100";
+        };
+  }
+
+  @Benchmark
+  public boolean lexer() {
+    return SqlSafety.isReadOnly(sql);
+  }
+
+  @Benchmark
+  public boolean regex() {
+    return LegacyReadOnlyCheck.isReadOnlySql(sql);
+  }
+
+  /** Verbatim copy of the previous client implementation. */
+  static final class LegacyReadOnlyCheck {
+
+    static boolean isReadOnlySql(String sql) {
+      if (sql == null || sql.isBlank()) return false;
+      if (sql.contains(";")) return false;
+      String cleaned = stripComments(stripStringLiterals(sql)).trim().toLowerCase(Locale.ROOT);
+      if (!(cleaned.startsWith("select") || cleaned.startsWith("with"))) return false;
+      String[] forbidden = {
+        "insert", "update", "delete", "merge", "upsert", "drop", "alter", "create", "truncate",
+        "vacuum", "analyze", "grant", "revoke", "call", "do", "copy", "listen", "notify", "set",
+        "explain"
+      };
+      for (String kw : forbidden) {
+        if (cleaned.matches("(?s).*\\b" + kw + "\\b.*")) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static String stripComments(String s) {
+      String noLine = s.replaceAll("(?m)--.*?$", "");
+      return noLine.replaceAll("(?s)/\\*.*?\\*/", "");
+    }
+
+    private static String stripStringLiterals(String s) {
+      String withoutSingle = s.replaceAll("(?s)'([^'\\\\]|\\\\.|'')*'", "''");
+      return withoutSingle.replaceAll("(?s)\"([^\"\\\\]|\\\\.|\"\")*\"", "\"\"");
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.stellantis.lwm2m.mcp.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class SqlSafetyTests {
+
+  static Stream<Arguments> statements() {
+    return Stream.of(
+        arguments("SELECT * FROM bs.event", SqlVerdict.READ_ONLY),
+        arguments("with x as (select 1) select * from x", SqlVerdict.READ_ONLY),
+        arguments("select 1;", SqlVerdict.READ_ONLY),
+        arguments("select update_date, \"delete\" from gtw.ecu", SqlVerdict.READ_ONLY),
+        arguments("select 'drop table t; insert' as s", SqlVerdict.READ_ONLY),
+        arguments("select e'it\\'s; drop' from t", SqlVerdict.READ_ONLY),
+        arguments("select $$ ; drop $$, $tag$ insert $tag$", SqlVerdict.READ_ONLY),
+        arguments("select /* a /* nested */ delete */ 1", SqlVerdict.READ_ONLY),
+        arguments("select 1 -- delete\n", SqlVerdict.READ_ONLY),
+        arguments("select $1 from t where v = 1e-5", SqlVerdict.READ_ONLY),
+        arguments(null, SqlVerdict.EMPTY),
+        arguments("  -- comment only", SqlVerdict.EMPTY),
+        arguments("delete from bs.event", SqlVerdict.NOT_A_QUERY),
+        arguments("select 1; drop table t", SqlVerdict.MULTIPLE_STATEMENTS),
+        arguments("select * from t for update", SqlVerdict.FORBIDDEN_KEYWORD),
+        arguments("select x into y from t", SqlVerdict.FORBIDDEN_KEYWORD),
+        arguments(
+            "with d as (delete from t returning *) select * from d",
+            SqlVerdict.FORBIDDEN_KEYWORD),
+        arguments("select pg_sleep(10)", SqlVerdict.FORBIDDEN_KEYWORD),
+        arguments("select 'unterminated", SqlVerdict.MALFORMED),
+        arguments("select $q$ open", SqlVerdict.MALFORMED),
+        arguments("select /* open", SqlVerdict.MALFORMED));
+  }
+
+  @ParameterizedTest
+  @MethodSource("statements")
+  void classifies(String sql, SqlVerdict expected) {
+    assertThat(SqlSafety.classify(sql)).isEqualTo(expected);
+  }
+
+  @Test
+  void fingerprintIgnoresLiteralsCaseAndLayout() {
+    assertThat(SqlFingerprint.of("SELECT a FROM t WHERE id = 42 AND s = 'a'"))
+        .isEqualTo(SqlFingerprint.of("select  a from t\n  where id=7 and s = $$b$$ -- x"));
+  }
+
+  @Test
+  void fingerprintKeepsIdentifiers() {
+    assertThat(SqlFingerprint.of("select a from t"))
+        .isNotEqualTo(SqlFingerprint.of("select b from t"));
+    assertThat(SqlFingerprint.of("select \"A\" from t"))
+        .isNotEqualTo(SqlFingerprint.of("select \"a\" from t"));
+  }
+}